@@ -0,0 +1,107 @@
+package org.example.learniversebe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded thread pools for work that must not run on the request thread
+ * or inside a database transaction.
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${app.upload.pool-size:8}")
+    private int uploadPoolSize;
+
+    @Value("${app.upload.queue-capacity:64}")
+    private int uploadQueueCapacity;
+
+    @Value("${app.attachment.derivative.pool-size:2}")
+    private int derivativePoolSize;
+
+    @Value("${app.attachment.derivative.queue-capacity:500}")
+    private int derivativeQueueCapacity;
+
+    @Value("${app.mail.outbox.sender-threads:2}")
+    private int emailSenderThreads;
+
+    /**
+     * Pool dùng để upload song song các file đính kèm lên storage.
+     * Khi hàng đợi đầy, request thread tự upload (CallerRuns) thay vì bị từ chối.
+     */
+    @Bean(name = "attachmentUploadExecutor")
+    public ThreadPoolTaskExecutor attachmentUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setThreadNamePrefix("upload-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool tạo thumbnail/placeholder cho ảnh. Hàng đợi có giới hạn; khi đầy, job bị từ chối
+     * (TaskRejectedException) và ảnh gốc vẫn được dùng.
+     */
+    @Bean(name = "attachmentDerivativeExecutor")
+    public ThreadPoolTaskExecutor attachmentDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(derivativePoolSize);
+        executor.setMaxPoolSize(derivativePoolSize);
+        executor.setQueueCapacity(derivativeQueueCapacity);
+        executor.setThreadNamePrefix("derivative-");
+        return executor;
+    }
+
+    /**
+     * Một thread duy nhất gửi message từ notification outbox lên STOMP broker, giữ thứ tự gửi.
+     * Các yêu cầu drain được gộp lại nên hàng đợi chỉ cần rất nhỏ.
+     */
+    @Bean(name = "notificationDispatchExecutor")
+    public ThreadPoolTaskExecutor notificationDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("notification-dispatch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Chạy các job broadcast thông báo (INSERT ... SELECT theo chunk), lần lượt từng job.
+     */
+    @Bean(name = "notificationBroadcastExecutor")
+    public ThreadPoolTaskExecutor notificationBroadcastExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("notification-broadcast-");
+        return executor;
+    }
+
+    /**
+     * Pool gửi email từ email outbox. Số sender đang chạy do EmailOutboxSender giới hạn bằng đúng số thread,
+     * nên không cần hàng đợi lớn; khi bị từ chối, lần poll sau sẽ khởi động lại.
+     */
+    @Bean(name = "emailSenderExecutor")
+    public ThreadPoolTaskExecutor emailSenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(emailSenderThreads);
+        executor.setMaxPoolSize(emailSenderThreads);
+        executor.setQueueCapacity(emailSenderThreads);
+        executor.setThreadNamePrefix("email-sender-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
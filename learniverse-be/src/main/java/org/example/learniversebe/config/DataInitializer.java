@@ -4,6 +4,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.learniversebe.dto.request.RegisterRequest;
 import org.example.learniversebe.enums.UserRole;
 import org.example.learniversebe.model.Tag;
+import org.example.learniversebe.repository.CommentRepository;
+import org.example.learniversebe.repository.ContentRepository;
 import org.example.learniversebe.repository.RoleUserRepository;
 import org.example.learniversebe.repository.TagRepository;
 import org.example.learniversebe.service.IAuthService;
@@ -24,13 +26,18 @@ public class DataInitializer implements CommandLineRunner {
     private final TagRepository tagRepository;
     private final RoleUserRepository roleUserRepository;
     private final IAuthService authService;
-
+    private final CommentRepository commentRepository;
+    private final ContentRepository contentRepository;
 
     public DataInitializer(IRoleService roleService,
                            TagRepository tagRepository,
                            RoleUserRepository roleUserRepository,
-                           IAuthService authService) {
+                           IAuthService authService,
+                           CommentRepository commentRepository,
+                           ContentRepository contentRepository) {
         this.authService = authService;
+        this.commentRepository = commentRepository;
+        this.contentRepository = contentRepository;
         this.roleService = roleService;
         this.roleUserRepository = roleUserRepository;
         this.tagRepository = tagRepository;
@@ -42,6 +49,24 @@ public class DataInitializer implements CommandLineRunner {
         initializeRoles();
         initializeTags();
         initOnlyOneAdmin();
+        backfillCommentThreadPaths();
+        backfillReactionBreakdown();
+    }
+
+    private void backfillReactionBreakdown() {
+        // Content tạo trước khi có các cột histogram reaction
+        if (contentRepository.existsWithoutReactionBreakdown()) {
+            int updated = contentRepository.backfillReactionBreakdown();
+            log.info("Backfilled reaction breakdown for {} contents.", updated);
+        }
+    }
+
+    private void backfillCommentThreadPaths() {
+        // Comment tạo trước khi có cột depth/root_id/path
+        if (commentRepository.existsWithoutPath()) {
+            int updated = commentRepository.backfillThreadPaths();
+            log.info("Backfilled thread path for {} comments.", updated);
+        }
     }
 
     private void initOnlyOneAdmin() {
@@ -622,6 +622,7 @@ public class DemoDataSeeder implements CommandLineRunner {
                 reaction.setUser(reactor);
                 reaction.setReactionType(pickReaction());
                 reactions.add(reaction);
+                post.getReactionBreakdown().increment(reaction.getReactionType());
             }
             post.setReactionCount(reactedUsers.size());
         }
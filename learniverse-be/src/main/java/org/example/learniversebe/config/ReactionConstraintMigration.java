@@ -0,0 +1,108 @@
+package org.example.learniversebe.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Chuyển ràng buộc unique của reactions từ (item, user, reaction_type) sang (item, user)
+ * trước khi Hibernate cập nhật schema (ddl-auto=update không tự dọn dữ liệu trùng nên
+ * không tạo được uq_reaction_per_user_item trên database cũ).
+ * - Mỗi (reactable_type, reactable_id, user_id) chỉ giữ một dòng: ưu tiên dòng chưa bị xóa mềm, mới nhất.
+ * - Tính lại reaction_count của content/comment bị ảnh hưởng; histogram của content được đặt null
+ *   để {@link DataInitializer} backfill lại lúc khởi động.
+ * Chạy một lần: bỏ qua khi bảng chưa tồn tại hoặc ràng buộc mới đã có.
+ */
+@Slf4j
+@Component
+public class ReactionConstraintMigration implements InitializingBean {
+
+    private final DataSource dataSource;
+
+    public ReactionConstraintMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!queryBoolean(connection, "SELECT to_regclass('reactions') IS NOT NULL")
+                    || queryBoolean(connection,
+                    "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uq_reaction_per_user_item')")) {
+                return;
+            }
+
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TEMP TABLE reaction_duplicates ON COMMIT DROP AS
+                        SELECT id, reactable_type, reactable_id FROM (
+                            SELECT id, reactable_type, reactable_id,
+                                   ROW_NUMBER() OVER (PARTITION BY reactable_type, reactable_id, user_id
+                                                      ORDER BY (deleted_at IS NULL) DESC,
+                                                               updated_at DESC NULLS LAST,
+                                                               created_at DESC NULLS LAST, id) AS rn
+                            FROM reactions) ranked
+                        WHERE rn > 1
+                        """);
+                int removed = statement.executeUpdate(
+                        "DELETE FROM reactions WHERE id IN (SELECT id FROM reaction_duplicates)");
+
+                statement.executeUpdate("""
+                        UPDATE contents c SET reaction_count = (
+                            SELECT COUNT(*) FROM reactions r
+                            WHERE r.reactable_type = 'CONTENT' AND r.reactable_id = c.id AND r.deleted_at IS NULL)
+                        WHERE c.id IN (SELECT reactable_id FROM reaction_duplicates WHERE reactable_type = 'CONTENT')
+                        """);
+                statement.executeUpdate("""
+                        UPDATE comments c SET reaction_count = (
+                            SELECT COUNT(*) FROM reactions r
+                            WHERE r.reactable_type = 'COMMENT' AND r.reactable_id = c.id AND r.deleted_at IS NULL)
+                        WHERE c.id IN (SELECT reactable_id FROM reaction_duplicates WHERE reactable_type = 'COMMENT')
+                        """);
+                if (queryBoolean(connection, "SELECT EXISTS (SELECT 1 FROM information_schema.columns " +
+                        "WHERE table_name = 'contents' AND column_name = 'reaction_like_count')")) {
+                    statement.executeUpdate("""
+                            UPDATE contents SET reaction_like_count = NULL
+                            WHERE id IN (SELECT reactable_id FROM reaction_duplicates WHERE reactable_type = 'CONTENT')
+                            """);
+                }
+
+                statement.execute("ALTER TABLE reactions DROP CONSTRAINT IF EXISTS uq_reaction_per_user_item_type");
+                statement.execute("ALTER TABLE reactions ADD CONSTRAINT uq_reaction_per_user_item " +
+                        "UNIQUE (reactable_type, reactable_id, user_id)");
+                connection.commit();
+                log.info("Migrated reactions to one row per user and item, removed {} duplicate rows.", removed);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private boolean queryBoolean(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    /**
+     * Bắt EntityManagerFactory (và schema update của Hibernate) chờ migration này chạy xong.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigration() {
+            super(ReactionConstraintMigration.class);
+        }
+    }
+}
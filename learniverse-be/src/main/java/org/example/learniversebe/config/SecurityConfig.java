@@ -85,6 +85,7 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/v1/answers/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/comments/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/v1/tags/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/files/**").permitAll()
 
                         .requestMatchers("/api/v1/dummy/**", "/api/v1/auth/change-password").hasRole("USER")
                         .requestMatchers("/api/v1/auth/register-admin").hasRole("ADMIN")
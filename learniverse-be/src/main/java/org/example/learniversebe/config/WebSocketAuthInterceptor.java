@@ -2,27 +2,55 @@ package org.example.learniversebe.config;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.learniversebe.jwt.JwtUtil;
+import org.example.learniversebe.model.CustomUserDetails;
+import org.example.learniversebe.repository.ContentRepository;
+import org.example.learniversebe.service.CommentStreamPublisher;
+import org.example.learniversebe.service.ContentVisibilityService;
+import org.example.learniversebe.service.implementation.UserDetailsServiceImpl;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
+import java.security.Principal;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 @Slf4j
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
+    /** Topic chỉ dành cho moderator/admin (hàng đợi kiểm duyệt) */
+    public static final String MODERATION_TOPIC = "/topic/moderation";
+
+    private static final Set<String> MODERATION_ROLES = Set.of("ROLE_ADMIN", "ROLE_MODERATOR");
+
     private final JwtUtil jwtUtil;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final ContentRepository contentRepository;
+    private final ContentVisibilityService visibilityService;
+    private final TransactionTemplate transactionTemplate;
 
-    public WebSocketAuthInterceptor(JwtUtil jwtUtil) {
+    public WebSocketAuthInterceptor(JwtUtil jwtUtil,
+                                    UserDetailsServiceImpl userDetailsService,
+                                    ContentRepository contentRepository,
+                                    ContentVisibilityService visibilityService,
+                                    TransactionTemplate transactionTemplate) {
         this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.contentRepository = contentRepository;
+        this.visibilityService = visibilityService;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @Override
@@ -38,9 +66,14 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                 try {
                     if (jwtUtil.validateToken(token)) {
                         String username = jwtUtil.extractUsername(token);
-                        Authentication authentication = new UsernamePasswordAuthenticationToken(
-                            username, null, Collections.emptyList()
+                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            username, null, userDetails.getAuthorities()
                         );
+                        // Giữ user id để kiểm tra quyền xem khi subscribe luồng comment
+                        if (userDetails instanceof CustomUserDetails customUserDetails) {
+                            authentication.setDetails(customUserDetails.getId());
+                        }
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                         accessor.setUser(authentication);
                         log.info("WebSocket connection authenticated for user: {}", username);
@@ -51,6 +84,64 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
             }
         }
 
+        if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())
+                && accessor.getDestination() != null) {
+            checkSubscription(accessor.getUser(), accessor.getDestination());
+        }
+
         return message;
     }
+
+    /**
+     * SimpleBroker coi destination chứa '*', '?' hoặc '{' là pattern (AntPath), nên một subscription
+     * như /topic/** sẽ nhận cả topic kiểm duyệt lẫn luồng comment của mọi bài viết. Chỉ cho subscribe
+     * destination cụ thể; khi đó broker so khớp nguyên văn và các kiểm tra prefix bên dưới là đủ.
+     */
+    private void checkSubscription(Principal user, String destination) {
+        if (isPattern(destination)) {
+            throw new AccessDeniedException("Wildcard subscriptions are not allowed: " + destination);
+        }
+        if (destination.startsWith(MODERATION_TOPIC) && !isModerator(user)) {
+            throw new AccessDeniedException("Only moderators can subscribe to " + MODERATION_TOPIC);
+        }
+        if (destination.startsWith(CommentStreamPublisher.CONTENT_TOPIC_PREFIX)
+                && !canViewContentTopic(user, destination)) {
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+
+    /**
+     * Luồng comment của bài viết chỉ dành cho người xem được bài viết (theo visibility).
+     */
+    private boolean canViewContentTopic(Principal principal, String destination) {
+        String rest = destination.substring(CommentStreamPublisher.CONTENT_TOPIC_PREFIX.length());
+        if (!rest.endsWith(CommentStreamPublisher.COMMENTS_TOPIC_SUFFIX)) {
+            return false;
+        }
+        UUID contentId;
+        try {
+            contentId = UUID.fromString(rest.substring(0, rest.length() - CommentStreamPublisher.COMMENTS_TOPIC_SUFFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        UUID userId = principal instanceof Authentication authentication && authentication.getDetails() instanceof UUID id
+                ? id : null;
+        Boolean allowed = transactionTemplate.execute(status -> contentRepository.findById(contentId)
+                .map(content -> visibilityService.canUserViewContent(userId, content))
+                .orElse(false));
+        return Boolean.TRUE.equals(allowed);
+    }
+
+    private boolean isModerator(Principal principal) {
+        if (!(principal instanceof Authentication authentication)) {
+            return false;
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(MODERATION_ROLES::contains);
+    }
 }
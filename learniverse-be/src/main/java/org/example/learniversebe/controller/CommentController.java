@@ -14,11 +14,14 @@ import org.example.learniversebe.service.ICommentService;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -52,6 +55,49 @@ public class CommentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get comments for an entity using cursor-based pagination",
+            description = "Pass nextCursor and nextCursorId from the previous page to fetch older comments. " +
+                    "With since=true, returns only comments created after the cursor (oldest first) for polling new comments.")
+    public ResponseEntity<ApiResponse<org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse>>> getCommentsByCursor(
+            @RequestParam ReactableType type,
+            @RequestParam UUID id,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+            @RequestParam(required = false) UUID cursorId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean since) {
+        org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> comments =
+                commentService.getCommentsByCursor(type, id, cursor, cursorId, limit, since);
+        return ResponseEntity.ok(new ApiResponse<>(HttpStatus.OK, "Comments retrieved successfully", comments, null));
+    }
+
+    @GetMapping("/{commentId}/replies/cursor")
+    @Operation(summary = "Get replies for a comment using cursor-based pagination",
+            description = "Replies are returned oldest first; the cursor of the last reply can be reused to poll for new replies.")
+    public ResponseEntity<ApiResponse<org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse>>> getRepliesByCursor(
+            @PathVariable UUID commentId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+            @RequestParam(required = false) UUID cursorId,
+            @RequestParam(defaultValue = "20") int limit) {
+        org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> replies =
+                commentService.getRepliesByCursor(commentId, cursor, cursorId, limit);
+        return ResponseEntity.ok(new ApiResponse<>(HttpStatus.OK, "Replies retrieved successfully", replies, null));
+    }
+
+    @GetMapping("/threads")
+    @Operation(summary = "Get top-level comments with their first replies", description = "Retrieves paginated top-level comments for an entity, each with up to `replies` oldest replies embedded and the viewer's reactions.")
+    public ResponseEntity<ApiResponse<PageResponse<CommentResponse>>> getCommentThreadsFor(
+            @RequestParam ReactableType type,
+            @RequestParam UUID id,
+            @RequestParam(defaultValue = "3") int replies,
+            @ParameterObject @PageableDefault(size = 10) Pageable pageable) {
+        PageResponse<CommentResponse> threadPage = commentService.getCommentThreadsFor(type, id, pageable, replies);
+        ApiResponse<PageResponse<CommentResponse>> response = new ApiResponse<>(HttpStatus.OK, "Comment threads retrieved successfully", threadPage, null);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{commentId}/replies")
     @Operation(summary = "Get replies for a comment", description = "Retrieves paginated replies for a specific parent comment.")
     public ResponseEntity<ApiResponse<PageResponse<CommentResponse>>> getRepliesForComment(
@@ -62,6 +108,14 @@ public class CommentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{commentId}/thread")
+    @Operation(summary = "Get a comment with all nested replies", description = "Returns the comment and its whole reply tree in depth-first order, loaded with a single query.")
+    public ResponseEntity<ApiResponse<List<CommentResponse>>> getThread(@PathVariable UUID commentId) {
+        List<CommentResponse> thread = commentService.getThread(commentId);
+        ApiResponse<List<CommentResponse>> response = new ApiResponse<>(HttpStatus.OK, "Thread retrieved successfully", thread, null);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{commentId}")
     @Operation(summary = "Get a single comment by ID")
     public ResponseEntity<ApiResponse<CommentResponse>> getCommentById(@PathVariable UUID commentId) {
@@ -26,10 +26,12 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -86,21 +88,33 @@ public class DashboardController {
     }
 
     @Operation(summary = "Send notification to all users",
-            description = "Broadcasts a notification to all users in the system (admin only)")
+            description = "Starts a background job that broadcasts a notification to all active users (admin only). " +
+                    "Returns the job id; poll /notifications/broadcast/{jobId} for progress")
     @PostMapping("/notifications/broadcast")
-    public ResponseEntity<ApiResponse<String>> broadcastNotification(
+    public ResponseEntity<ApiResponse<BroadcastJobResponse>> broadcastNotification(
             @RequestBody @Valid BroadcastNotificationRequest request) {
-        int sentCount = dashboardService.broadcastNotification(request);
-        return ResponseEntity.ok(
+        BroadcastJobResponse job = dashboardService.broadcastNotification(request);
+        return ResponseEntity.accepted().body(
                 new ApiResponse<>(
-                        HttpStatus.OK,
-                        "Notification sent to " + sentCount + " users",
-                        "Broadcast successful",
+                        HttpStatus.ACCEPTED,
+                        "Broadcast started for " + job.getTotalRecipients() + " users",
+                        job,
                         null
                 )
         );
     }
 
+    @Operation(summary = "Get broadcast progress",
+            description = "Returns the status and number of notifications created so far for a broadcast job")
+    @GetMapping("/notifications/broadcast/{jobId}")
+    public ResponseEntity<ApiResponse<BroadcastJobResponse>> getBroadcastProgress(
+            @Parameter(description = "Broadcast job ID")
+            @PathVariable UUID jobId) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(HttpStatus.OK, "Broadcast progress", dashboardService.getBroadcastProgress(jobId), null)
+        );
+    }
+
     // ==================== Tag Management ====================
 
     @Operation(summary = "Update a tag",
@@ -184,6 +198,20 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getAllNotifications(page, size));
     }
 
+    @Operation(summary = "Get all notifications (cursor)",
+            description = "Returns notifications ordered by createdAt/id descending using keyset pagination. " +
+                    "Pass nextCursor and nextCursorId from the previous response to get the next page.")
+    @GetMapping("/notifications/cursor")
+    public ResponseEntity<org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse>> getAllNotificationsByCursor(
+            @Parameter(description = "createdAt of the last item of the previous page")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+            @Parameter(description = "id of the last item of the previous page")
+            @RequestParam(required = false) UUID cursorId,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dashboardService.getAllNotificationsByCursor(cursor, cursorId, limit));
+    }
+
     // ==================== Content Management ====================
 
     @Operation(summary = "Get all posts with filtering",
@@ -0,0 +1,50 @@
+package org.example.learniversebe.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.learniversebe.exception.ResourceNotFoundException;
+import org.example.learniversebe.service.IStorageService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/v1/files")
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+@Tag(name = "File Storage", description = "Serve files stored by the local storage backend")
+public class FileController {
+
+    private final IStorageService storageService;
+
+    public FileController(IStorageService storageService) {
+        this.storageService = storageService;
+    }
+
+    /**
+     * Trả file dưới dạng Resource. Spring MVC tự trả 206 Partial Content khi request có header Range.
+     * Blob được định danh bằng SHA-256 nên nội dung bất biến -> cache lâu dài với ETag là hash.
+     */
+    @GetMapping("/{hash}/{name}")
+    @Operation(summary = "Download a stored file", description = "Streams a stored file; supports HTTP Range requests")
+    public ResponseEntity<Resource> getFile(@PathVariable String hash, @PathVariable String name) throws IOException {
+        Resource resource = storageService.loadAsResource(hash + "/" + name)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + hash + "/" + name));
+        MediaType mediaType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .eTag("\"" + hash + "\"")
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                .body(resource);
+    }
+}
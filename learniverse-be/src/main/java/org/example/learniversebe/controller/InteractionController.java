@@ -9,6 +9,7 @@ import org.example.learniversebe.dto.request.VoteRequest;
 import org.example.learniversebe.model.ApiResponse;
 import org.example.learniversebe.dto.response.BookmarkResponse;
 import org.example.learniversebe.dto.response.PageResponse;
+import org.example.learniversebe.dto.response.ReactionStateResponse;
 import org.example.learniversebe.service.IInteractionService;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
@@ -42,9 +43,9 @@ public class InteractionController {
 
     @PostMapping("/react")
     @Operation(summary = "Add/Remove a reaction", description = "UC 2.3: Adds, changes, or removes a reaction on a Post, Question, Answer, or Comment.")
-    public ResponseEntity<ApiResponse<Void>> react(@Valid @RequestBody ReactionRequest request) {
-        interactionService.react(request);
-        ApiResponse<Void> response = new ApiResponse<>(HttpStatus.OK, "Reaction processed successfully", null, null);
+    public ResponseEntity<ApiResponse<ReactionStateResponse>> react(@Valid @RequestBody ReactionRequest request) {
+        ReactionStateResponse state = interactionService.react(request);
+        ApiResponse<ReactionStateResponse> response = new ApiResponse<>(HttpStatus.OK, "Reaction processed successfully", state, null);
         return ResponseEntity.ok(response);
     }
 
@@ -6,10 +6,12 @@ import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.model.ApiResponse;
 import org.example.learniversebe.service.INotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -32,6 +34,23 @@ public class NotificationController {
         );
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Get notifications of current user using cursor-based pagination",
+            description = "Pass nextCursor and nextCursorId from the previous page to fetch the next one.")
+    public ResponseEntity<ApiResponse<org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse>>> getNotificationsByCursor(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+            @RequestParam(required = false) UUID cursorId,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse> notifications =
+                notificationService.getNotificationsByCursor(cursor, cursorId, limit);
+
+        return ResponseEntity.ok(
+                new ApiResponse<>(HttpStatus.OK, "Notifications retrieved successfully", notifications, null)
+        );
+    }
+
     @GetMapping("/unread-count")
     @Operation(summary = "Get unread notification count of current user")
     public ResponseEntity<ApiResponse<Long>> getUnreadNotificationCount() {
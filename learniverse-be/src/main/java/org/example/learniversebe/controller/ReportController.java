@@ -24,6 +24,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -203,6 +204,32 @@ public class ReportController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Moderation feed dùng chung: các report đang chờ xử lý, mới nhất trước (cursor pagination).
+     * Client subscribe /topic/moderation để biết khi có report mới rồi tải lại trang đầu.
+     */
+    @GetMapping("/feed")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    @Operation(
+            summary = "Moderation feed",
+            description = "Danh sách report PENDING dùng chung cho mọi moderator, phân trang theo cursor " +
+                    "(truyền nextCursor và nextCursorId của trang trước)."
+    )
+    public ResponseEntity<ApiResponse<org.example.learniversebe.dto.response.pagination.PageResponse<ReportResponse>>> getModerationFeed(
+            @Parameter(description = "createdAt của phần tử cuối trang trước")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursor,
+            @Parameter(description = "id của phần tử cuối trang trước")
+            @RequestParam(required = false) UUID cursorId,
+            @RequestParam(defaultValue = "20") int limit) {
+        ApiResponse<org.example.learniversebe.dto.response.pagination.PageResponse<ReportResponse>> response = new ApiResponse<>(
+                HttpStatus.OK,
+                "Moderation feed retrieved successfully",
+                reportService.getModerationFeed(cursor, cursorId, limit),
+                null
+        );
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Lấy danh sách reports của user hiện tại
      */
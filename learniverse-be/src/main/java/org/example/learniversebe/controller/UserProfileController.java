@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import org.example.learniversebe.dto.request.UserProfileRequest;
 import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.dto.response.UserProfileResponse;
+import org.example.learniversebe.dto.response.UserResponse;
 import org.example.learniversebe.model.ApiResponse;
 import org.example.learniversebe.model.CustomUserDetails;
 import org.example.learniversebe.service.IUserProfileService;
@@ -19,6 +20,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
 import java.util.UUID;
 
 @RequestMapping("/api/v1/user_profile")
@@ -77,6 +79,17 @@ public class UserProfileController {
         PageResponse<UserProfileResponse> users = service.searchUserExcludeAdmin(pageable, search);
         return ResponseEntity.ok(new ApiResponse<>(HttpStatus.OK, "Search users fetched successfully", users, null));
     }
+    @Operation(summary = "Autocomplete usernames for @mentions by prefix")
+    @GetMapping("/mentions/autocomplete")
+    public ResponseEntity<ApiResponse<List<UserResponse>>> autocompleteMentions(
+            @Parameter(description = "Username prefix (a leading @ is ignored)")
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit
+    ) {
+        List<UserResponse> users = service.autocompleteUsernames(q, limit);
+        return ResponseEntity.ok(new ApiResponse<>(HttpStatus.OK, "Mention suggestions fetched successfully", users, null));
+    }
+
     @Operation(summary = "Get user profile by user ID")
     @GetMapping("/{userId}")
     public UserProfileResponse getUserProfile(@PathVariable UUID userId) {
@@ -0,0 +1,14 @@
+package org.example.learniversebe.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AiBatchModerationRequest {
+    private List<String> texts;
+}
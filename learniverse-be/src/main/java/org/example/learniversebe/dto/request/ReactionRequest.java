@@ -23,4 +23,8 @@ public class ReactionRequest {
     @Schema(description = "Loại reaction theo enum", requiredMode = Schema.RequiredMode.REQUIRED)
     @NotNull(message = "Reaction type cannot be null")
     private ReactionType reactionType;
+
+    @Schema(description = "Trạng thái mong muốn: true = đặt reaction này, false = gỡ reaction, bỏ trống = bật/tắt như nút bấm. " +
+            "Gửi true/false để client retry an toàn (idempotent)")
+    private Boolean active;
 }
@@ -0,0 +1,15 @@
+package org.example.learniversebe.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AiBatchModerationResponse {
+    private boolean success;
+    private List<AiModerationResponse.PredictionResult> results;
+}
@@ -31,6 +31,12 @@ public class AttachmentResponse {
     @Schema(description = "URL để truy cập/tải file")
     private String storageUrl;
 
+    @Schema(description = "URL ảnh thumbnail đã resize (null nếu chưa tạo xong hoặc không phải ảnh)")
+    private String thumbnailUrl;
+
+    @Schema(description = "Ảnh placeholder chất lượng thấp (data URI) để hiển thị trong lúc tải")
+    private String placeholder;
+
     @Schema(description = "Thời gian tải lên")
     private LocalDateTime createdAt;
 }
@@ -0,0 +1,19 @@
+package org.example.learniversebe.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+public class BroadcastJobResponse {
+    private UUID jobId;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private long totalRecipients;
+    private long insertedCount;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
@@ -33,6 +33,12 @@ public class CommentResponse {
     @Schema(description = "ID của comment cha (nếu là reply)")
     private UUID parentId;
 
+    @Schema(description = "ID của comment gốc của thread")
+    private UUID rootId;
+
+    @Schema(description = "Độ sâu trong cây reply (0 = comment gốc)")
+    private Integer depth;
+
     @Schema(description = "Nội dung bình luận (có thể là HTML)")
     private String body;
 
@@ -0,0 +1,21 @@
+package org.example.learniversebe.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Một frame trên /topic/content/{id}/comments: các sự kiện được gộp trong một khoảng ngắn, theo thứ tự xảy ra.
+ */
+@Data
+@AllArgsConstructor
+public class CommentStreamBatch {
+    private UUID contentId;
+
+    private List<CommentStreamEvent> events;
+
+    /** true nếu có sự kiện bị bỏ bớt do quá nhiều; client nên tải lại bằng cursor since */
+    private boolean truncated;
+}
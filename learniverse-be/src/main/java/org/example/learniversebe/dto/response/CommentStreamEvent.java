@@ -0,0 +1,32 @@
+package org.example.learniversebe.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.learniversebe.enums.CommentStreamEventType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Một thay đổi comment/answer trên một bài viết, gửi qua STOMP.
+ * Payload không chứa trạng thái riêng của người xem (currentUserReaction luôn null).
+ */
+@Data
+@Builder
+public class CommentStreamEvent {
+    private CommentStreamEventType type;
+
+    /** ID của comment hoặc answer (với *_DELETED chỉ có id, client gỡ item khỏi danh sách) */
+    private UUID id;
+
+    /** Comment cha (nếu là reply) */
+    private UUID parentId;
+
+    /** Có với COMMENT_CREATED / COMMENT_UPDATED */
+    private CommentResponse comment;
+
+    /** Có với ANSWER_CREATED */
+    private AnswerResponse answer;
+
+    private LocalDateTime occurredAt;
+}
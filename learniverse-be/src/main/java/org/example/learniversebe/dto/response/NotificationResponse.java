@@ -5,6 +5,7 @@ import lombok.Data;
 import org.example.learniversebe.enums.NotificationType;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Data
@@ -21,4 +22,10 @@ public class NotificationResponse {
     private UUID senderId;
     private String senderName;
     private String senderAvatarUrl;
+
+    private int actorCount;
+    private List<UUID> recentActorIds;
+
+    /** Số thông báo chưa đọc của người nhận, chỉ có trong message realtime gửi riêng cho user */
+    private Integer unreadCount;
 }
\ No newline at end of file
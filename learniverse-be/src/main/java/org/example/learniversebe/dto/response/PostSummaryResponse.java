@@ -9,6 +9,7 @@ import org.example.learniversebe.enums.ContentVisibility;
 import org.example.learniversebe.enums.ReactionType;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -51,6 +52,9 @@ public class PostSummaryResponse {
     @Schema(description = "Số lượt reaction")
     private Integer reactionCount;
 
+    @Schema(description = "Số reaction theo từng loại (chỉ các loại có reaction, nhiều nhất trước)")
+    private Map<ReactionType, Integer> reactionBreakdown;
+
     @Schema(description = "Số lượt bookmark")
     private Integer bookmarkCount;
 
@@ -86,4 +90,10 @@ public class PostSummaryResponse {
 
     @Schema(description = "Danh sách file đính kèm (Ảnh/PDF)")
     private Set<AttachmentResponse> attachments;
+
+    @Schema(description = "Thumbnail của ảnh đính kèm đầu tiên (dùng cho feed thay vì ảnh gốc)")
+    private String coverThumbnailUrl;
+
+    @Schema(description = "Placeholder (data URI) của ảnh đính kèm đầu tiên")
+    private String coverPlaceholder;
 }
@@ -0,0 +1,18 @@
+package org.example.learniversebe.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.learniversebe.enums.ReactionType;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Trạng thái reaction của người dùng sau khi xử lý")
+public class ReactionStateResponse {
+
+    @Schema(description = "Reaction hiện tại của người dùng (null nếu đã gỡ)")
+    private ReactionType reactionType;
+
+    @Schema(description = "Tổng số reaction mới của đối tượng (null nếu đối tượng không đếm reaction)")
+    private Integer reactionCount;
+}
@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -11,5 +12,8 @@ public class PaginationMeta {
 
     private LocalDateTime nextCursor;
 
+    /** Id của phần tử cuối trang, dùng cùng nextCursor khi nhiều phần tử trùng thời điểm */
+    private UUID nextCursorId;
+
     private boolean hasNext;
 }
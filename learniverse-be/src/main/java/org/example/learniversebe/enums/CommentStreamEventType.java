@@ -0,0 +1,12 @@
+package org.example.learniversebe.enums;
+
+/**
+ * Loại sự kiện trên luồng /topic/content/{id}/comments
+ */
+public enum CommentStreamEventType {
+    COMMENT_CREATED,
+    COMMENT_UPDATED,
+    COMMENT_DELETED,
+    ANSWER_CREATED,
+    ANSWER_DELETED
+}
@@ -0,0 +1,20 @@
+package org.example.learniversebe.enums;
+
+/**
+ * Các mẫu email hệ thống, mỗi mẫu ứng với file templates/email/{name}.html
+ */
+public enum EmailTemplate {
+    VERIFICATION("verification"),       // Mã xác thực email khi đăng ký
+    PASSWORD_RESET("password-reset"),   // Link đặt lại mật khẩu
+    ADMIN_ACCOUNT("admin-account");     // Thông tin đăng nhập của tài khoản admin mới
+
+    private final String templateName;
+
+    EmailTemplate(String templateName) {
+        this.templateName = templateName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.learniversebe.enums;
+
+/**
+ * Cách một câu upsert tương tác (reaction, bookmark) xử lý trạng thái hiện có.
+ */
+public enum InteractionUpsertMode {
+    /** Bật nếu đang tắt, tắt nếu đang bật cùng loại (hành vi nút bấm cũ) */
+    TOGGLE,
+    /** Đảm bảo đang bật với giá trị gửi lên; gửi lại nhiều lần cho cùng kết quả */
+    SET,
+    /** Đảm bảo đang tắt; gửi lại nhiều lần cho cùng kết quả */
+    REMOVE;
+
+    /**
+     * Chế độ theo cờ {@code active} client gửi: null -> TOGGLE, true -> SET, false -> REMOVE.
+     */
+    public static InteractionUpsertMode fromActive(Boolean active) {
+        if (active == null) {
+            return TOGGLE;
+        }
+        return active ? SET : REMOVE;
+    }
+}
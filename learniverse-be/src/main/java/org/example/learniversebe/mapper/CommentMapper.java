@@ -3,13 +3,16 @@ package org.example.learniversebe.mapper;
 import org.example.learniversebe.dto.request.CreateCommentRequest;
 import org.example.learniversebe.dto.response.CommentResponse;
 import org.example.learniversebe.dto.response.PageResponse; // Import PageResponse
+import org.example.learniversebe.dto.response.pagination.PaginationMeta;
 import org.example.learniversebe.model.Comment;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +40,9 @@ public interface CommentMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "deletedAt", ignore = true)
+    @Mapping(target = "depth", ignore = true) // Computed in @PrePersist from the parent
+    @Mapping(target = "rootId", ignore = true)
+    @Mapping(target = "path", ignore = true)
     Comment createCommentRequestToComment(CreateCommentRequest request);
 
     /**
@@ -72,4 +78,33 @@ public interface CommentMapper {
                 .collect(Collectors.toList());
         return PageResponse.fromPage(page, dtoList);
     }
+
+    /**
+     * Builds a cursor page from {@code limit + 1} rows (the extra row only signals that a next page exists).
+     * With {@code cursorAtEnd} the cursor of the last row is returned even when there is no next page,
+     * so a client polling for new comments can resume from it; if nothing new arrived, the request's
+     * cursor is echoed back so the client keeps its position instead of restarting from the first page.
+     * @param rows Rows fetched with a limit of {@code limit + 1}.
+     * @param limit Requested page size.
+     * @param cursorAtEnd Whether to always return the cursor of the last row.
+     * @param requestCursor Cursor the page was requested with (null for the first page).
+     * @param requestCursorId Cursor id the page was requested with.
+     * @return A cursor PageResponse containing CommentResponse DTOs.
+     */
+    default org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> toCursorPage(
+            List<Comment> rows, int limit, boolean cursorAtEnd, LocalDateTime requestCursor, UUID requestCursorId) {
+        boolean hasNext = rows.size() > limit;
+        List<Comment> page = hasNext ? rows.subList(0, limit) : rows;
+        Comment last = page.isEmpty() ? null : page.get(page.size() - 1);
+        boolean withCursor = last != null && (hasNext || cursorAtEnd);
+        boolean echoCursor = last == null && cursorAtEnd;
+        return org.example.learniversebe.dto.response.pagination.PageResponse.<CommentResponse>builder()
+                .data(page.stream().map(this::commentToCommentResponse).collect(Collectors.toList()))
+                .pagination(PaginationMeta.builder()
+                        .nextCursor(withCursor ? last.getCreatedAt() : echoCursor ? requestCursor : null)
+                        .nextCursorId(withCursor ? last.getId() : echoCursor ? requestCursorId : null)
+                        .hasNext(hasNext)
+                        .build())
+                .build();
+    }
 }
\ No newline at end of file
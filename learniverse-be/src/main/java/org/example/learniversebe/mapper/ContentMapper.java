@@ -3,14 +3,22 @@ package org.example.learniversebe.mapper;
 import org.example.learniversebe.dto.request.CreatePostRequest;
 import org.example.learniversebe.dto.request.CreateQuestionRequest;
 import org.example.learniversebe.dto.response.*;
+import org.example.learniversebe.enums.AttachmentType;
+import org.example.learniversebe.enums.ReactionType;
+import org.example.learniversebe.model.Attachment;
 import org.example.learniversebe.model.Content;
 import org.example.learniversebe.model.ContentTag;
+import org.example.learniversebe.model.ReactionBreakdown;
 import org.mapstruct.*;
 import org.mapstruct.factory.Mappers;
 import org.springframework.data.domain.Page;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -33,6 +41,7 @@ public interface ContentMapper {
     @Mapping(target = "viewCount", ignore = true)
     @Mapping(target = "commentCount", ignore = true)
     @Mapping(target = "reactionCount", ignore = true)
+    @Mapping(target = "reactionBreakdown", ignore = true)
     @Mapping(target = "bookmarkCount", ignore = true)
     @Mapping(target = "shareCount", ignore = true)
     @Mapping(target = "voteScore", ignore = true)
@@ -64,6 +73,7 @@ public interface ContentMapper {
     @Mapping(target = "viewCount", ignore = true)
     @Mapping(target = "commentCount", ignore = true)
     @Mapping(target = "reactionCount", ignore = true)
+    @Mapping(target = "reactionBreakdown", ignore = true)
     @Mapping(target = "bookmarkCount", ignore = true)
     @Mapping(target = "shareCount", ignore = true)
     @Mapping(target = "voteScore", ignore = true)
@@ -113,6 +123,9 @@ public interface ContentMapper {
     @Mapping(source = "group.name", target = "groupName")
     @Mapping(source = "group.slug", target = "groupSlug")
     @Mapping(source = "group.avatarUrl", target = "groupAvatarUrl")
+    @Mapping(source = "attachments", target = "coverThumbnailUrl", qualifiedByName = "coverThumbnailUrl")
+    @Mapping(source = "attachments", target = "coverPlaceholder", qualifiedByName = "coverPlaceholder")
+    @Mapping(source = "reactionBreakdown", target = "reactionBreakdown", qualifiedByName = "reactionBreakdown")
     PostSummaryResponse contentToPostSummaryResponse(Content content);
 
     /**
@@ -198,6 +211,48 @@ public interface ContentMapper {
         return body.length() > limit ? body.substring(0, limit) + "..." : body;
     }
 
+    /**
+     * Ảnh bìa của bài viết trong feed: ảnh đính kèm upload sớm nhất đã có thumbnail.
+     */
+    @Named("coverImage")
+    default Attachment findCoverImage(Set<Attachment> attachments) {
+        if (attachments == null || attachments.isEmpty()) {
+            return null;
+        }
+        return attachments.stream()
+                .filter(a -> a.getFileType() == AttachmentType.IMAGE && a.getThumbnailUrl() != null)
+                .min(Comparator.comparing(Attachment::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .orElse(null);
+    }
+
+    @Named("coverThumbnailUrl")
+    default String mapCoverThumbnailUrl(Set<Attachment> attachments) {
+        Attachment cover = findCoverImage(attachments);
+        return cover != null ? cover.getThumbnailUrl() : null;
+    }
+
+    @Named("coverPlaceholder")
+    default String mapCoverPlaceholder(Set<Attachment> attachments) {
+        Attachment cover = findCoverImage(attachments);
+        return cover != null ? cover.getPlaceholder() : null;
+    }
+
+    /**
+     * Histogram reaction cho feed: chỉ các loại có reaction, nhiều nhất trước.
+     */
+    @Named("reactionBreakdown")
+    default Map<ReactionType, Integer> mapReactionBreakdown(ReactionBreakdown breakdown) {
+        Map<ReactionType, Integer> result = new LinkedHashMap<>();
+        if (breakdown == null) {
+            return result;
+        }
+        Arrays.stream(ReactionType.values())
+                .filter(type -> breakdown.countOf(type) > 0)
+                .sorted(Comparator.comparingInt(breakdown::countOf).reversed())
+                .forEach(type -> result.put(type, breakdown.countOf(type)));
+        return result;
+    }
+
     @Named("mapOriginalPost")
     default PostSummaryResponse mapOriginalPost(Content originalContent) {
         // Case 1: originalContent là NULL.
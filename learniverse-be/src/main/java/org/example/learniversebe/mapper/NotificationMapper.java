@@ -2,9 +2,16 @@
 package org.example.learniversebe.mapper;
 
 import org.example.learniversebe.dto.response.NotificationResponse;
+import org.example.learniversebe.dto.response.pagination.PageResponse;
+import org.example.learniversebe.dto.response.pagination.PaginationMeta;
 import org.example.learniversebe.model.Notification;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
 
 @Mapper(componentModel = "spring")
 public interface NotificationMapper {
@@ -12,5 +19,32 @@ public interface NotificationMapper {
     @Mapping(source = "sender.id", target = "senderId")
     @Mapping(source = "sender.username", target = "senderName")
     @Mapping(source = "sender.userProfile.avatarUrl", target = "senderAvatarUrl")
+    @Mapping(source = "recentActorIds", target = "recentActorIds", qualifiedByName = "splitActorIds")
+    @Mapping(target = "unreadCount", ignore = true)
     NotificationResponse toResponse(Notification notification);
+
+    /**
+     * Tạo trang cursor từ kết quả truy vấn lấy dư một dòng (limit + 1) để biết còn trang sau hay không.
+     */
+    default PageResponse<NotificationResponse> toCursorPage(List<Notification> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<Notification> page = hasNext ? rows.subList(0, limit) : rows;
+        Notification last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return PageResponse.<NotificationResponse>builder()
+                .data(page.stream().map(this::toResponse).toList())
+                .pagination(PaginationMeta.builder()
+                        .nextCursor(hasNext ? last.getCreatedAt() : null)
+                        .nextCursorId(hasNext ? last.getId() : null)
+                        .hasNext(hasNext)
+                        .build())
+                .build();
+    }
+
+    @Named("splitActorIds")
+    default List<UUID> splitActorIds(String recentActorIds) {
+        if (recentActorIds == null || recentActorIds.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(recentActorIds.split(",")).map(UUID::fromString).toList();
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package org.example.learniversebe.mapper;
 import org.example.learniversebe.dto.response.ReportDetailResponse;
 import org.example.learniversebe.dto.response.ReportResponse;
 import org.example.learniversebe.dto.response.PageResponse;
+import org.example.learniversebe.dto.response.pagination.PaginationMeta;
 import org.example.learniversebe.model.Report;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -58,4 +59,22 @@ public interface ReportMapper {
                 .numberOfElements(page.getNumberOfElements())
                 .build();
     }
+
+    /**
+     * Tạo trang cursor cho moderation feed từ kết quả lấy dư một dòng (limit + 1)
+     */
+    default org.example.learniversebe.dto.response.pagination.PageResponse<ReportResponse> toCursorPage(
+            List<Report> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        List<Report> page = hasNext ? rows.subList(0, limit) : rows;
+        Report last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return org.example.learniversebe.dto.response.pagination.PageResponse.<ReportResponse>builder()
+                .data(toReportResponseList(page))
+                .pagination(PaginationMeta.builder()
+                        .nextCursor(hasNext ? last.getCreatedAt() : null)
+                        .nextCursorId(hasNext ? last.getId() : null)
+                        .hasNext(hasNext)
+                        .build())
+                .build();
+    }
 }
@@ -58,6 +58,17 @@ public class Attachment extends BaseEntity {
     @Column(name = "is_verified", nullable = false)
     private Boolean isVerified = false;
 
+    // Derivatives (chỉ cho IMAGE), được worker tạo bất đồng bộ sau khi upload
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
+    @Column(name = "thumbnail_key", length = 500)
+    private String thumbnailKey;
+
+    // LQIP: ảnh rất nhỏ dạng data URI để hiển thị mờ trong lúc tải ảnh thật
+    @Column(name = "placeholder", columnDefinition = "TEXT")
+    private String placeholder;
+
     @PrePersist
     protected void onCreate() {
         LocalDateTime now = LocalDateTime.now();
@@ -5,19 +5,26 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.example.learniversebe.enums.ReactableType;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name="\"comments\"")
+@Table(name="\"comments\"", indexes = {
+        @Index(name = "idx_comments_root_path", columnList = "root_id, path"),
+        @Index(name = "idx_comments_commentable_created", columnList = "commentable_type, commentable_id, created_at, id"),
+        @Index(name = "idx_comments_parent_created", columnList = "parent_id, created_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
+@DynamicUpdate
 @SQLDelete(sql = "UPDATE comments SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 public class Comment extends BaseEntity {
@@ -63,6 +70,22 @@ public class Comment extends BaseEntity {
     @Column(nullable = false)
     private Boolean isEdited = false;
 
+    /** Độ sâu trong cây reply: 0 với comment gốc */
+    @Column(name = "depth", nullable = false, columnDefinition = "integer not null default 0")
+    private Integer depth = 0;
+
+    /** ID của comment gốc (depth 0) của thread; comment gốc trỏ về chính nó */
+    @Column(name = "root_id", columnDefinition = "uuid")
+    private UUID rootId;
+
+    /**
+     * Materialized path: các segment của tổ tiên nối bằng '/', mỗi segment là
+     * created_at (epoch millis, 12 hex) + 8 hex đầu của id. Sắp xếp theo path (collation "C")
+     * cho ra thứ tự duyệt cây, anh em theo thời gian tạo.
+     */
+    @Column(name = "path", length = 512)
+    private String path;
+
     @PrePersist
     protected void onCreate() {
         LocalDateTime now = LocalDateTime.now();
@@ -71,6 +94,23 @@ public class Comment extends BaseEntity {
         }
         this.setCreatedAt(now);
         this.setUpdatedAt(now);
+
+        // Parent đã được load khi tạo reply nên không phải đi ngược chuỗi cha
+        String segment = pathSegment(this.id, now);
+        if (this.parent == null) {
+            this.depth = 0;
+            this.rootId = this.id;
+            this.path = segment;
+        } else {
+            this.depth = this.parent.getDepth() + 1;
+            this.rootId = this.parent.getRootId();
+            this.path = this.parent.getPath() + "/" + segment;
+        }
+    }
+
+    /** Phải khớp với biểu thức segment trong CommentRepository.backfillThreadPaths */
+    static String pathSegment(UUID id, LocalDateTime createdAt) {
+        return String.format("%012x", createdAt.toInstant(ZoneOffset.UTC).toEpochMilli()) + id.toString().substring(0, 8);
     }
 
     @PreUpdate
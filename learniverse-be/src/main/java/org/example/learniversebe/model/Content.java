@@ -9,6 +9,7 @@ import org.example.learniversebe.enums.ContentType;
 import org.example.learniversebe.enums.ContentVisibility;
 import org.hibernate.annotations.NotFound;
 import org.hibernate.annotations.NotFoundAction;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 
@@ -22,6 +23,7 @@ import java.util.UUID;
 @Getter
 @Setter
 @NoArgsConstructor
+@DynamicUpdate
 @SQLDelete(sql = "UPDATE contents SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 public class Content extends BaseEntity {
@@ -64,6 +66,9 @@ public class Content extends BaseEntity {
     @Column(nullable = false)
     private Integer reactionCount = 0;
 
+    @Embedded
+    private ReactionBreakdown reactionBreakdown = new ReactionBreakdown();
+
     @Column(nullable = false)
     private Integer bookmarkCount = 0;
 
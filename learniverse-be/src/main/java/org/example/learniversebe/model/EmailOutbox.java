@@ -0,0 +1,69 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.learniversebe.enums.EmailTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox cho email gửi đi. Ghi cùng transaction với dữ liệu nghiệp vụ (đăng ký, reset mật khẩu...),
+ * được gửi bởi {@link org.example.learniversebe.service.EmailOutboxSender} sau khi commit
+ * và bị xóa khi SMTP đã nhận thư (hoặc khi hết số lần thử).
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = @Index(name = "idx_email_outbox_next_attempt", columnList = "next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    /** Nội dung HTML đã render sẵn (mã hóa); null với email dùng template (render lúc gửi) */
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private EmailTemplate template;
+
+    /** Language tag đã được {@link org.example.learniversebe.service.EmailTemplateEngine} chọn */
+    @Column(length = 16)
+    private String locale;
+
+    /** Tham số của template dạng JSON object (mã hóa, có thể chứa mật khẩu hoặc link reset) */
+    @Column(columnDefinition = "TEXT")
+    private String params;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.learniversebe.enums.ReportableType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Hàng đợi bền (outbox) cho chế độ kiểm duyệt post-publish.
+ * Một dòng được ghi cùng transaction với Comment/Answer và bị xóa khi đã phân loại xong.
+ */
+@Entity
+@Table(name = "moderation_outbox",
+        indexes = @Index(name = "idx_moderation_outbox_next_attempt", columnList = "next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ModerationOutbox {
+    @Id
+    @Column(columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_type", nullable = false, length = 20)
+    private ReportableType targetType;
+
+    @Column(name = "target_id", nullable = false)
+    private UUID targetId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (this.id == null) {
+            this.id = UUID.randomUUID();
+        }
+        this.createdAt = now;
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = now;
+        }
+    }
+}
@@ -9,7 +9,12 @@ import org.hibernate.annotations.SQLRestriction;
 import java.util.UUID;
 
 @Entity
-@Table(name="\"notification\"")
+@Table(name="\"notification\"",
+        indexes = {
+                @Index(name = "idx_notification_recipient_group", columnList = "recipient_id, group_key"),
+                @Index(name = "idx_notification_recipient_created", columnList = "recipient_id, created_at, id"),
+                @Index(name = "idx_notification_created", columnList = "created_at, id")
+        })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,6 +51,18 @@ public class Notification extends BaseEntity {
     @Column(name = "related_entity_type")
     private String relatedEntityType;
 
+    /** Khóa gộp thông báo cùng loại, cùng đối tượng (ví dụ COMMENT:CONTENT:{postId}); null nếu không gộp */
+    @Column(name = "group_key", length = 120)
+    private String groupKey;
+
+    /** Số người (khác nhau) đã tạo ra thông báo gộp này */
+    @Column(name = "actor_count", nullable = false, columnDefinition = "integer not null default 1")
+    private int actorCount = 1;
+
+    /** Id các actor gần nhất, mới nhất trước, phân tách bằng dấu phẩy */
+    @Column(name = "recent_actor_ids", length = 200)
+    private String recentActorIds;
+
     public boolean getIsRead() {
         return isRead;
     }
@@ -0,0 +1,60 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox cho các message realtime (STOMP). Ghi cùng transaction với dữ liệu nghiệp vụ,
+ * chỉ được gửi sau khi commit. id tăng dần nên giữ đúng thứ tự gửi cho từng người nhận.
+ */
+@Entity
+@Table(name = "notification_outbox",
+        indexes = {
+                @Index(name = "idx_notification_outbox_next_attempt", columnList = "next_attempt_at"),
+                @Index(name = "idx_notification_outbox_recipient", columnList = "recipient_id, id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destination;
+
+    /** Người nhận (null với topic chung); dùng để giữ thứ tự theo người nhận */
+    @Column(name = "recipient_id")
+    private UUID recipientId;
+
+    /** Payload đã serialize sẵn thành JSON trong transaction gốc */
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = now;
+        }
+    }
+}
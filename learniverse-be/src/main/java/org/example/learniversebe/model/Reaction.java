@@ -17,7 +17,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name="\"reactions\"", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"reactable_type", "reactable_id", "user_id", "reaction_type"}, name = "uq_reaction_per_user_item_type")
+        @UniqueConstraint(columnNames = {"reactable_type", "reactable_id", "user_id"}, name = "uq_reaction_per_user_item")
 })
 @Getter
 @Setter
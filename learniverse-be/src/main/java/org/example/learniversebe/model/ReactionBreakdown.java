@@ -0,0 +1,57 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.example.learniversebe.enums.ReactionType;
+
+/**
+ * Số reaction theo từng loại của một content (denormalized, mỗi loại một cột trên bảng contents).
+ * Được cập nhật cùng câu lệnh upsert reaction nên luôn khớp với reactionCount.
+ * Cột null nghĩa là content tạo trước khi có histogram, chờ backfill lúc khởi động.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReactionBreakdown {
+
+    @Column(name = "reaction_like_count")
+    private Integer likeCount = 0;
+
+    @Column(name = "reaction_love_count")
+    private Integer loveCount = 0;
+
+    @Column(name = "reaction_insightful_count")
+    private Integer insightfulCount = 0;
+
+    @Column(name = "reaction_helpful_count")
+    private Integer helpfulCount = 0;
+
+    @Column(name = "reaction_curious_count")
+    private Integer curiousCount = 0;
+
+    public int countOf(ReactionType type) {
+        Integer count = switch (type) {
+            case LIKE -> likeCount;
+            case LOVE -> loveCount;
+            case INSIGHTFUL -> insightfulCount;
+            case HELPFUL -> helpfulCount;
+            case CURIOUS -> curiousCount;
+        };
+        return count == null ? 0 : count;
+    }
+
+    public void increment(ReactionType type) {
+        int count = countOf(type) + 1;
+        switch (type) {
+            case LIKE -> likeCount = count;
+            case LOVE -> loveCount = count;
+            case INSIGHTFUL -> insightfulCount = count;
+            case HELPFUL -> helpfulCount = count;
+            case CURIOUS -> curiousCount = count;
+        }
+    }
+}
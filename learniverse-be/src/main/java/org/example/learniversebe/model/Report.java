@@ -17,7 +17,8 @@ import java.util.UUID;
  * Hỗ trợ báo cáo cho: POST, QUESTION, ANSWER, COMMENT
  */
 @Entity
-@Table(name = "reports")
+@Table(name = "reports",
+        indexes = @Index(name = "idx_reports_status_created", columnList = "status, created_at, id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,40 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Blob nội dung duy nhất trong local storage, định danh bằng SHA-256.
+ * Nhiều Attachment có thể trỏ tới cùng một blob; refCount đếm số storageKey còn tham chiếu.
+ */
+@Entity
+@Table(name = "stored_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+public class StoredBlob {
+    @Id
+    @Column(name = "content_hash", length = 64, updatable = false, nullable = false)
+    private String contentHash;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "mime_type", length = 100)
+    private String mimeType;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một storageKey đã cấp trong local storage và blob mà nó tham chiếu.
+ * ref_count của {@link StoredBlob} chỉ giảm khi dòng của đúng key đó bị xóa,
+ * nên xóa lặp lại hoặc xóa key bịa không làm mất blob của key khác.
+ */
+@Entity
+@Table(name = "stored_blob_refs", indexes = {
+        @Index(name = "idx_stored_blob_refs_hash", columnList = "content_hash")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class StoredBlobRef {
+    @Id
+    @Column(name = "storage_key", length = 500, updatable = false, nullable = false)
+    private String storageKey;
+
+    @Column(name = "content_hash", length = 64, updatable = false, nullable = false)
+    private String contentHash;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
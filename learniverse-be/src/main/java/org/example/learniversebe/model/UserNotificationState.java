@@ -0,0 +1,30 @@
+package org.example.learniversebe.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Bộ đếm thông báo chưa đọc của mỗi user, cập nhật tăng/giảm cùng transaction với bảng notification
+ * để badge không phải chạy COUNT mỗi lần poll. Dòng được tạo lười (lần đầu cần tới) từ COUNT thực tế.
+ */
+@Entity
+@Table(name = "user_notification_state")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserNotificationState {
+    @Id
+    @Column(name = "user_id", columnDefinition = "uuid", updatable = false, nullable = false)
+    private UUID userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
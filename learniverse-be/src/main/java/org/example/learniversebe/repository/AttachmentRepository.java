@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -38,4 +39,24 @@ public interface AttachmentRepository extends JpaRepository<Attachment, UUID> {
      */
     @Query("SELECT a FROM Attachment a WHERE a.id IN :ids AND a.deletedAt IS NULL")
     List<Attachment> findAllById(@Param("ids") Iterable<UUID> ids);
+
+    /**
+     * Record generated derivatives without touching the rest of the row.
+     * Returns 0 if the attachment was deleted (or already has a thumbnail) meanwhile;
+     * the caller then releases the thumbnail it stored.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Attachment a SET a.thumbnailUrl = :thumbnailUrl, a.thumbnailKey = :thumbnailKey, " +
+            "a.placeholder = :placeholder WHERE a.id = :id AND a.deletedAt IS NULL AND a.thumbnailKey IS NULL")
+    int updateDerivatives(@Param("id") UUID id,
+                          @Param("thumbnailUrl") String thumbnailUrl,
+                          @Param("thumbnailKey") String thumbnailKey,
+                          @Param("placeholder") String placeholder);
+
+    /**
+     * Current thumbnail key, including soft-deleted rows (the thumbnail may be written after the entity was loaded)
+     */
+    @Query(value = "SELECT thumbnail_key FROM attachments WHERE id = :id", nativeQuery = true)
+    Optional<String> findThumbnailKeyIncludingDeleted(@Param("id") UUID id);
 }
@@ -1,6 +1,7 @@
 package org.example.learniversebe.repository;
 
 import org.example.learniversebe.model.Bookmark;
+import org.example.learniversebe.repository.projection.BookmarkUpsertProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,7 +9,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -90,4 +93,50 @@ public interface BookmarkRepository extends JpaRepository<Bookmark, UUID> {
     @Query("UPDATE Bookmark b SET b.deletedAt = CURRENT_TIMESTAMP " +
             "WHERE b.content.id = :contentId AND b.deletedAt IS NULL")
     int softDeleteByContentId(@Param("contentId") UUID contentId);
-}
\ No newline at end of file
+
+    /**
+     * Thêm/bỏ/đảo bookmark và cập nhật bookmarkCount của content trong một câu lệnh
+     * (xem {@link org.example.learniversebe.enums.InteractionUpsertMode}). collectionName/notes chỉ được ghi ở chế độ SET.
+     * Không trả về dòng nào khi REMOVE mà chưa từng bookmark, hoặc khi một request đồng thời vừa tạo dòng
+     * bookmark (INSERT gặp conflict) — caller chạy lại một lần.
+     */
+    @Transactional
+    @Query(value = "WITH old AS (" +
+            "  SELECT id, deleted_at FROM bookmarks WHERE user_id = :userId AND content_id = :contentId FOR UPDATE" +
+            "), upd AS (" +
+            "  UPDATE bookmarks b SET " +
+            "    deleted_at = CASE WHEN :mode = 'REMOVE' THEN COALESCE(old.deleted_at, :now) " +
+            "      WHEN :mode = 'TOGGLE' AND old.deleted_at IS NULL THEN :now END, " +
+            "    collection_name = CASE WHEN :mode = 'SET' THEN CAST(:collectionName AS varchar) ELSE b.collection_name END, " +
+            "    notes = CASE WHEN :mode = 'SET' THEN CAST(:notes AS text) ELSE b.notes END, " +
+            "    updated_at = :now " +
+            "  FROM old WHERE b.id = old.id " +
+            "  RETURNING b.id, old.deleted_at IS NULL AS was_active, b.deleted_at IS NULL AS is_active, b.created_at" +
+            "), ins AS (" +
+            "  INSERT INTO bookmarks (id, user_id, content_id, collection_name, notes, created_at, updated_at) " +
+            "  SELECT gen_random_uuid(), :userId, :contentId, " +
+            "    CASE WHEN :mode = 'SET' THEN CAST(:collectionName AS varchar) END, " +
+            "    CASE WHEN :mode = 'SET' THEN CAST(:notes AS text) END, :now, :now " +
+            "  WHERE :mode <> 'REMOVE' AND NOT EXISTS (SELECT 1 FROM old) " +
+            "  ON CONFLICT ON CONSTRAINT uq_bookmark_per_user DO NOTHING " +
+            "  RETURNING id, FALSE AS was_active, TRUE AS is_active, created_at" +
+            "), d AS (" +
+            "  SELECT id, is_active, created_at, " +
+            "    (CASE WHEN is_active THEN 1 ELSE 0 END) - (CASE WHEN was_active THEN 1 ELSE 0 END) AS delta " +
+            "  FROM (SELECT * FROM upd UNION ALL SELECT * FROM ins) t" +
+            "), c AS (" +
+            "  UPDATE \"contents\" SET bookmark_count = GREATEST(bookmark_count + d.delta, 0) FROM d " +
+            "  WHERE \"contents\".id = :contentId AND d.delta <> 0 RETURNING bookmark_count" +
+            ") " +
+            "SELECT d.id AS id, d.is_active AS active, d.delta AS delta, " +
+            "  COALESCE((SELECT bookmark_count FROM c), " +
+            "    (SELECT bookmark_count FROM \"contents\" WHERE id = :contentId)) AS bookmarkCount, " +
+            "  d.created_at AS createdAt " +
+            "FROM d", nativeQuery = true)
+    Optional<BookmarkUpsertProjection> upsertBookmark(@Param("userId") UUID userId,
+                                                      @Param("contentId") UUID contentId,
+                                                      @Param("collectionName") String collectionName,
+                                                      @Param("notes") String notes,
+                                                      @Param("mode") String mode,
+                                                      @Param("now") LocalDateTime now);
+}
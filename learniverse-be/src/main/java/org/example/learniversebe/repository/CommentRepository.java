@@ -5,12 +5,15 @@ import org.example.learniversebe.enums.ReactableType;
 import org.example.learniversebe.model.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -74,6 +77,88 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
 
     List<Comment> findByParentId(UUID parentId);
 
+    // --- Keyset pagination theo (created_at, id), dùng idx_comments_commentable_created / idx_comments_parent_created ---
+
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.commentableType = :type AND c.commentableId = :commentableId " +
+            "AND c.isVisible = TRUE " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findFirstPageFor(@Param("type") ReactableType type,
+                                   @Param("commentableId") UUID commentableId,
+                                   Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.commentableType = :type AND c.commentableId = :commentableId " +
+            "AND c.isVisible = TRUE " +
+            "AND (c.createdAt < :cursor OR (c.createdAt = :cursor AND c.id < :cursorId)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageForBefore(@Param("type") ReactableType type,
+                                    @Param("commentableId") UUID commentableId,
+                                    @Param("cursor") LocalDateTime cursor,
+                                    @Param("cursorId") UUID cursorId,
+                                    Pageable pageable);
+
+    /**
+     * Comment mới hơn cursor, cũ trước (chế độ "since" để client poll comment mới).
+     */
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.commentableType = :type AND c.commentableId = :commentableId " +
+            "AND c.isVisible = TRUE " +
+            "AND (c.createdAt > :cursor OR (c.createdAt = :cursor AND c.id > :cursorId)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findPageForAfter(@Param("type") ReactableType type,
+                                   @Param("commentableId") UUID commentableId,
+                                   @Param("cursor") LocalDateTime cursor,
+                                   @Param("cursorId") UUID cursorId,
+                                   Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.parent.id = :parentId AND c.isVisible = TRUE " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findFirstReplyPage(@Param("parentId") UUID parentId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.parent.id = :parentId AND c.isVisible = TRUE " +
+            "AND (c.createdAt > :cursor OR (c.createdAt = :cursor AND c.id > :cursorId)) " +
+            "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findReplyPageAfter(@Param("parentId") UUID parentId,
+                                     @Param("cursor") LocalDateTime cursor,
+                                     @Param("cursorId") UUID cursorId,
+                                     Pageable pageable);
+
+    /**
+     * Trang comment gốc kèm author (và profile) trong cùng query, dùng cho trang thread.
+     */
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query(value = "SELECT c FROM Comment c WHERE c.commentableType = :type " +
+            "AND c.commentableId = :commentableId " +
+            "AND c.parent IS NULL " +
+            "AND c.isVisible = TRUE " +
+            "ORDER BY c.createdAt ASC, c.id ASC",
+            countQuery = "SELECT COUNT(c) FROM Comment c WHERE c.commentableType = :type " +
+                    "AND c.commentableId = :commentableId " +
+                    "AND c.parent IS NULL " +
+                    "AND c.isVisible = TRUE")
+    Page<Comment> findTopLevelWithAuthor(@Param("type") ReactableType type,
+                                         @Param("commentableId") UUID commentableId,
+                                         Pageable pageable);
+
+    /**
+     * ID của tối đa :perParent reply đầu tiên (theo thời gian tạo) của mỗi comment cha,
+     * lấy cho cả trang bằng một query với ROW_NUMBER() OVER (PARTITION BY parent_id).
+     */
+    @Query(value = "SELECT r.id FROM (" +
+            "SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.created_at ASC, c.id ASC) AS rn " +
+            "FROM comments c WHERE c.parent_id IN (:parentIds) " +
+            "AND c.deleted_at IS NULL AND c.is_visible = TRUE" +
+            ") r WHERE r.rn <= :perParent", nativeQuery = true)
+    List<UUID> findFirstReplyIdsByParentIds(@Param("parentIds") List<UUID> parentIds,
+                                            @Param("perParent") int perParent);
+
+    @EntityGraph(attributePaths = {"author", "author.userProfile"})
+    @Query("SELECT c FROM Comment c WHERE c.id IN :ids ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findWithAuthorByIdIn(@Param("ids") List<UUID> ids);
+
     // Tìm comment theo Type và ID (có phân trang)
     @Query("SELECT c FROM Comment c WHERE c.commentableType = :type " +
             "AND c.commentableId = :id " +
@@ -86,6 +171,44 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
             Pageable pageable
     );
 
+    /**
+     * Tải một comment cùng toàn bộ reply bên dưới bằng một query, theo thứ tự duyệt cây
+     * (dựa trên materialized path, idx_comments_root_path).
+     */
+    @Query(value = "SELECT * FROM comments c WHERE c.root_id = :rootId " +
+            "AND (c.path = :path OR c.path LIKE :path || '/%') " +
+            "AND c.deleted_at IS NULL AND c.is_visible = TRUE " +
+            "ORDER BY c.path COLLATE \"C\" LIMIT :limit", nativeQuery = true)
+    List<Comment> findSubtreeByPath(@Param("rootId") UUID rootId,
+                                    @Param("path") String path,
+                                    @Param("limit") int limit);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM comments WHERE path IS NULL)", nativeQuery = true)
+    boolean existsWithoutPath();
+
+    /**
+     * Tính depth/root_id/path cho các comment tạo trước khi có các cột này (chạy một lần lúc khởi động).
+     * Segment phải khớp với Comment.pathSegment.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH RECURSIVE tree AS (
+                SELECT c.id, 0 AS depth, c.id AS root_id,
+                       lpad(to_hex(floor(extract(epoch FROM c.created_at) * 1000)::bigint), 12, '0')
+                           || substr(c.id::text, 1, 8) AS path
+                FROM comments c WHERE c.parent_id IS NULL
+                UNION ALL
+                SELECT c.id, t.depth + 1, t.root_id,
+                       t.path || '/' || lpad(to_hex(floor(extract(epoch FROM c.created_at) * 1000)::bigint), 12, '0')
+                           || substr(c.id::text, 1, 8)
+                FROM comments c JOIN tree t ON c.parent_id = t.id
+            )
+            UPDATE comments c SET depth = t.depth, root_id = t.root_id, path = t.path
+            FROM tree t WHERE c.id = t.id AND c.path IS NULL
+            """, nativeQuery = true)
+    int backfillThreadPaths();
+
     /**
      * Soft delete a comment by ID
      */
@@ -115,6 +238,42 @@ public interface CommentRepository extends JpaRepository<Comment, UUID> {
             "AND c.deletedAt IS NULL")
     int softDeleteRepliesByParentId(@Param("parentId") UUID parentId);
 
+    /**
+     * Xóa mềm một comment cùng toàn bộ replies (mọi cấp), mention và reaction của chúng
+     * trong một câu lệnh: CTE đệ quy lấy cây con, các CTE UPDATE chạy trên cùng snapshot.
+     * Trả về số comment đã xóa (gồm cả comment gốc) để cập nhật comment count.
+     */
+    @Query(value = """
+            WITH RECURSIVE subtree AS (
+                SELECT c.id FROM comments c WHERE c.id = :rootId AND c.deleted_at IS NULL
+                UNION ALL
+                SELECT c.id FROM comments c JOIN subtree s ON c.parent_id = s.id WHERE c.deleted_at IS NULL
+            ),
+            deleted_mentions AS (
+                UPDATE mentions SET deleted_at = NOW()
+                WHERE comment_id IN (SELECT id FROM subtree) AND deleted_at IS NULL
+            ),
+            deleted_reactions AS (
+                UPDATE reactions SET deleted_at = NOW()
+                WHERE reactable_type = 'COMMENT' AND reactable_id IN (SELECT id FROM subtree) AND deleted_at IS NULL
+            ),
+            deleted_comments AS (
+                UPDATE comments SET deleted_at = NOW()
+                WHERE id IN (SELECT id FROM subtree)
+                RETURNING id
+            )
+            SELECT COUNT(*) FROM deleted_comments
+            """, nativeQuery = true)
+    int softDeleteSubtree(@Param("rootId") UUID rootId);
+
+    /**
+     * Cộng dồn reply_count ngay trong DB (không đọc-rồi-ghi entity), không xuống dưới 0.
+     */
+    @Modifying
+    @Query(value = "UPDATE comments SET reply_count = GREATEST(reply_count + :delta, 0) WHERE id = :id",
+            nativeQuery = true)
+    int adjustReplyCount(@Param("id") UUID id, @Param("delta") int delta);
+
     /**
      * Soft delete all comments by a user
      */
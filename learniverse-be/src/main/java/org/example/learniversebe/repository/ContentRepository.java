@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -301,6 +302,56 @@ public interface ContentRepository extends JpaRepository<Content, UUID> {
             "WHERE c.group.id = :groupId AND c.deletedAt IS NULL")
     int softDeleteByGroupId(@Param("groupId") UUID groupId);
 
+    /**
+     * Cộng dồn comment_count ngay trong DB (không đọc-rồi-ghi entity), không xuống dưới 0.
+     */
+    @Modifying
+    @Query(value = "UPDATE contents SET comment_count = GREATEST(comment_count + :delta, 0) WHERE id = :id",
+            nativeQuery = true)
+    int adjustCommentCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    /**
+     * Cộng dồn answer_count ngay trong DB (không đọc-rồi-ghi entity), không xuống dưới 0.
+     */
+    @Modifying
+    @Query(value = "UPDATE contents SET answer_count = GREATEST(answer_count + :delta, 0) WHERE id = :id",
+            nativeQuery = true)
+    int adjustAnswerCount(@Param("id") UUID id, @Param("delta") int delta);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM contents WHERE reaction_like_count IS NULL)", nativeQuery = true)
+    boolean existsWithoutReactionBreakdown();
+
+    /**
+     * Tính histogram reaction cho các content tạo trước khi có các cột này (chạy một lần lúc khởi động).
+     * reactionCount được đặt lại bằng tổng histogram để hai giá trị khớp nhau.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH counts AS (
+                SELECT c.id,
+                       COUNT(r.id) FILTER (WHERE r.reaction_type = 'LIKE') AS like_count,
+                       COUNT(r.id) FILTER (WHERE r.reaction_type = 'LOVE') AS love_count,
+                       COUNT(r.id) FILTER (WHERE r.reaction_type = 'INSIGHTFUL') AS insightful_count,
+                       COUNT(r.id) FILTER (WHERE r.reaction_type = 'HELPFUL') AS helpful_count,
+                       COUNT(r.id) FILTER (WHERE r.reaction_type = 'CURIOUS') AS curious_count,
+                       COUNT(r.id) AS total
+                FROM contents c
+                LEFT JOIN reactions r ON r.reactable_type = 'CONTENT' AND r.reactable_id = c.id
+                    AND r.deleted_at IS NULL
+                WHERE c.reaction_like_count IS NULL
+                GROUP BY c.id
+            )
+            UPDATE contents c SET reaction_like_count = counts.like_count,
+                                  reaction_love_count = counts.love_count,
+                                  reaction_insightful_count = counts.insightful_count,
+                                  reaction_helpful_count = counts.helpful_count,
+                                  reaction_curious_count = counts.curious_count,
+                                  reaction_count = counts.total
+            FROM counts WHERE c.id = counts.id
+            """, nativeQuery = true)
+    int backfillReactionBreakdown();
+
     // ==================== STATISTICS ====================
 
     /**
@@ -0,0 +1,36 @@
+package org.example.learniversebe.repository;
+
+import org.example.learniversebe.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Lấy các email đến hạn gửi và khóa chúng; SKIP LOCKED để các sender thread/instance không lấy trùng.
+     * Phải gọi trong transaction.
+     */
+    @Query(value = "SELECT * FROM email_outbox WHERE next_attempt_at <= NOW() " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> findDueForUpdate(@Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox o SET o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id = :id")
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
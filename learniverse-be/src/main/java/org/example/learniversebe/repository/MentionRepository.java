@@ -5,7 +5,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -15,6 +18,11 @@ public interface MentionRepository extends JpaRepository<Mention, UUID> {
     @Query("DELETE FROM Mention m WHERE m.comment.id = :commentId")
     void deleteByCommentId(@Param("commentId") UUID commentId);
 
+    /** Xóa các mention không còn trong nội dung comment sau khi sửa */
+    @Modifying
+    @Query("DELETE FROM Mention m WHERE m.comment.id = :commentId AND m.mentionedUser.id NOT IN :userIds")
+    void deleteByCommentIdExcept(@Param("commentId") UUID commentId, @Param("userIds") Collection<UUID> userIds);
+
     // Tìm mentions chưa được thông báo (để gửi notification) - Ví dụ
     List<Mention> findByIsNotifiedFalseAndDeletedAtIsNull();
 
@@ -23,4 +31,21 @@ public interface MentionRepository extends JpaRepository<Mention, UUID> {
     @Query("UPDATE Mention m SET m.deletedAt = CURRENT_TIMESTAMP WHERE m.comment.id = :commentId AND m.deletedAt IS NULL")
     void softDeleteByCommentId(@Param("commentId") UUID commentId);
 
+    /**
+     * Tạo mention cho cả danh sách user bằng một câu INSERT ... SELECT nhiều dòng.
+     * Bỏ qua chính người nhắc, user đã xóa/khóa và mention đã có; trả về id các user thực sự được thêm
+     * (để gửi thông báo đúng những người đó).
+     */
+    @Transactional
+    @Query(value = "INSERT INTO \"mentions\" (id, comment_id, mentioned_user_id, mentioned_by, is_notified, notified_at, " +
+            "created_at, updated_at) " +
+            "SELECT gen_random_uuid(), :commentId, u.id, :mentionedBy, TRUE, :now, :now, :now " +
+            "FROM \"user\" u WHERE u.id IN (:userIds) AND u.id <> :mentionedBy " +
+            "AND u.deleted_at IS NULL AND u.enabled = TRUE " +
+            "ON CONFLICT ON CONSTRAINT uq_mention_per_comment DO NOTHING " +
+            "RETURNING mentioned_user_id", nativeQuery = true)
+    List<UUID> insertForUsers(@Param("commentId") UUID commentId,
+                              @Param("mentionedBy") UUID mentionedBy,
+                              @Param("userIds") Collection<UUID> userIds,
+                              @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,37 @@
+package org.example.learniversebe.repository;
+
+import org.example.learniversebe.model.ModerationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ModerationOutboxRepository extends JpaRepository<ModerationOutbox, UUID> {
+
+    /**
+     * Lấy các dòng đến hạn xử lý và khóa chúng; SKIP LOCKED để nhiều instance không lấy trùng.
+     * Phải gọi trong transaction.
+     */
+    @Query(value = "SELECT * FROM moderation_outbox WHERE next_attempt_at <= NOW() " +
+            "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ModerationOutbox> findDueForUpdate(@Param("limit") int limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ModerationOutbox o SET o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id IN :ids")
+    int scheduleRetry(@Param("ids") List<UUID> ids,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ModerationOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
+}
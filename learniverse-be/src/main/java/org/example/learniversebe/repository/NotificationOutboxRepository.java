@@ -0,0 +1,29 @@
+package org.example.learniversebe.repository;
+
+import org.example.learniversebe.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Lấy các message đến hạn theo thứ tự id và khóa chúng (SKIP LOCKED).
+     * Bỏ qua người nhận còn message cũ hơn đang chờ retry để không gửi sai thứ tự.
+     * Phải gọi trong transaction.
+     */
+    @Query(value = "SELECT * FROM notification_outbox o WHERE o.next_attempt_at <= NOW() " +
+            "AND NOT EXISTS (SELECT 1 FROM notification_outbox p " +
+            "    WHERE p.recipient_id = o.recipient_id AND p.id < o.id AND p.next_attempt_at > NOW()) " +
+            "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> findDueForUpdate(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+}
@@ -1,13 +1,22 @@
 package org.example.learniversebe.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.learniversebe.model.Notification;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -17,12 +26,136 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
 
     long countByRecipient_IdAndIsReadFalse(UUID recipientId);
 
+    /**
+     * Trang đầu (keyset) thông báo của một user, mới nhất trước. Giới hạn số dòng qua Pageable (không chạy COUNT).
+     */
+    @EntityGraph(attributePaths = {"sender", "sender.userProfile"})
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFirstPageByRecipient(@Param("recipientId") UUID recipientId, Pageable pageable);
+
+    /**
+     * Trang tiếp theo sau vị trí (cursor, cursorId) theo thứ tự (created_at, id) giảm dần.
+     */
+    @EntityGraph(attributePaths = {"sender", "sender.userProfile"})
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id = :recipientId " +
+            "AND (n.createdAt < :cursor OR (n.createdAt = :cursor AND n.id < :cursorId)) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageByRecipientBefore(@Param("recipientId") UUID recipientId,
+                                                 @Param("cursor") LocalDateTime cursor,
+                                                 @Param("cursorId") UUID cursorId,
+                                                 Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender", "sender.userProfile"})
+    @Query("SELECT n FROM Notification n ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender", "sender.userProfile"})
+    @Query("SELECT n FROM Notification n " +
+            "WHERE n.createdAt < :cursor OR (n.createdAt = :cursor AND n.id < :cursorId) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("cursor") LocalDateTime cursor,
+                                      @Param("cursorId") UUID cursorId,
+                                      Pageable pageable);
+
+    /**
+     * Thông báo chưa đọc cùng groupKey được tạo trong cửa sổ gộp; khóa dòng để các actor đồng thời gộp tuần tự.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Notification> findFirstByRecipient_IdAndGroupKeyAndIsReadFalseAndCreatedAtAfterOrderByCreatedAtDesc(
+            UUID recipientId, String groupKey, LocalDateTime since);
+
+    /**
+     * Như trên nhưng cho nhiều người nhận trong một query (mới nhất trước), dùng khi một actor
+     * tạo cùng loại thông báo cho cả nhóm người (ví dụ nhắc tên nhiều người trong một bình luận).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM Notification n WHERE n.recipient.id IN :recipientIds AND n.groupKey = :groupKey " +
+            "AND n.isRead = false AND n.createdAt > :since ORDER BY n.createdAt DESC")
+    List<Notification> findOpenGroupsForRecipients(@Param("recipientIds") Collection<UUID> recipientIds,
+                                                   @Param("groupKey") String groupKey,
+                                                   @Param("since") LocalDateTime since);
+
     @Modifying
     @Query("UPDATE Notification n SET n.isRead = true WHERE n.recipient.id = :recipientId AND n.isRead = false")
-    void markAllAsReadByRecipientId(UUID recipientId);
+    int markAllAsReadByRecipientId(UUID recipientId);
+
+    /**
+     * Đánh dấu đã đọc nếu thông báo đang chưa đọc; trả về 1 nếu trạng thái thực sự thay đổi.
+     */
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.updatedAt = :now WHERE n.id = :id AND n.isRead = false")
+    int markAsReadIfUnread(@Param("id") UUID id, @Param("now") LocalDateTime now);
 
     /**
      * Get all notifications ordered by creation date (for admin dashboard)
      */
     Page<Notification> findAllByOrderByCreatedAtDesc(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Xóa hẳn (không soft delete) tối đa :batchSize thông báo đã đọc tạo trước :cutoff.
+     * Mỗi lần gọi là một transaction ngắn để không khóa bảng lâu.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM \"notification\" WHERE id IN (" +
+            "SELECT id FROM \"notification\" WHERE is_read = TRUE AND created_at < :cutoff " +
+            "LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteReadOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * Tạo thông báo hệ thống cho một khoảng user active (afterId, uptoId] bằng một câu INSERT ... SELECT.
+     * relatedEntityId truyền dạng String để bind null an toàn.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO \"notification\" (id, notification_type, recipient_id, sender_id, content, is_read, " +
+            "related_entity_id, related_entity_type, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), :type, u.id, NULL, :content, FALSE, " +
+            "CAST(:relatedEntityId AS uuid), :relatedEntityType, :now, :now " +
+            "FROM \"user\" u WHERE u.deleted_at IS NULL AND u.enabled = TRUE " +
+            "AND u.id > :afterId AND u.id <= :uptoId", nativeQuery = true)
+    int insertForActiveUsersInRange(@Param("type") String type,
+                                    @Param("content") String content,
+                                    @Param("relatedEntityId") String relatedEntityId,
+                                    @Param("relatedEntityType") String relatedEntityType,
+                                    @Param("now") LocalDateTime now,
+                                    @Param("afterId") UUID afterId,
+                                    @Param("uptoId") UUID uptoId);
+
+    /**
+     * Tạo thông báo hệ thống cho danh sách user cụ thể bằng một câu INSERT ... SELECT,
+     * trả về id những người nhận thực sự được tạo (bỏ qua user đã xóa, id trùng).
+     */
+    @Transactional
+    @Query(value = "INSERT INTO \"notification\" (id, notification_type, recipient_id, sender_id, content, is_read, " +
+            "related_entity_id, related_entity_type, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), :type, u.id, NULL, :content, FALSE, " +
+            "CAST(:relatedEntityId AS uuid), :relatedEntityType, :now, :now " +
+            "FROM \"user\" u WHERE u.deleted_at IS NULL AND u.id IN (:recipientIds) " +
+            "RETURNING recipient_id", nativeQuery = true)
+    List<UUID> insertForRecipients(@Param("type") String type,
+                            @Param("content") String content,
+                            @Param("relatedEntityId") String relatedEntityId,
+                            @Param("relatedEntityType") String relatedEntityType,
+                            @Param("now") LocalDateTime now,
+                            @Param("recipientIds") List<UUID> recipientIds);
+
+    /**
+     * Tạo thông báo gộp (actor đầu tiên) cho nhiều người nhận bằng một câu INSERT nhiều dòng,
+     * trả về các dòng vừa tạo để push realtime mà không cần đọc lại.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO \"notification\" (id, notification_type, recipient_id, sender_id, content, is_read, " +
+            "related_entity_id, related_entity_type, group_key, actor_count, recent_actor_ids, created_at, updated_at) " +
+            "SELECT gen_random_uuid(), :type, u.id, :senderId, :content, FALSE, " +
+            ":relatedEntityId, :relatedEntityType, :groupKey, 1, CAST(:senderId AS varchar), :now, :now " +
+            "FROM \"user\" u WHERE u.deleted_at IS NULL AND u.id IN (:recipientIds) " +
+            "RETURNING *", nativeQuery = true)
+    List<Notification> insertGroupedForRecipients(@Param("type") String type,
+                                                  @Param("senderId") UUID senderId,
+                                                  @Param("content") String content,
+                                                  @Param("relatedEntityId") UUID relatedEntityId,
+                                                  @Param("relatedEntityType") String relatedEntityType,
+                                                  @Param("groupKey") String groupKey,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("recipientIds") Collection<UUID> recipientIds);
+}
@@ -4,12 +4,15 @@ import jakarta.validation.constraints.NotNull;
 import org.example.learniversebe.enums.ReactableType;
 import org.example.learniversebe.enums.ReactionType;
 import org.example.learniversebe.model.Reaction;
+import org.example.learniversebe.repository.projection.ReactionUpsertProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -59,4 +62,70 @@ public interface ReactionRepository extends JpaRepository<Reaction, UUID> {
             ReactableType reactableType,
             Collection<UUID> reactableIds
     );
+
+    /**
+     * Thả/đổi/gỡ reaction và cập nhật reactionCount (với content: cả histogram theo loại) trong một câu lệnh
+     * (xem {@link org.example.learniversebe.enums.InteractionUpsertMode}).
+     * Dòng reaction hiện có được khóa (FOR UPDATE) nên các request đồng thời của cùng user xếp hàng và mỗi
+     * request tính delta từ trạng thái mới nhất. Không trả về dòng nào khi không có gì để làm (REMOVE mà chưa
+     * react), hoặc khi một request đồng thời vừa tạo dòng reaction (INSERT gặp conflict) — caller chạy lại một lần.
+     */
+    @Transactional
+    @Query(value = "WITH old AS (" +
+            "  SELECT id, reaction_type, deleted_at FROM reactions " +
+            "  WHERE user_id = :userId AND reactable_type = :type AND reactable_id = :reactableId FOR UPDATE" +
+            "), upd AS (" +
+            "  UPDATE reactions r SET " +
+            "    reaction_type = CASE WHEN :mode = 'REMOVE' THEN r.reaction_type ELSE :reactionType END, " +
+            "    deleted_at = CASE WHEN :mode = 'REMOVE' THEN COALESCE(old.deleted_at, :now) " +
+            "      WHEN :mode = 'TOGGLE' AND old.deleted_at IS NULL AND old.reaction_type = :reactionType THEN :now END, " +
+            "    updated_at = :now " +
+            "  FROM old WHERE r.id = old.id " +
+            "  RETURNING old.reaction_type AS old_type, old.deleted_at IS NULL AS was_active, " +
+            "    r.reaction_type AS new_type, r.deleted_at IS NULL AS is_active" +
+            "), ins AS (" +
+            "  INSERT INTO reactions (id, reactable_type, reactable_id, user_id, reaction_type, created_at, updated_at) " +
+            "  SELECT gen_random_uuid(), :type, :reactableId, :userId, :reactionType, :now, :now " +
+            "  WHERE :mode <> 'REMOVE' AND NOT EXISTS (SELECT 1 FROM old) " +
+            "  ON CONFLICT ON CONSTRAINT uq_reaction_per_user_item DO NOTHING " +
+            "  RETURNING CAST(NULL AS varchar) AS old_type, FALSE AS was_active, reaction_type AS new_type, TRUE AS is_active" +
+            "), d AS (" +
+            "  SELECT old_type, new_type, is_active, " +
+            "    (CASE WHEN is_active THEN 1 ELSE 0 END) - (CASE WHEN was_active THEN 1 ELSE 0 END) AS delta, " +
+            "    CASE WHEN was_active AND old_type <> new_type AND is_active THEN 1 ELSE 0 END AS switched, " +
+            "    (CASE WHEN is_active AND new_type = 'LIKE' THEN 1 ELSE 0 END) " +
+            "      - (CASE WHEN was_active AND old_type = 'LIKE' THEN 1 ELSE 0 END) AS like_delta, " +
+            "    (CASE WHEN is_active AND new_type = 'LOVE' THEN 1 ELSE 0 END) " +
+            "      - (CASE WHEN was_active AND old_type = 'LOVE' THEN 1 ELSE 0 END) AS love_delta, " +
+            "    (CASE WHEN is_active AND new_type = 'INSIGHTFUL' THEN 1 ELSE 0 END) " +
+            "      - (CASE WHEN was_active AND old_type = 'INSIGHTFUL' THEN 1 ELSE 0 END) AS insightful_delta, " +
+            "    (CASE WHEN is_active AND new_type = 'HELPFUL' THEN 1 ELSE 0 END) " +
+            "      - (CASE WHEN was_active AND old_type = 'HELPFUL' THEN 1 ELSE 0 END) AS helpful_delta, " +
+            "    (CASE WHEN is_active AND new_type = 'CURIOUS' THEN 1 ELSE 0 END) " +
+            "      - (CASE WHEN was_active AND old_type = 'CURIOUS' THEN 1 ELSE 0 END) AS curious_delta " +
+            "  FROM (SELECT * FROM upd UNION ALL SELECT * FROM ins) t" +
+            "), c AS (" +
+            "  UPDATE \"contents\" SET reaction_count = GREATEST(reaction_count + d.delta, 0), " +
+            "    reaction_like_count = GREATEST(COALESCE(reaction_like_count, 0) + d.like_delta, 0), " +
+            "    reaction_love_count = GREATEST(COALESCE(reaction_love_count, 0) + d.love_delta, 0), " +
+            "    reaction_insightful_count = GREATEST(COALESCE(reaction_insightful_count, 0) + d.insightful_delta, 0), " +
+            "    reaction_helpful_count = GREATEST(COALESCE(reaction_helpful_count, 0) + d.helpful_delta, 0), " +
+            "    reaction_curious_count = GREATEST(COALESCE(reaction_curious_count, 0) + d.curious_delta, 0) " +
+            "  FROM d WHERE :type = 'CONTENT' AND id = :reactableId AND (d.delta <> 0 OR d.switched = 1) " +
+            "  RETURNING reaction_count" +
+            "), m AS (" +
+            "  UPDATE \"comments\" SET reaction_count = GREATEST(reaction_count + d.delta, 0) FROM d " +
+            "  WHERE :type = 'COMMENT' AND id = :reactableId AND d.delta <> 0 RETURNING reaction_count" +
+            ") " +
+            "SELECT CASE WHEN d.is_active THEN d.new_type END AS reactionType, d.delta AS delta, " +
+            "  COALESCE((SELECT reaction_count FROM c), (SELECT reaction_count FROM m), " +
+            "    (SELECT reaction_count FROM \"contents\" WHERE :type = 'CONTENT' AND id = :reactableId), " +
+            "    (SELECT reaction_count FROM \"comments\" WHERE :type = 'COMMENT' AND id = :reactableId)) AS reactionCount " +
+            "FROM d", nativeQuery = true)
+    Optional<ReactionUpsertProjection> upsertReaction(@Param("userId") UUID userId,
+                                                      @Param("type") String type,
+                                                      @Param("reactableId") UUID reactableId,
+                                                      @Param("reactionType") String reactionType,
+                                                      @Param("mode") String mode,
+                                                      @Param("now") LocalDateTime now);
 }
@@ -1,10 +1,12 @@
 package org.example.learniversebe.repository;
 
+import org.example.learniversebe.enums.ReportReason;
 import org.example.learniversebe.enums.ReportStatus;
 import org.example.learniversebe.enums.ReportableType;
 import org.example.learniversebe.model.Report;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -31,6 +34,14 @@ public interface ReportRepository extends JpaRepository<Report, UUID>, JpaSpecif
             ReportableType reportableType, 
             UUID reportableId);
 
+    /**
+     * Kiểm tra item đã có report với lý do này chưa (dùng cho report hệ thống)
+     */
+    boolean existsByReportableTypeAndReportableIdAndReason(
+            ReportableType reportableType,
+            UUID reportableId,
+            ReportReason reason);
+
     /**
      * Tìm report theo status với phân trang
      */
@@ -108,6 +119,25 @@ public interface ReportRepository extends JpaRepository<Report, UUID>, JpaSpecif
             LocalDateTime endDate, 
             Pageable pageable);
 
+    /**
+     * Moderation feed: trang đầu các report theo status, mới nhất trước (keyset, không COUNT)
+     */
+    @EntityGraph(attributePaths = {"reporter", "resolvedBy"})
+    @Query("SELECT r FROM Report r WHERE r.status = :status ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findFeedFirstPage(@Param("status") ReportStatus status, Pageable pageable);
+
+    /**
+     * Moderation feed: trang tiếp theo sau vị trí (cursor, cursorId)
+     */
+    @EntityGraph(attributePaths = {"reporter", "resolvedBy"})
+    @Query("SELECT r FROM Report r WHERE r.status = :status " +
+            "AND (r.createdAt < :cursor OR (r.createdAt = :cursor AND r.id < :cursorId)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findFeedPageBefore(@Param("status") ReportStatus status,
+                                    @Param("cursor") LocalDateTime cursor,
+                                    @Param("cursorId") UUID cursorId,
+                                    Pageable pageable);
+
     /**
      * Đếm số report pending
      */
@@ -0,0 +1,58 @@
+package org.example.learniversebe.repository;
+
+import org.example.learniversebe.model.StoredBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    /**
+     * Ghi tham chiếu của storageKey và tăng ref_count của blob, tạo blob mới nếu chưa tồn tại
+     * (một statement, an toàn khi upload đồng thời).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH b AS (" +
+            "  INSERT INTO stored_blobs (content_hash, file_size, mime_type, ref_count, created_at) " +
+            "  VALUES (:hash, :fileSize, :mimeType, 1, NOW()) " +
+            "  ON CONFLICT (content_hash) DO UPDATE SET ref_count = stored_blobs.ref_count + 1 " +
+            "  RETURNING content_hash" +
+            ") " +
+            "INSERT INTO stored_blob_refs (storage_key, content_hash, created_at) " +
+            "SELECT :key, content_hash, NOW() FROM b",
+            nativeQuery = true)
+    int acquire(@Param("key") String key, @Param("hash") String hash,
+                @Param("fileSize") long fileSize, @Param("mimeType") String mimeType);
+
+    /**
+     * Xóa tham chiếu của storageKey và giảm ref_count của blob tương ứng.
+     * Trả về 0 nếu key không tồn tại (đã xóa trước đó hoặc key bịa) — khi đó không blob nào bị ảnh hưởng.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH r AS (DELETE FROM stored_blob_refs WHERE storage_key = :key RETURNING content_hash) " +
+            "UPDATE stored_blobs b SET ref_count = GREATEST(b.ref_count - 1, 0) " +
+            "FROM r WHERE b.content_hash = r.content_hash", nativeQuery = true)
+    int release(@Param("key") String key);
+
+    /**
+     * Xóa dòng blob khi không còn tham chiếu. Trả về 1 nếu đã xóa (caller xóa file vật lý).
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM stored_blobs WHERE content_hash = :hash AND ref_count <= 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    /**
+     * Hash của blob mà storageKey tham chiếu; rỗng nếu key chưa từng được cấp hoặc đã bị xóa.
+     */
+    @Query(value = "SELECT content_hash FROM stored_blob_refs WHERE storage_key = :key", nativeQuery = true)
+    Optional<String> findHashByKey(@Param("key") String key);
+}
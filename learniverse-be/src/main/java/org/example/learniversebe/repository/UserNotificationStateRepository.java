@@ -0,0 +1,93 @@
+package org.example.learniversebe.repository;
+
+import org.example.learniversebe.model.UserNotificationState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Các câu lệnh cập nhật bộ đếm. Tăng: UPDATE dòng có sẵn, nếu chưa có thì INSERT với giá trị khởi tạo
+ * bằng COUNT thực tế (đã gồm thông báo vừa insert trong transaction); ON CONFLICT xử lý insert đồng thời.
+ */
+@Repository
+public interface UserNotificationStateRepository extends JpaRepository<UserNotificationState, UUID> {
+
+    String UNREAD_COUNT_SQL = "(SELECT COUNT(*) FROM \"notification\" n " +
+            "WHERE n.recipient_id = u.id AND n.is_read = FALSE AND n.deleted_at IS NULL)";
+
+    @Query(value = "SELECT unread_count FROM user_notification_state WHERE user_id = :userId", nativeQuery = true)
+    Optional<Integer> findUnreadCount(@Param("userId") UUID userId);
+
+    /** (user_id, unread_count) cho nhiều user */
+    @Query(value = "SELECT user_id, unread_count FROM user_notification_state WHERE user_id IN (:userIds)", nativeQuery = true)
+    List<Object[]> findUnreadCounts(@Param("userIds") List<UUID> userIds);
+
+    @Modifying
+    @Query(value = "UPDATE user_notification_state SET unread_count = unread_count + :delta, updated_at = NOW() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int incrementExisting(@Param("userId") UUID userId, @Param("delta") int delta);
+
+    @Modifying
+    @Query(value = "UPDATE user_notification_state SET unread_count = unread_count + 1, updated_at = NOW() " +
+            "WHERE user_id IN (:userIds)", nativeQuery = true)
+    int incrementExisting(@Param("userIds") List<UUID> userIds);
+
+    @Modifying
+    @Query(value = "UPDATE user_notification_state s SET unread_count = s.unread_count + 1, updated_at = NOW() " +
+            "FROM \"user\" u WHERE s.user_id = u.id AND u.deleted_at IS NULL AND u.enabled = TRUE " +
+            "AND u.id > :afterId AND u.id <= :uptoId", nativeQuery = true)
+    int incrementExistingForActiveUsersInRange(@Param("afterId") UUID afterId, @Param("uptoId") UUID uptoId);
+
+    /**
+     * Khởi tạo bộ đếm từ COUNT thực tế cho các user chưa có dòng state.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_notification_state (user_id, unread_count, updated_at) " +
+            "SELECT u.id, " + UNREAD_COUNT_SQL + ", NOW() FROM \"user\" u " +
+            "WHERE u.id IN (:userIds) AND NOT EXISTS (SELECT 1 FROM user_notification_state s WHERE s.user_id = u.id) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread_count = user_notification_state.unread_count + 1, updated_at = NOW()",
+            nativeQuery = true)
+    int initializeMissing(@Param("userIds") List<UUID> userIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_notification_state (user_id, unread_count, updated_at) " +
+            "SELECT u.id, " + UNREAD_COUNT_SQL + ", NOW() FROM \"user\" u " +
+            "WHERE u.deleted_at IS NULL AND u.enabled = TRUE AND u.id > :afterId AND u.id <= :uptoId " +
+            "AND NOT EXISTS (SELECT 1 FROM user_notification_state s WHERE s.user_id = u.id) " +
+            "ON CONFLICT (user_id) DO UPDATE SET unread_count = user_notification_state.unread_count + 1, updated_at = NOW()",
+            nativeQuery = true)
+    int initializeMissingForActiveUsersInRange(@Param("afterId") UUID afterId, @Param("uptoId") UUID uptoId);
+
+    /**
+     * Khởi tạo bộ đếm từ COUNT thực tế rồi cộng thêm :delta nếu transaction khác vừa tạo dòng trước
+     * (snapshot COUNT của transaction đó không thấy thay đổi chưa commit của transaction này).
+     * :delta âm dùng khi vừa đánh dấu đã đọc.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_notification_state (user_id, unread_count, updated_at) " +
+            "SELECT u.id, " + UNREAD_COUNT_SQL + ", NOW() FROM \"user\" u WHERE u.id = :userId " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "unread_count = GREATEST(user_notification_state.unread_count + :delta, 0), updated_at = NOW()",
+            nativeQuery = true)
+    int initializeOrAdjust(@Param("userId") UUID userId, @Param("delta") int delta);
+
+    /**
+     * Khởi tạo bộ đếm khi đọc lần đầu; không ghi đè nếu đã có.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_notification_state (user_id, unread_count, updated_at) " +
+            "SELECT u.id, " + UNREAD_COUNT_SQL + ", NOW() FROM \"user\" u WHERE u.id = :userId " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int initializeIfMissing(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "UPDATE user_notification_state SET unread_count = GREATEST(unread_count - :delta, 0), updated_at = NOW() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int decrement(@Param("userId") UUID userId, @Param("delta") int delta);
+}
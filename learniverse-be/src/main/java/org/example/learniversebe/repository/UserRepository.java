@@ -3,11 +3,13 @@ package org.example.learniversebe.repository;
 import org.example.learniversebe.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -95,4 +97,21 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     @Query("SELECT DISTINCT u FROM User u JOIN u.roleUsers ru JOIN ru.role r WHERE r.name IN ('ROLE_ADMIN', 'ROLE_MODERATOR') AND u.deletedAt IS NULL")
     List<User> findAllModeratorsAndAdmins();
+
+    @Query(value = "SELECT COUNT(*) FROM \"user\" u WHERE u.deleted_at IS NULL AND u.enabled = TRUE", nativeQuery = true)
+    long countActiveUsers();
+
+    /**
+     * Keyset: id của user active thứ (offset + 1) sau afterId theo thứ tự id; rỗng nếu không còn đủ user.
+     */
+    @Query(value = "SELECT u.id FROM \"user\" u WHERE u.deleted_at IS NULL AND u.enabled = TRUE " +
+            "AND u.id > :afterId ORDER BY u.id OFFSET :offset LIMIT 1", nativeQuery = true)
+    Optional<UUID> findActiveUserIdAfter(@Param("afterId") UUID afterId, @Param("offset") int offset);
+
+    /** (id, username) của mọi user đang hoạt động, để dựng chỉ mục gợi ý mention */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.enabled = true")
+    List<Object[]> findActiveUsernames();
+
+    @EntityGraph(attributePaths = {"userProfile"})
+    List<User> findWithProfileByIdIn(Collection<UUID> ids);
 }
@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,6 +28,43 @@ public interface VoteRepository extends JpaRepository<Vote, UUID> {
                                        @Param("type") VotableType type,
                                        @Param("votableId") UUID votableId);
 
+    /**
+     * Bỏ phiếu trong một câu lệnh: upsert dòng vote (toggle khi bấm lại cùng loại), tính delta điểm trong SQL
+     * và cộng vào contents/answers, trả về điểm mới. ON CONFLICT khóa dòng vote nên hai request đồng thời
+     * của cùng user được xếp hàng và mỗi request thấy trạng thái mới nhất (không lệch điểm khi double-click).
+     *
+     * Trạng thái cũ suy ra từ dòng trả về: đã xóa -> trước đó là vote cùng loại (-1 phiếu);
+     * created_at = :now -> vote mới hoặc vote đã xóa được khôi phục (+1 phiếu); còn lại -> đổi chiều (+2 phiếu).
+     * :sign là +1 cho UPVOTE, -1 cho DOWNVOTE.
+     */
+    @Transactional
+    @Query(value = "WITH v AS (" +
+            "  INSERT INTO votes (id, votable_type, votable_id, user_id, vote_type, created_at, updated_at) " +
+            "  VALUES (gen_random_uuid(), :type, :votableId, :userId, :voteType, :now, :now) " +
+            "  ON CONFLICT ON CONSTRAINT uq_vote_per_user DO UPDATE SET " +
+            "    vote_type = EXCLUDED.vote_type, " +
+            "    deleted_at = CASE WHEN votes.deleted_at IS NULL AND votes.vote_type = EXCLUDED.vote_type " +
+            "                      THEN EXCLUDED.updated_at END, " +
+            "    created_at = CASE WHEN votes.deleted_at IS NULL THEN votes.created_at ELSE EXCLUDED.created_at END, " +
+            "    updated_at = EXCLUDED.updated_at " +
+            "  RETURNING deleted_at, created_at" +
+            "), d AS (" +
+            "  SELECT :sign * CASE WHEN deleted_at IS NOT NULL THEN -1 WHEN created_at = :now THEN 1 ELSE 2 END AS delta FROM v" +
+            "), c AS (" +
+            "  UPDATE \"contents\" SET vote_score = COALESCE(vote_score, 0) + (SELECT delta FROM d) " +
+            "  WHERE :type = 'CONTENT' AND id = :votableId RETURNING vote_score" +
+            "), a AS (" +
+            "  UPDATE \"answers\" SET vote_score = vote_score + (SELECT delta FROM d) " +
+            "  WHERE :type = 'ANSWER' AND id = :votableId RETURNING vote_score" +
+            ") " +
+            "SELECT COALESCE((SELECT vote_score FROM c), (SELECT vote_score FROM a), 0)", nativeQuery = true)
+    int upsertVote(@Param("userId") UUID userId,
+                   @Param("type") String type,
+                   @Param("votableId") UUID votableId,
+                   @Param("voteType") String voteType,
+                   @Param("sign") int sign,
+                   @Param("now") LocalDateTime now);
+
     // Đếm số upvote cho một item
     long countByVotableTypeAndVotableIdAndVoteType(VotableType votableType, UUID votableId, org.example.learniversebe.enums.VoteType voteType);
 
@@ -0,0 +1,19 @@
+package org.example.learniversebe.repository.projection;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface BookmarkUpsertProjection {
+
+    UUID getId();
+
+    /** Bookmark còn hiệu lực sau câu lệnh hay không */
+    Boolean getActive();
+
+    /** Thay đổi của bookmarkCount trên content (-1, 0, 1) */
+    Integer getDelta();
+
+    Integer getBookmarkCount();
+
+    LocalDateTime getCreatedAt();
+}
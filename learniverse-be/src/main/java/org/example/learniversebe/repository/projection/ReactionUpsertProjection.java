@@ -0,0 +1,13 @@
+package org.example.learniversebe.repository.projection;
+
+public interface ReactionUpsertProjection {
+
+    /** Reaction hiện tại của user sau câu lệnh; null nếu đã gỡ */
+    String getReactionType();
+
+    /** Thay đổi của reactionCount trên đối tượng (-1, 0, 1) */
+    Integer getDelta();
+
+    /** reactionCount mới; null nếu đối tượng không lưu bộ đếm (Answer) */
+    Integer getReactionCount();
+}
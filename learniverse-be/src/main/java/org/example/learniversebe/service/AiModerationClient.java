@@ -0,0 +1,383 @@
+package org.example.learniversebe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.request.AiBatchModerationRequest;
+import org.example.learniversebe.dto.request.AiModerationRequest;
+import org.example.learniversebe.dto.response.AiBatchModerationResponse;
+import org.example.learniversebe.dto.response.AiModerationResponse;
+import org.example.learniversebe.dto.response.AiModerationResponse.PredictionResult;
+import org.example.learniversebe.util.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client gọi AI service (learniverse-commentscan).
+ * - java.net.http.HttpClient: non-blocking (sendAsync), giữ kết nối keep-alive (pool) giữa các request.
+ * - Connect/read timeout chặt, circuit breaker để không dồn request khi AI service chậm/chết.
+ * - Micro-batching (tùy chọn): gom các text đến đồng thời thành một lời gọi /predict/batch.
+ *   Hàng đợi gom batch có giới hạn; khi đầy, request bị từ chối ngay (caller fail-open) thay vì dồn thêm.
+ * - Text dài hơn giới hạn của service được cắt thành nhiều đoạn và phân loại từng đoạn; kết quả là đoạn
+ *   tệ nhất. Lỗi 4xx (request bị service từ chối) không tính là service hỏng với circuit breaker.
+ */
+@Slf4j
+@Service
+public class AiModerationClient {
+
+    /** Giới hạn của commentscan (Settings.MAX_BATCH_SIZE) */
+    private static final int SERVICE_MAX_BATCH_SIZE = 64;
+
+    /** Giới hạn độ dài mỗi text của commentscan (Settings.MAX_TEXT_LENGTH, tính theo ký tự) */
+    static final int SERVICE_MAX_TEXT_LENGTH = 1000;
+
+    /**
+     * AI service từ chối request (HTTP 4xx, ví dụ 422 khi text không hợp lệ): service vẫn sống,
+     * lỗi nằm ở dữ liệu gửi lên nên thử lại nguyên batch cũng không thành công.
+     */
+    public static class RequestRejectedException extends IllegalStateException {
+        public RequestRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final CircuitBreaker circuitBreaker;
+    private final String aiServiceUrl;
+    private final Duration readTimeout;
+
+    private final boolean batchingEnabled;
+    private final int maxBatchSize;
+    private final long maxBatchWaitMillis;
+    private final BlockingQueue<PendingPrediction> pending;
+    private final Thread batchWorker;
+    private volatile boolean running = true;
+
+    public AiModerationClient(ObjectMapper objectMapper,
+                              @Value("${ai.service.url}") String aiServiceUrl,
+                              @Value("${app.moderation.connect-timeout-ms:1000}") long connectTimeoutMillis,
+                              @Value("${app.moderation.read-timeout-ms:2000}") long readTimeoutMillis,
+                              @Value("${app.moderation.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${app.moderation.circuit-breaker.open-seconds:30}") long openSeconds,
+                              @Value("${app.moderation.batching.enabled:false}") boolean batchingEnabled,
+                              @Value("${app.moderation.batching.max-size:32}") int maxBatchSize,
+                              @Value("${app.moderation.batching.max-wait-ms:10}") long maxBatchWaitMillis,
+                              @Value("${app.moderation.batching.queue-capacity:256}") int queueCapacity) {
+        this.objectMapper = objectMapper;
+        this.aiServiceUrl = aiServiceUrl;
+        this.readTimeout = Duration.ofMillis(readTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.circuitBreaker = new CircuitBreaker("ai-moderation", failureThreshold, Duration.ofSeconds(openSeconds));
+        this.batchingEnabled = batchingEnabled;
+        this.maxBatchSize = Math.min(Math.max(1, maxBatchSize), SERVICE_MAX_BATCH_SIZE);
+        this.maxBatchWaitMillis = maxBatchWaitMillis;
+        this.pending = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+
+        if (batchingEnabled) {
+            this.batchWorker = new Thread(this::runBatchLoop, "ai-moderation-batcher");
+            this.batchWorker.setDaemon(true);
+            this.batchWorker.start();
+        } else {
+            this.batchWorker = null;
+        }
+    }
+
+    /**
+     * Phân loại một đoạn text. Future hoàn thành exceptionally nếu AI service lỗi,
+     * timeout hoặc circuit breaker đang mở — caller tự quyết định fail-open/fail-close.
+     */
+    public CompletableFuture<PredictionResult> predict(String text) {
+        List<String> chunks = splitForService(text);
+        if (batchingEnabled) {
+            if (chunks.size() == 1) {
+                return enqueue(text);
+            }
+            List<CompletableFuture<PredictionResult>> parts = chunks.stream().map(this::enqueue).toList();
+            return CompletableFuture.allOf(parts.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> combine(text, parts.stream().map(CompletableFuture::join).toList()));
+        }
+        if (chunks.size() > 1) {
+            return predictBatch(List.of(text)).thenApply(results -> results.get(0));
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("AI moderation circuit is open"));
+        }
+        return post("/predict", new AiModerationRequest(text), AiModerationResponse.class)
+                .thenApply(response -> {
+                    if (!response.isSuccess() || response.getResult() == null) {
+                        throw new IllegalStateException("AI service returned unsuccessful response");
+                    }
+                    return response.getResult();
+                })
+                .whenComplete(this::recordOutcome);
+    }
+
+    /**
+     * Phân loại nhiều text qua /predict/batch, mỗi kết quả ứng với một text theo đúng thứ tự.
+     * Text dài được cắt đoạn; nếu tổng số đoạn vượt 64 thì gửi thành nhiều lời gọi.
+     */
+    public CompletableFuture<List<PredictionResult>> predictBatch(List<String> texts) {
+        List<String> chunks = new ArrayList<>(texts.size());
+        int[] chunkCounts = new int[texts.size()];
+        for (int i = 0; i < texts.size(); i++) {
+            List<String> split = splitForService(texts.get(i));
+            chunks.addAll(split);
+            chunkCounts[i] = split.size();
+        }
+        if (chunks.size() == texts.size()) {
+            return sendBatch(chunks);
+        }
+
+        List<CompletableFuture<List<PredictionResult>>> calls = new ArrayList<>();
+        for (int from = 0; from < chunks.size(); from += SERVICE_MAX_BATCH_SIZE) {
+            calls.add(sendBatch(chunks.subList(from, Math.min(from + SERVICE_MAX_BATCH_SIZE, chunks.size()))));
+        }
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<PredictionResult> chunkResults = calls.stream()
+                            .flatMap(call -> call.join().stream())
+                            .toList();
+                    List<PredictionResult> results = new ArrayList<>(texts.size());
+                    int offset = 0;
+                    for (int i = 0; i < texts.size(); i++) {
+                        results.add(combine(texts.get(i), chunkResults.subList(offset, offset + chunkCounts[i])));
+                        offset += chunkCounts[i];
+                    }
+                    return results;
+                });
+    }
+
+    private CompletableFuture<List<PredictionResult>> sendBatch(List<String> texts) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("AI moderation circuit is open"));
+        }
+        return post("/predict/batch", new AiBatchModerationRequest(texts), AiBatchModerationResponse.class)
+                .thenApply(response -> {
+                    if (!response.isSuccess() || response.getResults() == null
+                            || response.getResults().size() != texts.size()) {
+                        throw new IllegalStateException("AI service returned unsuccessful batch response");
+                    }
+                    return response.getResults();
+                })
+                .whenComplete(this::recordOutcome);
+    }
+
+    /**
+     * Lấy phiên bản model đang chạy từ /model-info (trường model_version; service cũ không có
+     * trường này thì dùng model_type:model_name). Không đi qua circuit breaker.
+     */
+    public CompletableFuture<String> fetchModelVersion() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(aiServiceUrl + "/model-info"))
+                .timeout(readTimeout)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("AI service responded with HTTP " + response.statusCode());
+                    }
+                    try {
+                        Map<?, ?> info = objectMapper.readValue(response.body(), Map.class);
+                        Object version = info.get("model_version");
+                        return version != null
+                                ? version.toString()
+                                : info.get("model_type") + ":" + info.get("model_name");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Thời gian tối đa caller nên chờ một kết quả (read timeout + thời gian gom batch).
+     */
+    public Duration maxLatency() {
+        return readTimeout.plusMillis(batchingEnabled ? maxBatchWaitMillis : 0).plusMillis(100);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (batchWorker != null) {
+            batchWorker.interrupt();
+        }
+    }
+
+    private CompletableFuture<PredictionResult> enqueue(String text) {
+        CompletableFuture<PredictionResult> future = new CompletableFuture<>();
+        if (!pending.offer(new PendingPrediction(text, future))) {
+            // Model đang chậm và hàng đợi đã đầy: không dồn thêm, để caller fail-open
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("AI moderation batch queue is full"));
+        }
+        return future;
+    }
+
+    /**
+     * Cắt text thành các đoạn không quá {@link #SERVICE_MAX_TEXT_LENGTH} ký tự, ưu tiên cắt ở khoảng trắng
+     * trong nửa sau của đoạn để không tách đôi một từ.
+     */
+    static List<String> splitForService(String text) {
+        if (text.length() <= SERVICE_MAX_TEXT_LENGTH) {
+            return List.of(text);
+        }
+        List<String> chunks = new ArrayList<>(text.length() / SERVICE_MAX_TEXT_LENGTH + 1);
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + SERVICE_MAX_TEXT_LENGTH, text.length());
+            if (end < text.length()) {
+                int cut = end;
+                while (cut > start + SERVICE_MAX_TEXT_LENGTH / 2 && !Character.isWhitespace(text.charAt(cut))) {
+                    cut--;
+                }
+                if (cut > start + SERVICE_MAX_TEXT_LENGTH / 2) {
+                    end = cut;
+                } else if (Character.isHighSurrogate(text.charAt(end - 1))) {
+                    end--;
+                }
+            }
+            String chunk = text.substring(start, end).strip();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            start = end;
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(text.substring(0, SERVICE_MAX_TEXT_LENGTH));
+        }
+        return chunks;
+    }
+
+    /**
+     * Gộp kết quả các đoạn của một text: bị gắn cờ nếu có đoạn bị gắn cờ (lấy đoạn chắc chắn nhất),
+     * ngược lại lấy đoạn sạch có độ tin cậy thấp nhất.
+     */
+    static PredictionResult combine(String text, List<PredictionResult> parts) {
+        if (parts.size() == 1) {
+            return parts.get(0);
+        }
+        PredictionResult worst = null;
+        for (PredictionResult part : parts) {
+            if (worst == null
+                    || (part.isFlagged() && !worst.isFlagged())
+                    || (part.isFlagged() && part.getConfidence() > worst.getConfidence())
+                    || (!part.isFlagged() && !worst.isFlagged() && part.getConfidence() < worst.getConfidence())) {
+                worst = part;
+            }
+        }
+        PredictionResult combined = new PredictionResult();
+        combined.setText(text);
+        combined.setPredictedClass(worst.getPredictedClass());
+        combined.setPredictedLabel(worst.getPredictedLabel());
+        combined.setConfidence(worst.getConfidence());
+        combined.setFlagged(worst.isFlagged());
+        return combined;
+    }
+
+    private <T> CompletableFuture<T> post(String path, Object payload, Class<T> responseType) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(aiServiceUrl + path))
+                    .timeout(readTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)))
+                    .build();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 == 4) {
+                        throw new RequestRejectedException("AI service rejected the request with HTTP "
+                                + response.statusCode());
+                    }
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException("AI service responded with HTTP " + response.statusCode());
+                    }
+                    try {
+                        return objectMapper.readValue(response.body(), responseType);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private void recordOutcome(Object result, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        // Service đã trả lời (kể cả 4xx) nghĩa là vẫn sống
+        if (cause == null || cause instanceof RequestRejectedException) {
+            circuitBreaker.recordSuccess();
+        } else {
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    /**
+     * Lấy text đầu tiên (chờ vô hạn), sau đó gom thêm trong tối đa maxBatchWaitMillis
+     * hoặc đến khi đủ maxBatchSize rồi gửi một lời gọi batch.
+     */
+    private void runBatchLoop() {
+        while (running) {
+            try {
+                List<PendingPrediction> batch = new ArrayList<>(maxBatchSize);
+                batch.add(pending.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchWaitMillis);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    PendingPrediction next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("AI moderation batch loop error: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(List<PendingPrediction> batch) {
+        List<String> texts = batch.stream().map(PendingPrediction::text).toList();
+        log.debug("Sending AI moderation batch of {} texts", texts.size());
+        predictBatch(texts).whenComplete((results, error) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (error != null) {
+                    batch.get(i).future().completeExceptionally(error);
+                } else {
+                    batch.get(i).future().complete(results.get(i));
+                }
+            }
+        });
+    }
+
+    private record PendingPrediction(String text, CompletableFuture<PredictionResult> future) {}
+}
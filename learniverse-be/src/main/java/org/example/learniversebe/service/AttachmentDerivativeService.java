@@ -0,0 +1,226 @@
+package org.example.learniversebe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.enums.AttachmentType;
+import org.example.learniversebe.model.Attachment;
+import org.example.learniversebe.repository.AttachmentRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tạo thumbnail và placeholder (LQIP) cho các Attachment dạng IMAGE sau khi upload.
+ * Job chạy trên pool riêng có giới hạn, chỉ được submit sau khi transaction insert Attachment commit.
+ */
+@Slf4j
+@Service
+public class AttachmentDerivativeService {
+
+    private static final int PLACEHOLDER_WIDTH = 16;
+
+    private final AttachmentRepository attachmentRepository;
+    private final IStorageService storageService;
+    private final ThreadPoolTaskExecutor derivativeExecutor;
+    private final Counter generatedCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${app.attachment.thumbnail.width:480}")
+    private int thumbnailWidth;
+
+    @Value("${app.attachment.thumbnail.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    public AttachmentDerivativeService(AttachmentRepository attachmentRepository,
+                                       IStorageService storageService,
+                                       @Qualifier("attachmentDerivativeExecutor") ThreadPoolTaskExecutor derivativeExecutor,
+                                       MeterRegistry meterRegistry) {
+        this.attachmentRepository = attachmentRepository;
+        this.storageService = storageService;
+        this.derivativeExecutor = derivativeExecutor;
+        this.generatedCounter = meterRegistry.counter("attachments.derivatives.generated");
+        this.failedCounter = meterRegistry.counter("attachments.derivatives.failed");
+        this.rejectedCounter = meterRegistry.counter("attachments.derivatives.rejected");
+        Gauge.builder("attachments.derivatives.backlog", derivativeExecutor,
+                        executor -> executor.getThreadPoolExecutor().getQueue().size() + executor.getActiveCount())
+                .description("Image attachments waiting for or being processed by the derivative worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Đăng ký tạo derivative cho các ảnh vừa lưu, chạy sau khi transaction hiện tại commit
+     * (hoặc ngay lập tức nếu không có transaction).
+     */
+    public void scheduleAfterCommit(List<Attachment> attachments) {
+        List<UUID> imageIds = attachments.stream()
+                .filter(attachment -> attachment.getFileType() == AttachmentType.IMAGE)
+                .map(Attachment::getId)
+                .toList();
+        if (imageIds.isEmpty()) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(imageIds);
+                }
+            });
+        } else {
+            submit(imageIds);
+        }
+    }
+
+    private void submit(List<UUID> attachmentIds) {
+        for (UUID attachmentId : attachmentIds) {
+            try {
+                derivativeExecutor.execute(() -> generate(attachmentId));
+            } catch (TaskRejectedException e) {
+                // Hàng đợi đầy: bỏ qua, feed vẫn dùng ảnh gốc cho attachment này
+                rejectedCounter.increment();
+                log.warn("Derivative queue full, skipping attachment {}", attachmentId);
+            }
+        }
+    }
+
+    private void generate(UUID attachmentId) {
+        try {
+            Attachment attachment = attachmentRepository.findById(attachmentId).orElse(null);
+            if (attachment == null || attachment.getFileType() != AttachmentType.IMAGE
+                    || attachment.getThumbnailUrl() != null) {
+                return;
+            }
+
+            BufferedImage source;
+            try (InputStream in = openSource(attachment)) {
+                source = decode(in, attachmentId);
+            }
+            if (source == null) {
+                return;
+            }
+
+            byte[] thumbnail = encodeJpeg(resize(source, thumbnailWidth), 0.8f);
+            Map<String, String> stored = storageService.uploadDerivative(thumbnail, "image/jpeg");
+            String placeholder = "data:image/jpeg;base64," +
+                    Base64.getEncoder().encodeToString(encodeJpeg(resize(source, PLACEHOLDER_WIDTH), 0.5f));
+
+            int updated = attachmentRepository.updateDerivatives(attachmentId, stored.get("url"), stored.get("key"), placeholder);
+            if (updated == 0) {
+                // Attachment bị xóa (hoặc đã có thumbnail) trong lúc tạo: không ai tham chiếu thumbnail này nữa
+                storageService.deleteFile(stored.get("key"));
+                log.debug("Attachment {} changed while generating derivatives, discarded thumbnail", attachmentId);
+                return;
+            }
+            generatedCounter.increment();
+            log.debug("Generated derivatives for attachment {}", attachmentId);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Failed to generate derivatives for attachment {}: {}", attachmentId, e.getMessage());
+        }
+    }
+
+    /**
+     * Đọc kích thước từ header trước khi giải mã: ảnh vượt maxSourcePixels (vd. "decompression bomb"
+     * nhỏ trên đĩa nhưng hàng tỉ pixel) bị bỏ qua thay vì cấp phát cả khung ảnh trên heap.
+     */
+    private BufferedImage decode(InputStream in, UUID attachmentId) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                log.warn("No image reader for attachment {}", attachmentId);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    log.warn("Skipping derivatives for attachment {}: {} pixels exceeds limit {}",
+                            attachmentId, pixels, maxSourcePixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private InputStream openSource(Attachment attachment) throws IOException {
+        String url = attachment.getStorageUrl();
+        if (url != null && (url.startsWith("https://") || url.startsWith("http://"))) {
+            URLConnection connection = new URL(url).openConnection();
+            connection.setConnectTimeout(5_000);
+            connection.setReadTimeout(15_000);
+            return connection.getInputStream();
+        }
+        return storageService.loadAsResource(attachment.getStorageKey())
+                .orElseThrow(() -> new IOException("Stored file not found: " + attachment.getStorageKey()))
+                .getInputStream();
+    }
+
+    /**
+     * Resize giữ tỉ lệ, không phóng to ảnh nhỏ hơn maxWidth. Nền trắng cho ảnh có alpha (JPEG không có alpha).
+     */
+    private BufferedImage resize(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
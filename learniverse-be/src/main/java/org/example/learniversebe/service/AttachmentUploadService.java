@@ -0,0 +1,208 @@
+package org.example.learniversebe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.enums.AttachmentType;
+import org.example.learniversebe.exception.BadRequestException;
+import org.example.learniversebe.model.Attachment;
+import org.example.learniversebe.model.Content;
+import org.example.learniversebe.model.User;
+import org.example.learniversebe.repository.AttachmentRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Upload song song các file đính kèm lên storage, tách biệt khỏi transaction DB.
+ * Caller upload trước, sau đó chỉ insert các dòng Attachment trong transaction;
+ * nếu transaction thất bại thì gọi {@link #discard(List)} để xóa file đã upload.
+ */
+@Slf4j
+@Service
+public class AttachmentUploadService {
+
+    private final IStorageService storageService;
+    private final TaskExecutor uploadExecutor;
+    private final AttachmentRepository attachmentRepository;
+    private final AttachmentDerivativeService derivativeService;
+
+    public AttachmentUploadService(IStorageService storageService,
+                                   @Qualifier("attachmentUploadExecutor") TaskExecutor uploadExecutor,
+                                   AttachmentRepository attachmentRepository,
+                                   AttachmentDerivativeService derivativeService) {
+        this.storageService = storageService;
+        this.uploadExecutor = uploadExecutor;
+        this.attachmentRepository = attachmentRepository;
+        this.derivativeService = derivativeService;
+    }
+
+    /**
+     * Kết quả upload của một file, giữ lại metadata cần để tạo Attachment.
+     */
+    public record UploadedFile(String fileName, String mimeType, long fileSize, String url, String key) {}
+
+    /**
+     * Upload tất cả file đồng thời. All-or-nothing: nếu một file lỗi thì
+     * các file đã upload thành công sẽ bị xóa trước khi ném exception.
+     *
+     * @param files Danh sách file (có thể null/rỗng)
+     * @return Danh sách kết quả theo đúng thứ tự đầu vào
+     * @throws BadRequestException nếu có file upload thất bại
+     */
+    public List<UploadedFile> uploadAll(List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+
+        List<CompletableFuture<UploadedFile>> futures = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> uploadOne(file), uploadExecutor))
+                .toList();
+
+        // Đợi tất cả hoàn tất (kể cả khi có lỗi) để không bỏ sót file đang upload dở
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .exceptionally(ex -> null)
+                .join();
+
+        List<UploadedFile> uploaded = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<UploadedFile> future : futures) {
+            if (future.isCompletedExceptionally()) {
+                if (failure == null) {
+                    failure = unwrap(future);
+                }
+            } else {
+                uploaded.add(future.join());
+            }
+        }
+
+        if (failure != null) {
+            discard(uploaded);
+            throw failure;
+        }
+        return uploaded;
+    }
+
+    /**
+     * Xóa (best-effort) các file đã upload. Dùng để bù trừ khi transaction rollback.
+     */
+    public void discard(List<UploadedFile> uploaded) {
+        if (uploaded == null) return;
+        for (UploadedFile file : uploaded) {
+            try {
+                storageService.deleteFile(file.key());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to delete orphaned upload from storage: {}", file.key(), e);
+            }
+        }
+    }
+
+    /**
+     * Xóa (best-effort) file gốc và thumbnail của một Attachment khỏi storage sau khi transaction hiện tại
+     * commit, để rollback không để lại dòng Attachment trỏ tới file đã bị xóa.
+     */
+    public void deleteStoredFiles(Attachment attachment) {
+        UUID attachmentId = attachment.getId();
+        String storageKey = attachment.getStorageKey();
+        String loadedThumbnailKey = attachment.getThumbnailKey();
+        Runnable delete = () -> {
+            // Thumbnail có thể được ghi sau khi entity được load: đọc lại key mới nhất.
+            // Thumbnail tạo xong sau khi xóa thì AttachmentDerivativeService tự giải phóng.
+            String thumbnailKey = attachmentId == null ? loadedThumbnailKey
+                    : attachmentRepository.findThumbnailKeyIncludingDeleted(attachmentId).orElse(loadedThumbnailKey);
+            deleteKeys(storageKey, thumbnailKey);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete.run();
+                }
+            });
+        } else {
+            delete.run();
+        }
+    }
+
+    private void deleteKeys(String... keys) {
+        for (String key : keys) {
+            if (key == null) continue;
+            try {
+                storageService.deleteFile(key);
+            } catch (IOException | RuntimeException e) {
+                // Bản ghi DB đã xóa; file còn sót chỉ tốn dung lượng
+                log.warn("Failed to delete file from storage: {}", key, e);
+            }
+        }
+    }
+
+    /**
+     * Lưu các Attachment trong transaction hiện tại và lên lịch tạo thumbnail sau khi commit.
+     */
+    public List<Attachment> saveAttachments(List<UploadedFile> uploaded, Content content, User uploader) {
+        List<Attachment> attachments = attachmentRepository.saveAll(toAttachments(uploaded, content, uploader));
+        derivativeService.scheduleAfterCommit(attachments);
+        return attachments;
+    }
+
+    /**
+     * Tạo các entity Attachment (chưa lưu) gắn với content từ kết quả upload.
+     */
+    private List<Attachment> toAttachments(List<UploadedFile> uploaded, Content content, User uploader) {
+        List<Attachment> attachments = new ArrayList<>(uploaded.size());
+        for (UploadedFile file : uploaded) {
+            Attachment attachment = new Attachment();
+            attachment.setContent(content);
+            attachment.setUploadedBy(uploader);
+            attachment.setFileName(file.fileName());
+            attachment.setMimeType(file.mimeType());
+            attachment.setFileSize(file.fileSize());
+            attachment.setStorageUrl(file.url());
+            attachment.setStorageKey(file.key());
+            attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.mimeType())));
+            attachment.setIsVerified(true);
+            attachments.add(attachment);
+        }
+        return attachments;
+    }
+
+    private UploadedFile uploadOne(MultipartFile file) {
+        try {
+            Map<String, String> uploadResult = storageService.uploadFile(file);
+            return new UploadedFile(file.getOriginalFilename(), file.getContentType(), file.getSize(),
+                    uploadResult.get("url"), uploadResult.get("key"));
+        } catch (IOException e) {
+            throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
+        }
+    }
+
+    private RuntimeException unwrap(CompletableFuture<UploadedFile> future) {
+        try {
+            future.join();
+            return new BadRequestException("Failed to upload file");
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                return runtimeException;
+            }
+            return new BadRequestException("Failed to upload file: " + cause.getMessage());
+        }
+    }
+
+    private AttachmentType determineAttachmentType(String mimeType) {
+        if (mimeType.startsWith("image/")) return AttachmentType.IMAGE;
+        if (mimeType.equals("application/pdf")) return AttachmentType.PDF;
+        return AttachmentType.OTHER;
+    }
+}
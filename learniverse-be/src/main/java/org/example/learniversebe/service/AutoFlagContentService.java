@@ -1,24 +1,38 @@
 package org.example.learniversebe.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.CommentStreamEvent;
+import org.example.learniversebe.enums.CommentStreamEventType;
+import org.example.learniversebe.enums.ReactableType;
 import org.example.learniversebe.model.Answer;
 import org.example.learniversebe.model.Comment;
 import org.example.learniversebe.repository.AnswerRepository;
 import org.example.learniversebe.repository.CommentRepository;
+import org.example.learniversebe.repository.ContentRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.UUID;
+
 @Slf4j
 @Service
 public class AutoFlagContentService {
 
     private final AnswerRepository answerRepository;
     private final CommentRepository commentRepository;
+    private final ContentRepository contentRepository;
+    private final CommentStreamPublisher commentStreamPublisher;
 
-    public AutoFlagContentService(AnswerRepository answerRepository, CommentRepository commentRepository) {
+    public AutoFlagContentService(AnswerRepository answerRepository,
+                                  CommentRepository commentRepository,
+                                  ContentRepository contentRepository,
+                                  CommentStreamPublisher commentStreamPublisher) {
         this.answerRepository = answerRepository;
         this.commentRepository = commentRepository;
+        this.contentRepository = contentRepository;
+        this.commentStreamPublisher = commentStreamPublisher;
     }
 
     /**
@@ -42,4 +56,64 @@ public class AutoFlagContentService {
         log.info("Hidden comment saved with ID: {}", saved.getId());
         return saved;
     }
+
+    /**
+     * Hides an already published answer (post-publish moderation) and decrements the question's answer count.
+     * Idempotent: an answer that is already hidden is returned unchanged.
+     * @return the hidden answer, or null if it no longer exists
+     */
+    @Transactional
+    public Answer hideAnswer(UUID answerId) {
+        Answer answer = answerRepository.findById(answerId).orElse(null);
+        if (answer == null || !Boolean.TRUE.equals(answer.getIsVisible())) {
+            return answer;
+        }
+        answer.setIsVisible(false);
+        contentRepository.adjustAnswerCount(answer.getQuestion().getId(), -1);
+        // Answer đã được stream cho người đang xem câu hỏi: báo client gỡ nó đi
+        publishRemoval(answer.getQuestion().getId(), CommentStreamEventType.ANSWER_DELETED, answer.getId(), null);
+        log.info("Published answer {} hidden after moderation", answerId);
+        return answerRepository.save(answer);
+    }
+
+    /**
+     * Hides an already published comment (post-publish moderation) and decrements the comment/reply counts.
+     * Idempotent: a comment that is already hidden is returned unchanged.
+     * @return the hidden comment, or null if it no longer exists
+     */
+    @Transactional
+    public Comment hideComment(UUID commentId) {
+        Comment comment = commentRepository.findById(commentId).orElse(null);
+        if (comment == null || !Boolean.TRUE.equals(comment.getIsVisible())) {
+            return comment;
+        }
+        comment.setIsVisible(false);
+        if (comment.getCommentableType() == ReactableType.CONTENT) {
+            contentRepository.adjustCommentCount(comment.getCommentableId(), -1);
+        }
+        if (comment.getParent() != null) {
+            commentRepository.adjustReplyCount(comment.getParent().getId(), -1);
+        }
+        // Comment đã được stream cho người đang xem bài viết: báo client gỡ nó đi
+        UUID contentId = switch (comment.getCommentableType()) {
+            case CONTENT -> comment.getCommentableId();
+            case ANSWER -> answerRepository.findById(comment.getCommentableId())
+                    .map(answer -> answer.getQuestion().getId())
+                    .orElse(null);
+            case COMMENT -> null;
+        };
+        publishRemoval(contentId, CommentStreamEventType.COMMENT_DELETED, comment.getId(),
+                parent != null ? parent.getId() : null);
+        log.info("Published comment {} hidden after moderation", commentId);
+        return commentRepository.save(comment);
+    }
+
+    private void publishRemoval(UUID contentId, CommentStreamEventType type, UUID id, UUID parentId) {
+        commentStreamPublisher.publishAfterCommit(contentId, CommentStreamEvent.builder()
+                .type(type)
+                .id(id)
+                .parentId(parentId)
+                .occurredAt(LocalDateTime.now())
+                .build());
+    }
 }
@@ -12,53 +12,68 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
+
 @Slf4j
 @Service
 public class AutoFlagReportService {
 
     private final ReportRepository reportRepository;
+    private final INotificationService notificationService;
 
-    public AutoFlagReportService(ReportRepository reportRepository) {
+    public AutoFlagReportService(ReportRepository reportRepository, INotificationService notificationService) {
         this.reportRepository = reportRepository;
+        this.notificationService = notificationService;
     }
 
     /**
-     * Creates system report in a SEPARATE transaction so it won't be rolled back
-     * when the caller throws an exception.
+     * Creates system report and enqueues the moderator alert in a SEPARATE transaction,
+     * so neither is rolled back when the caller rejects the answer with an exception.
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Report createForAnswer(Answer answer) {
-        Report report = new Report();
-        report.setReportableType(ReportableType.ANSWER);
-        report.setReportableId(answer.getId());
-        report.setReason(ReportReason.SYSTEM_AUTO_FLAG);
-        report.setDescription("Nội dung tự động bị gắn cờ bởi AI: " +
-                answer.getBody().substring(0, Math.min(200, answer.getBody().length())));
-        report.setStatus(ReportStatus.PENDING);
-        report.setReporter(null); // System generated, no reporter
-
-        Report saved = reportRepository.save(report);
+        Report saved = reportRepository.save(newSystemReport(ReportableType.ANSWER, answer.getId(), answer.getBody()));
         log.info("System report created with ID: {} for answer: {}", saved.getId(), answer.getId());
+        notificationService.notifyModeratorsOfAutoFlag(saved.getId(), ReportableType.ANSWER.name(), answer.getBody());
         return saved;
     }
 
     /**
-     * Creates system report in a SEPARATE transaction so it won't be rolled back
-     * when the caller throws an exception.
+     * Creates system report and enqueues the moderator alert in a SEPARATE transaction,
+     * so neither is rolled back when the caller rejects the comment with an exception.
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public Report createForComment(Comment comment) {
+        Report saved = reportRepository.save(newSystemReport(ReportableType.COMMENT, comment.getId(), comment.getBody()));
+        log.info("System report created with ID: {} for comment: {}", saved.getId(), comment.getId());
+        notificationService.notifyModeratorsOfAutoFlag(saved.getId(), ReportableType.COMMENT.name(), comment.getBody());
+        return saved;
+    }
+
+    /**
+     * Creates the system report in the CALLER's transaction unless the item already has one,
+     * so hiding and reporting commit together and a retried verdict does not create duplicates.
+     * @return the new report, or null if the item was already reported by the system
+     */
+    @Transactional
+    public Report createIfAbsent(ReportableType type, UUID reportableId, String body) {
+        if (reportRepository.existsByReportableTypeAndReportableIdAndReason(type, reportableId, ReportReason.SYSTEM_AUTO_FLAG)) {
+            return null;
+        }
+        Report saved = reportRepository.save(newSystemReport(type, reportableId, body));
+        log.info("System report created with ID: {} for {}: {}", saved.getId(), type, reportableId);
+        return saved;
+    }
+
+    private Report newSystemReport(ReportableType type, UUID reportableId, String body) {
         Report report = new Report();
-        report.setReportableType(ReportableType.COMMENT);
-        report.setReportableId(comment.getId());
+        report.setReportableType(type);
+        report.setReportableId(reportableId);
         report.setReason(ReportReason.SYSTEM_AUTO_FLAG);
         report.setDescription("Nội dung tự động bị gắn cờ bởi AI: " +
-                comment.getBody().substring(0, Math.min(200, comment.getBody().length())));
+                body.substring(0, Math.min(200, body.length())));
         report.setStatus(ReportStatus.PENDING);
         report.setReporter(null); // System generated, no reporter
-
-        Report saved = reportRepository.save(report);
-        log.info("System report created with ID: {} for comment: {}", saved.getId(), comment.getId());
-        return saved;
+        return report;
     }
 }
@@ -0,0 +1,113 @@
+package org.example.learniversebe.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.CommentStreamBatch;
+import org.example.learniversebe.dto.response.CommentStreamEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát sự kiện comment/answer mới lên /topic/content/{id}/comments sau khi transaction commit.
+ * Sự kiện của cùng một bài viết được gộp trong {@code coalesce-ms}: sự kiện đầu tiên hẹn giờ flush,
+ * các sự kiện sau chỉ nối vào buffer, nên thread đông người xem chỉ nhận vài frame mỗi giây.
+ * Đây là cập nhật trực tiếp không đảm bảo (không qua outbox); client bỏ lỡ frame thì tải lại bằng cursor since.
+ */
+@Slf4j
+@Service
+public class CommentStreamPublisher {
+
+    public static final String CONTENT_TOPIC_PREFIX = "/topic/content/";
+    public static final String COMMENTS_TOPIC_SUFFIX = "/comments";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Map<UUID, List<CommentStreamEvent>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.comment.stream.coalesce-ms:300}")
+    private long coalesceMillis;
+
+    @Value("${app.comment.stream.max-batch-size:50}")
+    private int maxBatchSize;
+
+    public CommentStreamPublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public static String topicFor(UUID contentId) {
+        return CONTENT_TOPIC_PREFIX + contentId + COMMENTS_TOPIC_SUFFIX;
+    }
+
+    /**
+     * Đưa sự kiện vào buffer của bài viết sau khi transaction hiện tại commit; rollback thì bỏ.
+     */
+    public void publishAfterCommit(UUID contentId, CommentStreamEvent event) {
+        if (contentId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    buffer(contentId, event);
+                }
+            });
+        } else {
+            buffer(contentId, event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void buffer(UUID contentId, CommentStreamEvent event) {
+        boolean[] first = {false};
+        pending.compute(contentId, (id, events) -> {
+            if (events == null) {
+                events = new ArrayList<>();
+                first[0] = true;
+            }
+            events.add(event);
+            return events;
+        });
+        if (first[0]) {
+            scheduler.schedule(() -> flush(contentId), coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush(UUID contentId) {
+        // Sau remove, buffer thuộc riêng thread này; sự kiện mới sẽ tạo buffer và lịch flush mới
+        List<CommentStreamEvent> events = pending.remove(contentId);
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        boolean truncated = events.size() > maxBatchSize;
+        List<CommentStreamEvent> frame = truncated
+                ? events.subList(events.size() - maxBatchSize, events.size())
+                : events;
+        try {
+            messagingTemplate.convertAndSend(topicFor(contentId), new CommentStreamBatch(contentId, frame, truncated));
+        } catch (MessagingException e) {
+            log.warn("Failed to publish {} comment events for content {}: {}", frame.size(), contentId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.dto.response.CommentResponse;
+import org.example.learniversebe.enums.ReactableType;
+import org.example.learniversebe.enums.ReactionType;
+import org.example.learniversebe.model.Reaction;
+import org.example.learniversebe.repository.ReactionRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Gắn trạng thái của người xem (reaction hiện tại) vào các CommentResponse.
+ * Mọi đường đọc comment đều đi qua đây nên một trang (kể cả các reply lồng trong {@code replies})
+ * chỉ tốn đúng một query reaction, không phải một query cho mỗi comment.
+ */
+@Service
+public class CommentViewerStateLoader {
+
+    private final ReactionRepository reactionRepository;
+
+    public CommentViewerStateLoader(ReactionRepository reactionRepository) {
+        this.reactionRepository = reactionRepository;
+    }
+
+    public void load(CommentResponse comment, UUID viewerId) {
+        if (comment != null) {
+            load(List.of(comment), viewerId);
+        }
+    }
+
+    /**
+     * @param comments Danh sách comment (có thể chứa replies lồng nhau)
+     * @param viewerId ID người xem; null (khách) thì mọi reaction là null và không query
+     */
+    public void load(List<CommentResponse> comments, UUID viewerId) {
+        if (comments == null || comments.isEmpty()) {
+            return;
+        }
+        List<CommentResponse> all = new ArrayList<>();
+        collect(comments, all);
+
+        if (viewerId == null) {
+            all.forEach(dto -> dto.setCurrentUserReaction(null));
+            return;
+        }
+
+        List<UUID> commentIds = all.stream().map(CommentResponse::getId).distinct().toList();
+        Map<UUID, ReactionType> reactionMap = new HashMap<>();
+        for (Reaction reaction : reactionRepository.findByUserIdAndReactableTypeAndReactableIdIn(
+                viewerId, ReactableType.COMMENT, commentIds)) {
+            reactionMap.putIfAbsent(reaction.getReactableId(), reaction.getReactionType());
+        }
+        all.forEach(dto -> dto.setCurrentUserReaction(reactionMap.get(dto.getId())));
+    }
+
+    private static void collect(List<CommentResponse> comments, List<CommentResponse> out) {
+        for (CommentResponse comment : comments) {
+            out.add(comment);
+            if (comment.getReplies() != null && !comment.getReplies().isEmpty()) {
+                collect(comment.getReplies(), out);
+            }
+        }
+    }
+}
@@ -1,27 +1,64 @@
 package org.example.learniversebe.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.example.learniversebe.dto.request.AiModerationRequest;
-import org.example.learniversebe.dto.response.AiModerationResponse;
+import org.example.learniversebe.dto.response.AiModerationResponse.PredictionResult;
+import org.example.learniversebe.enums.ReportableType;
+import org.example.learniversebe.model.ModerationOutbox;
+import org.example.learniversebe.repository.ModerationOutboxRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 public class ContentModerationService {
 
-    @Value("${ai.service.url}")
-    private String aiServiceUrl;
+    private static final String MODE_POST_PUBLISH = "post-publish";
+
+    private final AiModerationClient aiModerationClient;
+    private final ModerationPrefilter prefilter;
+    private final ModerationVerdictCache verdictCache;
+    private final ModerationOutboxRepository moderationOutboxRepository;
+    private final boolean postPublishMode;
 
-    private final RestTemplate restTemplate;
+    public ContentModerationService(AiModerationClient aiModerationClient,
+                                    ModerationPrefilter prefilter,
+                                    ModerationVerdictCache verdictCache,
+                                    ModerationOutboxRepository moderationOutboxRepository,
+                                    @Value("${app.moderation.mode:pre-publish}") String mode) {
+        this.aiModerationClient = aiModerationClient;
+        this.prefilter = prefilter;
+        this.verdictCache = verdictCache;
+        this.moderationOutboxRepository = moderationOutboxRepository;
+        this.postPublishMode = MODE_POST_PUBLISH.equalsIgnoreCase(mode.trim());
+    }
 
-    public ContentModerationService() {
-        this.restTemplate = new RestTemplate();
+    /**
+     * true nếu comment/answer được đăng ngay và kiểm duyệt sau (qua outbox),
+     * false nếu phải chờ kết quả AI trước khi lưu (mặc định).
+     */
+    public boolean isPostPublishMode() {
+        return postPublishMode;
+    }
+
+    /**
+     * Ghi nội dung vừa đăng vào moderation outbox trong transaction hiện tại.
+     * {@link ModerationOutboxWorker} sẽ phân loại và ẩn nội dung nếu bị gắn cờ.
+     */
+    public void enqueueForReview(ReportableType targetType, UUID targetId, String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return;
+        }
+        ModerationOutbox entry = new ModerationOutbox();
+        entry.setTargetType(targetType);
+        entry.setTargetId(targetId);
+        entry.setBody(text);
+        moderationOutboxRepository.save(entry);
     }
 
     /**
@@ -30,44 +67,76 @@ public class ContentModerationService {
      * @return true nếu an toàn (hoặc lỗi server AI), false nếu độc hại
      */
     public boolean isContentSafe(String text) {
+        return awaitVerdict(isContentSafeAsync(text));
+    }
+
+    /**
+     * Bắt đầu kiểm tra nội dung mà không chặn thread hiện tại.
+     * Caller có thể làm việc khác (validate, query DB) rồi gọi {@link #awaitVerdict(CompletableFuture)}.
+     * @param text Nội dung cần kiểm tra
+     * @return Future true nếu an toàn (hoặc lỗi server AI), false nếu độc hại
+     */
+    public CompletableFuture<Boolean> isContentSafeAsync(String text) {
         if (text == null || text.trim().isEmpty()) {
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
 
-        try {
-            String endpoint = aiServiceUrl + "/predict";
-
-            // Tạo request header & body
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            AiModerationRequest requestPayload = new AiModerationRequest(text);
-            HttpEntity<AiModerationRequest> entity = new HttpEntity<>(requestPayload, headers);
+        switch (prefilter.evaluate(text)) {
+            case ALLOW -> {
+                return CompletableFuture.completedFuture(true);
+            }
+            case BLOCK -> {
+                log.warn("Toxic content blocked by prefilter: {}", text);
+                return CompletableFuture.completedFuture(false);
+            }
+            default -> {
+                // FORWARD: hỏi cache rồi tới AI model
+            }
+        }
 
-            // Gọi API
-            ResponseEntity<AiModerationResponse> response = restTemplate.postForEntity(
-                    endpoint,
-                    entity,
-                    AiModerationResponse.class
-            );
+        PredictionResult cached = verdictCache.get(text);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(toVerdict(text, cached));
+        }
 
-            // Xử lý kết quả
-            if (response.getBody() != null && response.getBody().isSuccess()) {
-                boolean isFlagged = response.getBody().getResult().isFlagged();
-                log.info("Comment này: {}", response.getBody().getResult());
-                if (isFlagged) {
-                    log.warn("Toxic content founded: {}", text);
-                    return false;
-                }
-                return true;
-            }
+        long start = System.nanoTime();
+        return aiModerationClient.predict(text)
+                .thenApply(result -> {
+                    verdictCache.put(text, result, System.nanoTime() - start);
+                    return toVerdict(text, result);
+                })
+                .exceptionally(e -> {
+                    // Fail-open strategy: Nếu server AI lỗi, tạm thời cho qua để không chặn user
+                    // Nhưng cần log ERROR để dev biết mà sửa
+                    log.error("Error when fetching AI Service: {}", e.getMessage());
+                    return true;
+                });
+    }
 
-        } catch (Exception e) {
-            // Fail-open strategy: Nếu server AI lỗi, tạm thời cho qua để không chặn user
-            // Nhưng cần log ERROR để dev biết mà sửa
+    /**
+     * Chờ kết quả kiểm tra với thời gian tối đa của AI client; quá hạn thì fail-open.
+     */
+    public boolean awaitVerdict(CompletableFuture<Boolean> verdict) {
+        try {
+            return verdict.get(aiModerationClient.maxLatency().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.error("AI Service timed out, allowing content");
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } catch (ExecutionException e) {
             log.error("Error when fetching AI Service: {}", e.getMessage());
             return true;
         }
+    }
 
+    private boolean toVerdict(String text, PredictionResult result) {
+        log.info("Comment này: {}", result);
+        if (result.isFlagged()) {
+            log.warn("Toxic content founded: {}", text);
+            return false;
+        }
         return true;
     }
-}
\ No newline at end of file
+}
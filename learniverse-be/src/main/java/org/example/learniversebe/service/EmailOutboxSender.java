@@ -0,0 +1,332 @@
+package org.example.learniversebe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.enums.EmailTemplate;
+import org.example.learniversebe.model.EmailOutbox;
+import org.example.learniversebe.repository.EmailOutboxRepository;
+import org.example.learniversebe.util.SecretCipher;
+import org.example.learniversebe.util.TokenBucket;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gửi email từ email_outbox trên một pool sender riêng, không chặn request thread.
+ * - Mỗi sender lấy một batch (SKIP LOCKED + lease) rồi gửi cả batch qua một lần
+ *   {@link JavaMailSender#send(MimeMessage...)}, tức là dùng chung một phiên SMTP cho cả batch.
+ * - Token bucket giới hạn số email/phút theo quota của nhà cung cấp.
+ * - Email lỗi được thử lại với exponential backoff, quá max-attempts thì bỏ và log ERROR.
+ * - Email dùng template chỉ lưu tham số; HTML được render bởi {@link EmailTemplateEngine} trên sender thread.
+ * - body và params (có thể chứa mật khẩu, link reset) được mã hóa trước khi ghi vào outbox,
+ *   dòng outbox bị xóa ngay khi email đã gửi hoặc bị bỏ.
+ */
+@Slf4j
+@Service
+public class EmailOutboxSender {
+
+    private static final TypeReference<Map<String, String>> PARAMS_TYPE = new TypeReference<>() {};
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final EmailTemplateEngine templateEngine;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor senderExecutor;
+    private final TokenBucket rateLimiter;
+    private final SecretCipher payloadCipher;
+    private final AtomicInteger activeSenders = new AtomicInteger();
+    private final int senderThreads;
+    private final Timer lagTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.mail.outbox.initial-backoff-seconds:30}")
+    private long initialBackoffSeconds;
+
+    @Value("${app.mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    public EmailOutboxSender(EmailOutboxRepository outboxRepository,
+                             JavaMailSender mailSender,
+                             EmailTemplateEngine templateEngine,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier("emailSenderExecutor") TaskExecutor senderExecutor,
+                             @Value("${app.mail.outbox.sender-threads:2}") int senderThreads,
+                             @Value("${app.mail.outbox.rate-per-minute:60}") long ratePerMinute,
+                             @Value("${app.mail.outbox.encryption-key}") String encryptionKey,
+                             MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.templateEngine = templateEngine;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.senderExecutor = senderExecutor;
+        this.senderThreads = Math.max(1, senderThreads);
+        this.rateLimiter = new TokenBucket(ratePerMinute, ratePerMinute);
+        if (encryptionKey == null || encryptionKey.isBlank()) {
+            // Không dùng lại secret JWT: lộ một key không được kéo theo cả hai
+            throw new IllegalStateException("MAIL_OUTBOX_ENCRYPTION_KEY (app.mail.outbox.encryption-key) must be set");
+        }
+        this.payloadCipher = new SecretCipher(encryptionKey);
+        this.lagTimer = Timer.builder("mail.outbox.lag")
+                .description("Time between an email being queued and accepted by the SMTP server")
+                .register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+        this.failedCounter = meterRegistry.counter("mail.outbox.failed");
+        this.droppedCounter = meterRegistry.counter("mail.outbox.dropped");
+    }
+
+    /**
+     * Ghi email vào outbox trong transaction hiện tại; email được gửi sau khi commit.
+     */
+    public void enqueue(String to, String subject, String htmlBody) {
+        EmailOutbox entry = new EmailOutbox();
+        entry.setRecipient(to);
+        entry.setSubject(subject);
+        entry.setBody(payloadCipher.encrypt(htmlBody));
+        saveAndSchedule(entry);
+    }
+
+    /**
+     * Ghi email dùng template vào outbox: chỉ lưu template, locale và tham số,
+     * phần HTML được render lúc gửi, không tốn thời gian của request thread.
+     */
+    public void enqueueTemplate(String to, EmailTemplate template, Locale locale, Map<String, String> params) {
+        templateEngine.validateParams(template, params);
+        Locale resolved = templateEngine.resolveLocale(locale);
+
+        EmailOutbox entry = new EmailOutbox();
+        entry.setRecipient(to);
+        entry.setSubject(templateEngine.subject(template, resolved));
+        entry.setTemplate(template);
+        entry.setLocale(resolved.toLanguageTag());
+        try {
+            entry.setParams(payloadCipher.encrypt(objectMapper.writeValueAsString(params)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize email template parameters", e);
+        }
+        saveAndSchedule(entry);
+    }
+
+    private void saveAndSchedule(EmailOutbox entry) {
+        outboxRepository.save(entry);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestSenders(1);
+                }
+            });
+        } else {
+            requestSenders(1);
+        }
+    }
+
+    /**
+     * Quét định kỳ: gửi email đến hạn retry, email còn sót sau restart hoặc bị chặn bởi rate limit.
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:10000}")
+    public void pollOutbox() {
+        requestSenders(senderThreads);
+    }
+
+    /**
+     * Khởi động thêm tối đa {@code wanted} sender nếu pool còn chỗ; sender thừa sẽ tự dừng khi hết việc.
+     */
+    private void requestSenders(int wanted) {
+        for (int i = 0; i < wanted; i++) {
+            int active = activeSenders.get();
+            if (active >= senderThreads || !activeSenders.compareAndSet(active, active + 1)) {
+                return;
+            }
+            try {
+                senderExecutor.execute(this::drain);
+            } catch (TaskRejectedException e) {
+                activeSenders.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                int permits = rateLimiter.tryAcquire(batchSize);
+                if (permits == 0) {
+                    // Hết quota trong phút này, lần poll sau sẽ tiếp tục
+                    return;
+                }
+                List<EmailOutbox> claimed = claimBatch(permits);
+                if (claimed.size() < permits) {
+                    rateLimiter.release(permits - claimed.size());
+                }
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                sendBatch(claimed);
+                if (claimed.size() < permits) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Email outbox sender failed: {}", e.getMessage());
+        } finally {
+            activeSenders.decrementAndGet();
+        }
+    }
+
+    /**
+     * Khóa các email đến hạn (SKIP LOCKED) và đẩy next_attempt_at ra sau một lease
+     * để sender khác không lấy lại trong lúc đang nói chuyện với SMTP (ngoài transaction).
+     */
+    private List<EmailOutbox> claimBatch(int limit) {
+        List<EmailOutbox> claimed = transactionTemplate.execute(status -> {
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(limit);
+            LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+            for (EmailOutbox entry : due) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    private void sendBatch(List<EmailOutbox> batch) {
+        Map<MimeMessage, EmailOutbox> byMessage = new IdentityHashMap<>();
+        List<EmailOutbox> failed = new ArrayList<>();
+        Map<EmailOutbox, String> errors = new IdentityHashMap<>();
+
+        for (EmailOutbox entry : batch) {
+            try {
+                byMessage.put(toMimeMessage(entry), entry);
+            } catch (MessagingException | RuntimeException e) {
+                failed.add(entry);
+                errors.put(entry, e.getMessage());
+            }
+        }
+
+        List<EmailOutbox> sent = new ArrayList<>(byMessage.values());
+        if (!byMessage.isEmpty()) {
+            try {
+                // Một lời gọi send = một kết nối SMTP cho cả batch
+                mailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                Map<Object, Exception> failedMessages = e.getFailedMessages();
+                if (failedMessages.isEmpty()) {
+                    markAllFailed(byMessage.values(), e, sent, failed, errors);
+                } else {
+                    failedMessages.forEach((message, cause) -> {
+                        EmailOutbox entry = byMessage.get(message);
+                        if (entry != null) {
+                            sent.remove(entry);
+                            failed.add(entry);
+                            errors.put(entry, cause.getMessage());
+                        }
+                    });
+                }
+            } catch (MailException e) {
+                markAllFailed(byMessage.values(), e, sent, failed, errors);
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            outboxRepository.deleteByIdIn(sent.stream().map(EmailOutbox::getId).toList());
+            LocalDateTime now = LocalDateTime.now();
+            for (EmailOutbox entry : sent) {
+                lagTimer.record(Duration.between(entry.getCreatedAt(), now));
+            }
+            sentCounter.increment(sent.size());
+        }
+        for (EmailOutbox entry : failed) {
+            scheduleRetry(entry, errors.get(entry));
+        }
+    }
+
+    private void markAllFailed(Iterable<EmailOutbox> entries, Exception e, List<EmailOutbox> sent,
+                               List<EmailOutbox> failed, Map<EmailOutbox, String> errors) {
+        for (EmailOutbox entry : entries) {
+            failed.add(entry);
+            errors.put(entry, e.getMessage());
+        }
+        sent.clear();
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox entry) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setTo(entry.getRecipient());
+        helper.setSubject(entry.getSubject());
+        helper.setText(entry.getTemplate() != null ? renderTemplate(entry) : payloadCipher.decrypt(entry.getBody()), true);
+        return message;
+    }
+
+    private String renderTemplate(EmailOutbox entry) {
+        try {
+            Map<String, String> params = objectMapper.readValue(payloadCipher.decrypt(entry.getParams()), PARAMS_TYPE);
+            return templateEngine.render(entry.getTemplate(), Locale.forLanguageTag(entry.getLocale()), params).html();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid email template parameters: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private void scheduleRetry(EmailOutbox entry, String error) {
+        failedCounter.increment();
+        String message = truncate(error);
+        if (entry.getAttempts() >= maxAttempts) {
+            outboxRepository.deleteByIdIn(List.of(entry.getId()));
+            droppedCounter.increment();
+            log.error("Dropping email '{}' to {} after {} attempts: {}",
+                    entry.getSubject(), entry.getRecipient(), entry.getAttempts(), message);
+            return;
+        }
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(entry.getAttempts() - 1, 20));
+        outboxRepository.scheduleRetry(entry.getId(), LocalDateTime.now().plusSeconds(backoff), message);
+        log.warn("Email '{}' to {} failed (attempt {}), retrying in {}s: {}",
+                entry.getSubject(), entry.getRecipient(), entry.getAttempts(), backoff, message);
+    }
+
+    private String truncate(String error) {
+        if (error == null) return null;
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+}
@@ -0,0 +1,211 @@
+package org.example.learniversebe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.enums.EmailTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Render email từ các template HTML trong templates/email, được biên dịch một lần khi khởi động.
+ * - {@code #{key}}: chuỗi đa ngôn ngữ lấy từ messages_{locale}.properties, thay sẵn lúc biên dịch
+ *   nên mỗi cặp (template, locale) chỉ còn các đoạn HTML tĩnh xen kẽ tham số.
+ * - {@code ${name}}: tham số truyền vào lúc render, được escape HTML.
+ * Render chỉ nối các đoạn vào một StringBuilder cấp phát đúng cỡ, không parse lại template.
+ */
+@Slf4j
+@Service
+public class EmailTemplateEngine {
+
+    private static final String TEMPLATE_LOCATION = "classpath:templates/email/";
+
+    /** Kích thước ước lượng cho mỗi tham số khi cấp phát buffer */
+    private static final int PARAM_SIZE_HINT = 64;
+
+    public record RenderedEmail(String subject, String html) {}
+
+    private final Map<String, Map<EmailTemplate, CompiledTemplate>> templatesByLanguage = new HashMap<>();
+    private final Locale defaultLocale;
+
+    public EmailTemplateEngine(ResourceLoader resourceLoader,
+                               @Value("${app.mail.template.locales:en,vi}") List<String> locales,
+                               @Value("${app.mail.template.default-locale:en}") String defaultLocale) {
+        this.defaultLocale = Locale.forLanguageTag(defaultLocale.trim());
+
+        Map<EmailTemplate, String> sources = new EnumMap<>(EmailTemplate.class);
+        for (EmailTemplate template : EmailTemplate.values()) {
+            sources.put(template, read(resourceLoader, template.getTemplateName() + ".html"));
+        }
+
+        for (String tag : locales) {
+            String language = Locale.forLanguageTag(tag.trim()).getLanguage();
+            Properties messages = loadMessages(resourceLoader, "messages_" + language + ".properties");
+            Map<EmailTemplate, CompiledTemplate> compiled = new EnumMap<>(EmailTemplate.class);
+            sources.forEach((template, source) -> compiled.put(template, compile(template, source, messages)));
+            templatesByLanguage.put(language, compiled);
+        }
+
+        if (!templatesByLanguage.containsKey(this.defaultLocale.getLanguage())) {
+            throw new IllegalStateException("Default email locale is not in app.mail.template.locales: " + defaultLocale);
+        }
+        log.info("Compiled {} email templates for locales {}", sources.size(), templatesByLanguage.keySet());
+    }
+
+    /**
+     * Chọn locale được hỗ trợ gần nhất (theo ngôn ngữ), mặc định nếu không có.
+     */
+    public Locale resolveLocale(Locale requested) {
+        if (requested != null && templatesByLanguage.containsKey(requested.getLanguage())) {
+            return Locale.forLanguageTag(requested.getLanguage());
+        }
+        return defaultLocale;
+    }
+
+    public String subject(EmailTemplate template, Locale locale) {
+        return get(template, locale).subject;
+    }
+
+    /**
+     * Kiểm tra đủ tham số ngay lúc đưa vào hàng đợi, để lỗi lập trình không bị dời tới lúc gửi.
+     */
+    public void validateParams(EmailTemplate template, Map<String, String> params) {
+        for (String name : get(template, defaultLocale).paramNames) {
+            if (params == null || params.get(name) == null) {
+                throw new IllegalArgumentException("Missing parameter '" + name + "' for email template " + template);
+            }
+        }
+    }
+
+    public RenderedEmail render(EmailTemplate template, Locale locale, Map<String, String> params) {
+        CompiledTemplate compiled = get(template, locale);
+        String[] literals = compiled.literals;
+        String[] paramNames = compiled.paramNames;
+
+        StringBuilder html = new StringBuilder(compiled.staticLength + paramNames.length * PARAM_SIZE_HINT);
+        html.append(literals[0]);
+        for (int i = 0; i < paramNames.length; i++) {
+            String value = params.get(paramNames[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing parameter '" + paramNames[i] + "' for email template " + template);
+            }
+            appendEscaped(html, value);
+            html.append(literals[i + 1]);
+        }
+        return new RenderedEmail(compiled.subject, html.toString());
+    }
+
+    private CompiledTemplate get(EmailTemplate template, Locale locale) {
+        Map<EmailTemplate, CompiledTemplate> compiled = templatesByLanguage.get(resolveLocale(locale).getLanguage());
+        return compiled.get(template);
+    }
+
+    /**
+     * Tách template thành các đoạn tĩnh và tên tham số; {@code #{key}} được thay bằng message ngay tại đây.
+     */
+    private static CompiledTemplate compile(EmailTemplate template, String source, Properties messages) {
+        List<String> literals = new ArrayList<>();
+        List<String> paramNames = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(source.length());
+
+        int pos = 0;
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if ((c == '#' || c == '$') && pos + 1 < source.length() && source.charAt(pos + 1) == '{') {
+                int end = source.indexOf('}', pos + 2);
+                if (end < 0) {
+                    throw new IllegalStateException("Unclosed placeholder in email template " + template + " at " + pos);
+                }
+                String name = source.substring(pos + 2, end).trim();
+                if (c == '#') {
+                    literal.append(message(messages, name, template));
+                } else {
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    paramNames.add(name);
+                }
+                pos = end + 1;
+            } else {
+                literal.append(c);
+                pos++;
+            }
+        }
+        literals.add(literal.toString());
+
+        int staticLength = 0;
+        for (String part : literals) {
+            staticLength += part.length();
+        }
+        String subject = message(messages, template.getTemplateName() + ".subject", template);
+        return new CompiledTemplate(subject, literals.toArray(new String[0]), paramNames.toArray(new String[0]), staticLength);
+    }
+
+    private static String message(Properties messages, String key, EmailTemplate template) {
+        String value = messages.getProperty(key);
+        if (value == null) {
+            throw new IllegalStateException("Missing message '" + key + "' used by email template " + template);
+        }
+        return value;
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String read(ResourceLoader resourceLoader, String name) {
+        Resource resource = resourceLoader.getResource(TEMPLATE_LOCATION + name);
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read email template: " + name, e);
+        }
+    }
+
+    private static Properties loadMessages(ResourceLoader resourceLoader, String name) {
+        Resource resource = resourceLoader.getResource(TEMPLATE_LOCATION + name);
+        Properties messages = new Properties();
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            messages.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read email messages: " + name, e);
+        }
+        return messages;
+    }
+
+    private static final class CompiledTemplate {
+        final String subject;
+        final String[] literals;
+        final String[] paramNames;
+        final int staticLength;
+
+        CompiledTemplate(String subject, String[] literals, String[] paramNames, int staticLength) {
+            this.subject = subject;
+            this.literals = literals;
+            this.paramNames = paramNames;
+            this.staticLength = staticLength;
+        }
+    }
+}
@@ -7,4 +7,6 @@ public interface ICleanupService {
     void cleanupExpiredRefreshTokens();
 
     void cleanupExpiredPasswordResetTokens();
+
+    void cleanupOldReadNotifications();
 }
@@ -8,6 +8,8 @@ import org.example.learniversebe.enums.ReactableType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -44,6 +46,54 @@ public interface ICommentService {
      */
     PageResponse<CommentResponse> getCommentsFor(ReactableType commentableType, UUID commentableId, Pageable pageable);
 
+    /**
+     * Retrieves comments for an entity using keyset pagination on (createdAt, id).
+     * Default mode returns comments newest first, older than the cursor.
+     * In {@code since} mode returns only comments created after the cursor, oldest first; the response
+     * always carries the cursor of the last returned comment so a client can poll for new comments cheaply.
+     * Without a cursor, {@code since} mode returns the first (newest first) page with the cursor of the newest
+     * comment, so the next poll only returns comments posted afterwards.
+     *
+     * @param commentableType The type of the entity being commented on (CONTENT, ANSWER).
+     * @param commentableId   The UUID of the entity.
+     * @param cursor          createdAt of the last comment seen (null for the first page).
+     * @param cursorId        ID of the last comment seen, used to break ties on createdAt.
+     * @param limit           Page size (capped).
+     * @param since           Whether to fetch comments newer than the cursor instead of older.
+     * @return A cursor PageResponse of CommentResponse DTOs with the viewer's reactions.
+     */
+    org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> getCommentsByCursor(
+            ReactableType commentableType, UUID commentableId, LocalDateTime cursor, UUID cursorId, int limit, boolean since);
+
+    /**
+     * Retrieves replies of a comment, oldest first, using keyset pagination on (createdAt, id).
+     * The cursor of the last reply is always returned, so the same call also polls for new replies.
+     *
+     * @param parentId The UUID of the parent comment.
+     * @param cursor   createdAt of the last reply seen (null for the first page).
+     * @param cursorId ID of the last reply seen.
+     * @param limit    Page size (capped).
+     * @return A cursor PageResponse of CommentResponse DTOs with the viewer's reactions.
+     * @throws org.example.learniversebe.exception.ResourceNotFoundException if the parent comment is not found.
+     */
+    org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> getRepliesByCursor(
+            UUID parentId, LocalDateTime cursor, UUID cursorId, int limit);
+
+    /**
+     * Retrieves a page of top-level comments for an entity with the first replies of each one embedded
+     * (in {@code replies}, oldest first). Uses a fixed number of queries regardless of page size:
+     * the page, a ROW_NUMBER() window query for the reply IDs, the replies themselves
+     * and a single batched lookup of the current user's reactions.
+     *
+     * @param commentableType   The type of the entity being commented on (CONTENT, ANSWER).
+     * @param commentableId     The UUID of the entity.
+     * @param pageable          Pagination information for the top-level comments (sorting is fixed by creation date).
+     * @param repliesPerComment How many replies to embed under each top-level comment.
+     * @return A PageResponse of top-level comments; {@code replyCount} tells the client whether more replies exist.
+     */
+    PageResponse<CommentResponse> getCommentThreadsFor(ReactableType commentableType, UUID commentableId,
+                                                       Pageable pageable, int repliesPerComment);
+
     /**
      * Retrieves a paginated list of replies for a specific parent comment.
      * Sorted typically by creation date ascending.
@@ -56,6 +106,18 @@ public interface ICommentService {
      */
     PageResponse<CommentResponse> getRepliesForComment(UUID parentId, Pageable pageable);
 
+    /**
+     * Retrieves a comment together with all of its nested replies in a single query,
+     * ordered depth-first (each reply directly after its parent, siblings by creation date).
+     * Each item carries its depth so the client can indent without further requests.
+     * Includes user-specific reaction status.
+     *
+     * @param commentId The UUID of the comment at the top of the thread.
+     * @return Flat list of CommentResponse DTOs in thread order, capped at app.comment.thread.max-size.
+     * @throws org.example.learniversebe.exception.ResourceNotFoundException if the comment is not found.
+     */
+    List<CommentResponse> getThread(UUID commentId);
+
     /**
      * Retrieves a single comment by its ID.
      * Includes user-specific reaction status.
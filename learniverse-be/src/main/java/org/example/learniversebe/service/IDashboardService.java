@@ -9,6 +9,7 @@ import org.example.learniversebe.enums.ContentStatus;
 import org.example.learniversebe.enums.DashboardPeriod;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -46,7 +47,20 @@ public interface IDashboardService {
      * @return PageResponse of NewUserResponse
      */
     PageResponse<NewUserResponse> getNewestUsers(int page);
-    int broadcastNotification(BroadcastNotificationRequest request);
+
+    /**
+     * Start a background job that sends a notification to all active users
+     * @param request the broadcast request
+     * @return initial job state, including the job id used to poll progress
+     */
+    BroadcastJobResponse broadcastNotification(BroadcastNotificationRequest request);
+
+    /**
+     * Get progress of a broadcast job
+     * @param jobId the job ID returned by broadcastNotification
+     * @return current job state
+     */
+    BroadcastJobResponse getBroadcastProgress(UUID jobId);
 
     /**
      * Get all users with pagination and search functionality
@@ -81,6 +95,16 @@ public interface IDashboardService {
      */
     PageResponse<NotificationResponse> getAllNotifications(int page, int size);
 
+    /**
+     * Get all notifications using keyset pagination on (createdAt, id)
+     * @param cursor createdAt of the last item of the previous page, null for the first page
+     * @param cursorId id of the last item of the previous page
+     * @param limit page size
+     * @return cursor page of NotificationResponse
+     */
+    org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse> getAllNotificationsByCursor(
+            LocalDateTime cursor, UUID cursorId, int limit);
+
     /**
      * Send notification to specific users or broadcast to all users
      * @param request the notification request containing content and optional recipient IDs
@@ -1,8 +1,24 @@
 package org.example.learniversebe.service;
 
 import jakarta.mail.MessagingException;
+import org.example.learniversebe.enums.EmailTemplate;
+
+import java.util.Locale;
+import java.util.Map;
 
 public interface IEmailService {
 
     void sendEmail(String to, String subject, String body) throws MessagingException;
+
+    /**
+     * Đưa email vào hàng đợi gửi (email outbox) trong transaction hiện tại và trả về ngay;
+     * email được gửi nền sau khi commit, có retry khi SMTP lỗi.
+     */
+    void queueEmail(String to, String subject, String body);
+
+    /**
+     * Đưa email dùng template vào hàng đợi; HTML được render theo locale trên sender thread lúc gửi.
+     * Locale không được hỗ trợ sẽ dùng locale mặc định.
+     */
+    void queueTemplatedEmail(String to, EmailTemplate template, Locale locale, Map<String, String> params);
 }
@@ -5,6 +5,7 @@ import org.example.learniversebe.dto.request.ReactionRequest;
 import org.example.learniversebe.dto.request.VoteRequest;
 import org.example.learniversebe.dto.response.BookmarkResponse; // Assuming you create this DTO
 import org.example.learniversebe.dto.response.PageResponse;
+import org.example.learniversebe.dto.response.ReactionStateResponse;
 import org.example.learniversebe.enums.ReactableType; // Ensure correct import
 import org.example.learniversebe.enums.ReactionType; // Ensure correct import
 
@@ -39,15 +40,17 @@ public interface IInteractionService {
 
     /**
      * Adds, changes, or removes a reaction on a reactable entity (Content/Answer/Comment).
-     * Implements toggle logic: reacting again with the same type removes the reaction.
-     * Updates the reaction count on the target entity.
+     * Without {@code active} it toggles: reacting again with the same type removes the reaction.
+     * With {@code active} set it is idempotent (true ensures the reaction, false ensures none).
+     * The reaction and the reaction count on the target entity are written in a single statement.
      * Requires authenticated user context.
      *
-     * @param request DTO containing the type/ID of the entity and the reaction type.
+     * @param request DTO containing the type/ID of the entity, the reaction type and the optional desired state.
+     * @return The current user's reaction after the operation (null if none) and the entity's reaction count.
      * @throws org.example.learniversebe.exception.ResourceNotFoundException if the entity is not found.
      * @throws org.example.learniversebe.exception.BadRequestException if the entity type is not reactable or other validation fails.
      */
-    void react(ReactionRequest request);
+    ReactionStateResponse react(ReactionRequest request);
 
 
     // --- Bookmark ---
@@ -60,7 +63,7 @@ public interface IInteractionService {
      * @param request DTO containing the content ID and optional collection/notes.
      * @return DTO representing the created bookmark. // Changed void to return DTO
      * @throws org.example.learniversebe.exception.ResourceNotFoundException if the content is not found.
-     * @throws org.example.learniversebe.exception.BadRequestException if the content is already bookmarked by the user.
+     * Idempotent: bookmarking again only updates the collection/notes.
      */
     BookmarkResponse addBookmark(BookmarkRequest request); // Changed return type
 
@@ -8,7 +8,8 @@ import org.example.learniversebe.model.Comment;
 import org.example.learniversebe.model.Notification;
 import org.example.learniversebe.model.User;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -43,12 +44,12 @@ public interface INotificationService {
 
 
     /**
-     * Notifies users who were mentioned in a comment.
-     * @param mentionedUsers The set of users who were mentioned.
+     * Notifies users who were mentioned in a comment, with one lookup and one multi-row insert for the whole batch.
+     * @param mentionedUserIds The ids of the users who were mentioned.
      * @param mentioner The user who made the mention.
      * @param comment The comment containing the mention.
      */
-    void notifyMentionedUsers(Set<User> mentionedUsers, User mentioner, Comment comment);
+    void notifyMentionedUsers(Collection<UUID> mentionedUserIds, User mentioner, Comment comment);
 
     /**
      * Notifies the answer author when their answer is marked as accepted.
@@ -61,12 +62,22 @@ public interface INotificationService {
     // Add other notification methods as needed (e.g., new follower, group invite, etc.)
     Notification createNotification(UUID recipientId, UUID senderId, NotificationType type, String content, UUID relatedEntityId, String relatedEntityType);
     PageResponse<NotificationResponse> getNotifications(int page, int size);
+
+    /**
+     * Keyset pagination over the current user's notifications ordered by (createdAt, id) descending.
+     * @param cursor createdAt of the last item of the previous page, or null for the first page.
+     * @param cursorId id of the last item of the previous page (tie-breaker for equal createdAt).
+     * @param limit maximum number of items to return.
+     */
+    org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse> getNotificationsByCursor(
+            LocalDateTime cursor, UUID cursorId, int limit);
     long getUnreadNotificationCount();
     void markAllAsRead();
     NotificationResponse markAsRead(UUID notificationId);
 
     /**
      * Notifies all moderators and admins when content is auto-flagged by AI moderation.
+     * Publishes a single event to the moderation topic; the report itself is listed in the moderation feed.
      * @param reportId The ID of the auto-generated report.
      * @param contentType The type of content (COMMENT or ANSWER).
      * @param contentPreview A preview of the flagged content.
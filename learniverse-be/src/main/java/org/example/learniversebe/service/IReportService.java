@@ -10,6 +10,7 @@ import org.example.learniversebe.enums.ReportableType;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -88,6 +89,18 @@ public interface IReportService {
      */
     long countPendingReports();
 
+    /**
+     * Moderation feed dùng chung cho mọi moderator: các report PENDING mới nhất trước,
+     * phân trang keyset theo (createdAt, id). Dùng cùng topic /topic/moderation để cập nhật realtime.
+     *
+     * @param cursor   createdAt của phần tử cuối trang trước (null cho trang đầu)
+     * @param cursorId id của phần tử cuối trang trước
+     * @param limit    Số phần tử tối đa
+     * @return Trang cursor chứa danh sách ReportResponse
+     */
+    org.example.learniversebe.dto.response.pagination.PageResponse<ReportResponse> getModerationFeed(
+            LocalDateTime cursor, UUID cursorId, int limit);
+
     /**
      * Lấy danh sách reports của user hiện tại.
      *
@@ -1,8 +1,10 @@
 package org.example.learniversebe.service;
 
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.Map;
+import java.util.Optional;
 
 public interface IStorageService {
     Map<String, String> uploadFile(MultipartFile file) throws IOException;
@@ -13,4 +15,21 @@ public interface IStorageService {
      * @return true if deletion was successful
      */
     boolean deleteFile(String publicId) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * Store a derivative generated by the backend itself (e.g. an image thumbnail)
+     * @param data The encoded bytes of the derivative
+     * @param mimeType The MIME type of {@code data}
+     * @return Map with "url" and "key" of the stored derivative
+     */
+    Map<String, String> uploadDerivative(byte[] data, String mimeType) throws IOException;
+
+    /**
+     * Load a stored file so the backend can stream it to clients.
+     * Backends that serve files through their own public URL (returned by {@link #uploadFile(MultipartFile)})
+     * return empty.
+     * @param key The storage key of the file
+     * @return A readable resource for the file, or empty if the key is unknown or not served by this backend
+     */
+    Optional<Resource> loadAsResource(String key) throws IOException;
+}
@@ -3,9 +3,11 @@ package org.example.learniversebe.service;
 import org.example.learniversebe.dto.request.UserProfileRequest;
 import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.dto.response.UserProfileResponse;
+import org.example.learniversebe.dto.response.UserResponse;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface IUserProfileService {
@@ -14,4 +16,6 @@ public interface IUserProfileService {
     UserProfileResponse updateProfile(UUID userId, UserProfileRequest request, MultipartFile avatar, MultipartFile cover);
 
     PageResponse<UserProfileResponse> searchUserExcludeAdmin(Pageable pageable, String search);
+
+    List<UserResponse> autocompleteUsernames(String prefix, int limit);
 }
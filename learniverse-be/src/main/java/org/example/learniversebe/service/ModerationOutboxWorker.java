@@ -0,0 +1,227 @@
+package org.example.learniversebe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.AiModerationResponse.PredictionResult;
+import org.example.learniversebe.enums.ReportableType;
+import org.example.learniversebe.model.Answer;
+import org.example.learniversebe.model.Comment;
+import org.example.learniversebe.model.ModerationOutbox;
+import org.example.learniversebe.model.Report;
+import org.example.learniversebe.repository.ModerationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Worker của chế độ kiểm duyệt post-publish: định kỳ lấy các dòng trong moderation_outbox,
+ * phân loại theo batch qua AI service, ẩn nội dung bị gắn cờ và tạo report cho moderator.
+ * Dòng chỉ bị xóa sau khi xử lý xong nên không mất khi restart; lỗi AI thì retry với backoff.
+ * Text dài được AI client cắt đoạn; nếu service vẫn từ chối cả batch (4xx) thì phân loại lại từng dòng.
+ */
+@Slf4j
+@Service
+public class ModerationOutboxWorker {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    private final ModerationOutboxRepository outboxRepository;
+    private final AiModerationClient aiModerationClient;
+    private final ModerationPrefilter prefilter;
+    private final AutoFlagContentService autoFlagContentService;
+    private final AutoFlagReportService autoFlagReportService;
+    private final INotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter classifiedCounter;
+    private final Counter flaggedCounter;
+    private final Counter abandonedCounter;
+
+    @Value("${app.moderation.outbox.batch-size:32}")
+    private int batchSize;
+
+    @Value("${app.moderation.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.moderation.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    public ModerationOutboxWorker(ModerationOutboxRepository outboxRepository,
+                                  AiModerationClient aiModerationClient,
+                                  ModerationPrefilter prefilter,
+                                  AutoFlagContentService autoFlagContentService,
+                                  AutoFlagReportService autoFlagReportService,
+                                  INotificationService notificationService,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.aiModerationClient = aiModerationClient;
+        this.prefilter = prefilter;
+        this.autoFlagContentService = autoFlagContentService;
+        this.autoFlagReportService = autoFlagReportService;
+        this.notificationService = notificationService;
+        this.transactionTemplate = transactionTemplate;
+        this.classifiedCounter = meterRegistry.counter("moderation.outbox.classified");
+        this.flaggedCounter = meterRegistry.counter("moderation.outbox.flagged");
+        this.abandonedCounter = meterRegistry.counter("moderation.outbox.abandoned");
+    }
+
+    @Scheduled(fixedDelayString = "${app.moderation.outbox.poll-interval-ms:2000}")
+    public void processOutbox() {
+        List<ModerationOutbox> claimed = claimBatch();
+        if (claimed.isEmpty()) return;
+
+        // Trường hợp rõ ràng được prefilter quyết định luôn, chỉ gửi phần còn lại cho model
+        List<UUID> done = new ArrayList<>(claimed.size());
+        List<ModerationOutbox> forwarded = new ArrayList<>(claimed.size());
+        for (ModerationOutbox entry : claimed) {
+            switch (prefilter.evaluate(entry.getBody())) {
+                case ALLOW -> done.add(entry.getId());
+                case BLOCK -> applyVerdict(entry, true, done);
+                default -> forwarded.add(entry);
+            }
+        }
+
+        if (!forwarded.isEmpty()) {
+            Throwable error = classify(forwarded, done);
+            if (error instanceof AiModerationClient.RequestRejectedException && forwarded.size() > 1) {
+                // Service từ chối dữ liệu của batch: phân loại từng dòng để chỉ dòng lỗi bị thử lại/bỏ qua
+                log.warn("AI moderation batch rejected ({}), classifying {} entries one by one",
+                        error.getMessage(), forwarded.size());
+                for (ModerationOutbox entry : forwarded) {
+                    Throwable itemError = classify(List.of(entry), done);
+                    if (itemError != null) {
+                        scheduleRetry(List.of(entry), itemError);
+                    }
+                    if (Thread.currentThread().isInterrupted()) break;
+                }
+            } else if (error != null) {
+                scheduleRetry(forwarded, error);
+            }
+        }
+
+        if (!done.isEmpty()) {
+            outboxRepository.deleteByIdIn(done);
+            classifiedCounter.increment(done.size());
+        }
+    }
+
+    /**
+     * Gọi AI cho các dòng và áp dụng kết quả. Trả về lỗi nếu lời gọi thất bại (các dòng chưa được xử lý),
+     * null nếu thành công hoặc thread bị interrupt (lease hết hạn thì các dòng sẽ được lấy lại).
+     */
+    private Throwable classify(List<ModerationOutbox> entries, List<UUID> done) {
+        List<String> texts = entries.stream().map(ModerationOutbox::getBody).toList();
+        try {
+            List<PredictionResult> results = aiModerationClient.predictBatch(texts)
+                    .get(aiModerationClient.maxLatency().toMillis(), TimeUnit.MILLISECONDS);
+            for (int i = 0; i < entries.size(); i++) {
+                applyVerdict(entries.get(i), results.get(i).isFlagged(), done);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private void applyVerdict(ModerationOutbox entry, boolean flagged, List<UUID> done) {
+        try {
+            if (flagged) {
+                hideAndReport(entry);
+            }
+            done.add(entry.getId());
+        } catch (RuntimeException e) {
+            // Giữ lại dòng, sẽ xử lý lại khi lease hết hạn
+            log.error("Failed to apply moderation verdict for {} {}: {}",
+                    entry.getTargetType(), entry.getTargetId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Khóa các dòng đến hạn (SKIP LOCKED) và đẩy next_attempt_at ra sau một lease
+     * để instance khác không lấy lại trong lúc đang gọi AI (ngoài transaction).
+     */
+    private List<ModerationOutbox> claimBatch() {
+        List<ModerationOutbox> claimed = transactionTemplate.execute(status -> {
+            List<ModerationOutbox> due = outboxRepository.findDueForUpdate(batchSize);
+            LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+            for (ModerationOutbox entry : due) {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * Ẩn nội dung, tạo report và thông báo moderator trong cùng một transaction. Khi xử lý lại một dòng
+     * (lần trước lỗi giữa chừng), hide không làm gì với nội dung đã ẩn và report chỉ được tạo nếu còn thiếu.
+     */
+    private void hideAndReport(ModerationOutbox entry) {
+        transactionTemplate.executeWithoutResult(status -> {
+            switch (entry.getTargetType()) {
+                case COMMENT -> {
+                    Comment hidden = autoFlagContentService.hideComment(entry.getTargetId());
+                    if (hidden != null) {
+                        report(ReportableType.COMMENT, hidden.getId(), hidden.getBody());
+                    }
+                }
+                case ANSWER -> {
+                    Answer hidden = autoFlagContentService.hideAnswer(entry.getTargetId());
+                    if (hidden != null) {
+                        report(ReportableType.ANSWER, hidden.getId(), hidden.getBody());
+                    }
+                }
+                default -> log.warn("Post-publish moderation not supported for type: {}", entry.getTargetType());
+            }
+        });
+    }
+
+    private void report(ReportableType type, UUID targetId, String body) {
+        Report report = autoFlagReportService.createIfAbsent(type, targetId, body);
+        if (report != null) {
+            notificationService.notifyModeratorsOfAutoFlag(report.getId(), type.name(), body);
+            flaggedCounter.increment();
+        }
+    }
+
+    /**
+     * AI service lỗi: lên lịch thử lại với exponential backoff. Quá maxAttempts thì bỏ qua
+     * (fail-open, giống chế độ pre-publish) — nội dung vẫn hiển thị và có thể bị report thủ công.
+     */
+    private void scheduleRetry(List<ModerationOutbox> claimed, Throwable error) {
+        String message = String.valueOf(error.getMessage());
+        String lastError = message.substring(0, Math.min(500, message.length()));
+        List<UUID> abandoned = new ArrayList<>();
+        for (ModerationOutbox entry : claimed) {
+            if (entry.getAttempts() >= maxAttempts) {
+                abandoned.add(entry.getId());
+                continue;
+            }
+            long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(entry.getAttempts(), 20));
+            outboxRepository.scheduleRetry(List.of(entry.getId()),
+                    LocalDateTime.now().plusSeconds(backoffSeconds), lastError);
+        }
+        if (!abandoned.isEmpty()) {
+            outboxRepository.deleteByIdIn(abandoned);
+            abandonedCounter.increment(abandoned.size());
+            log.error("Giving up moderation of {} outbox entries after {} attempts: {}",
+                    abandoned.size(), maxAttempts, lastError);
+        } else {
+            log.warn("AI moderation batch failed, {} entries will be retried: {}", claimed.size(), lastError);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.learniversebe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.util.AhoCorasick;
+import org.example.learniversebe.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Bộ lọc từ vựng chạy trong JVM, đứng trước AI model.
+ * - BLOCK: chứa từ trong blocklist (khớp nguyên từ) → gắn cờ ngay, không gọi model.
+ * - ALLOW: text rất ngắn, hoặc chỉ gồm cụm từ trong allowlist, và không chứa URL → an toàn, không gọi model.
+ * - FORWARD: còn lại, gửi model như cũ.
+ */
+@Slf4j
+@Service
+public class ModerationPrefilter {
+
+    public enum Decision { ALLOW, BLOCK, FORWARD }
+
+    private static final Pattern URL = Pattern.compile("(https?://|www\\.)\\S+|\\b[\\w-]+\\.(com|net|org|vn|io|xyz|info)\\b");
+
+    private final AhoCorasick blocklist;
+    private final AhoCorasick allowlist;
+    private final int shortTextMaxLength;
+    private final boolean enabled;
+    private final Counter allowCounter;
+    private final Counter blockCounter;
+    private final Counter forwardCounter;
+
+    public ModerationPrefilter(ResourceLoader resourceLoader,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.moderation.prefilter.enabled:true}") boolean enabled,
+                               @Value("${app.moderation.prefilter.blocklist:}") List<String> blockedTerms,
+                               @Value("${app.moderation.prefilter.blocklist-file:}") String blocklistFile,
+                               @Value("${app.moderation.prefilter.allowlist:}") List<String> allowedPhrases,
+                               @Value("${app.moderation.prefilter.allowlist-file:}") String allowlistFile,
+                               @Value("${app.moderation.prefilter.short-text-max-length:2}") int shortTextMaxLength) {
+        this.enabled = enabled;
+        this.shortTextMaxLength = shortTextMaxLength;
+        this.blocklist = new AhoCorasick(loadTerms(resourceLoader, blockedTerms, blocklistFile));
+        this.allowlist = new AhoCorasick(loadTerms(resourceLoader, allowedPhrases, allowlistFile));
+
+        this.allowCounter = decisionCounter(meterRegistry, Decision.ALLOW);
+        this.blockCounter = decisionCounter(meterRegistry, Decision.BLOCK);
+        this.forwardCounter = decisionCounter(meterRegistry, Decision.FORWARD);
+        Gauge.builder("moderation.prefilter.skip.ratio", this, ModerationPrefilter::skipRatio)
+                .description("Fraction of moderated texts decided locally without calling the AI model")
+                .register(meterRegistry);
+    }
+
+    public Decision evaluate(String text) {
+        if (!enabled) {
+            return Decision.FORWARD;
+        }
+        Decision decision = decide(TextNormalizer.normalize(text));
+        switch (decision) {
+            case ALLOW -> allowCounter.increment();
+            case BLOCK -> blockCounter.increment();
+            case FORWARD -> forwardCounter.increment();
+        }
+        return decision;
+    }
+
+    private Decision decide(String normalized) {
+        for (AhoCorasick.Match match : blocklist.findAll(normalized)) {
+            if (isWholeWord(normalized, match)) {
+                log.debug("Prefilter blocked text on blocklist term at [{}, {})", match.start(), match.end());
+                return Decision.BLOCK;
+            }
+        }
+
+        if (URL.matcher(normalized).find()) {
+            // Link có thể là spam/lừa đảo: không bao giờ cho qua sớm
+            return Decision.FORWARD;
+        }
+        if (normalized.length() <= shortTextMaxLength) {
+            return Decision.ALLOW;
+        }
+        if (!allowlist.isEmpty() && onlyAllowedPhrases(normalized)) {
+            return Decision.ALLOW;
+        }
+        return Decision.FORWARD;
+    }
+
+    /**
+     * true nếu sau khi bỏ các cụm trong allowlist, text không còn chữ/số nào.
+     */
+    private boolean onlyAllowedPhrases(String normalized) {
+        boolean[] covered = new boolean[normalized.length()];
+        for (AhoCorasick.Match match : allowlist.findAll(normalized)) {
+            if (isWholeWord(normalized, match)) {
+                for (int i = match.start(); i < match.end(); i++) {
+                    covered[i] = true;
+                }
+            }
+        }
+        for (int i = 0; i < normalized.length(); i++) {
+            if (!covered[i] && Character.isLetterOrDigit(normalized.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Tránh khớp một phần từ, ví dụ "ngu" trong "nguyễn". */
+    private boolean isWholeWord(String text, AhoCorasick.Match match) {
+        boolean startOk = match.start() == 0 || !Character.isLetterOrDigit(text.charAt(match.start() - 1));
+        boolean endOk = match.end() == text.length() || !Character.isLetterOrDigit(text.charAt(match.end()));
+        return startOk && endOk;
+    }
+
+    private double skipRatio() {
+        double skipped = allowCounter.count() + blockCounter.count();
+        double total = skipped + forwardCounter.count();
+        return total == 0 ? 0 : skipped / total;
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, Decision decision) {
+        return Counter.builder("moderation.prefilter.decisions")
+                .tag("decision", decision.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gộp danh sách cấu hình (phân tách bằng dấu phẩy) và file (mỗi dòng một cụm, bỏ qua dòng # comment).
+     */
+    private static List<String> loadTerms(ResourceLoader resourceLoader, List<String> inline, String location) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : inline) {
+            if (!term.isBlank()) terms.add(TextNormalizer.normalize(term));
+        }
+        if (location != null && !location.isBlank()) {
+            Resource resource = resourceLoader.getResource(location);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank() && !line.startsWith("#")) terms.add(TextNormalizer.normalize(line));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read moderation term list: " + location, e);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+}
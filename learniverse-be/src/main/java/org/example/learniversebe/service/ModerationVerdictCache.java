@@ -0,0 +1,127 @@
+package org.example.learniversebe.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.AiModerationResponse.PredictionResult;
+import org.example.learniversebe.util.LruTtlCache;
+import org.example.learniversebe.util.TextNormalizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Cache kết quả kiểm duyệt theo hash SHA-256 của text đã chuẩn hóa (NFC, lowercase, gộp khoảng trắng),
+ * để các đợt spam/copy-paste không tốn thêm lượt inference.
+ * Cache bị xóa khi phiên bản model của commentscan (/model-info) thay đổi.
+ */
+@Slf4j
+@Service
+public class ModerationVerdictCache {
+
+    private final AiModerationClient aiModerationClient;
+    private final LruTtlCache<String, PredictionResult> cache;
+    private final boolean enabled;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Timer inferenceTimer;
+    private final DoubleAdder savedMillis = new DoubleAdder();
+
+    private volatile String modelVersion;
+
+    public ModerationVerdictCache(AiModerationClient aiModerationClient,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.moderation.cache.enabled:true}") boolean enabled,
+                                  @Value("${app.moderation.cache.max-size:10000}") int maxSize,
+                                  @Value("${app.moderation.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.aiModerationClient = aiModerationClient;
+        this.enabled = enabled;
+        this.cache = new LruTtlCache<>(maxSize, Duration.ofMinutes(ttlMinutes));
+        this.hitCounter = meterRegistry.counter("moderation.cache.hits");
+        this.missCounter = meterRegistry.counter("moderation.cache.misses");
+        this.inferenceTimer = Timer.builder("moderation.inference.latency")
+                .description("Latency of AI moderation calls made on cache misses")
+                .register(meterRegistry);
+        Gauge.builder("moderation.cache.hit.ratio", this, ModerationVerdictCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("moderation.cache.size", cache, LruTtlCache::size)
+                .register(meterRegistry);
+        FunctionCounter.builder("moderation.cache.saved.latency", savedMillis, DoubleAdder::sum)
+                .description("Estimated inference time avoided by cache hits")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return kết quả đã cache cho text, hoặc null nếu chưa có (miss)
+     */
+    public PredictionResult get(String text) {
+        if (!enabled) return null;
+        PredictionResult cached = cache.get(keyOf(text));
+        if (cached != null) {
+            hitCounter.increment();
+            // Ước lượng thời gian tiết kiệm bằng latency trung bình của các lần gọi model
+            savedMillis.add(inferenceTimer.mean(TimeUnit.MILLISECONDS));
+        } else {
+            missCounter.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Lưu kết quả của một lần gọi model (đã mất {@code elapsedNanos}).
+     */
+    public void put(String text, PredictionResult result, long elapsedNanos) {
+        inferenceTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (enabled && result != null) {
+            cache.put(keyOf(text), result);
+        }
+    }
+
+    /**
+     * Định kỳ kiểm tra phiên bản model; đổi model thì verdict cũ không còn đúng nên xóa cache.
+     */
+    @Scheduled(fixedDelayString = "${app.moderation.cache.version-check-ms:60000}")
+    public void checkModelVersion() {
+        if (!enabled) return;
+        aiModerationClient.fetchModelVersion().whenComplete((version, error) -> {
+            if (error != null) {
+                log.debug("Could not fetch AI model version: {}", error.getMessage());
+                return;
+            }
+            String previous = modelVersion;
+            modelVersion = version;
+            if (previous != null && !Objects.equals(previous, version)) {
+                cache.clear();
+                log.info("AI model version changed from {} to {}, verdict cache cleared", previous, version);
+            }
+        });
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private static String keyOf(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(TextNormalizer.normalize(text).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.example.learniversebe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.BroadcastJobResponse;
+import org.example.learniversebe.dto.response.NotificationResponse;
+import org.example.learniversebe.enums.NotificationType;
+import org.example.learniversebe.exception.BadRequestException;
+import org.example.learniversebe.exception.ResourceNotFoundException;
+import org.example.learniversebe.repository.NotificationRepository;
+import org.example.learniversebe.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gửi thông báo hệ thống tới toàn bộ user active dưới dạng job nền:
+ * chia user theo khoảng id (keyset), mỗi chunk là một câu INSERT ... SELECT trong transaction riêng
+ * (cùng với cập nhật bộ đếm chưa đọc của các user trong chunk),
+ * cuối cùng gửi một message duy nhất lên /topic/broadcast thay vì push cho từng user.
+ */
+@Slf4j
+@Service
+public class NotificationBroadcastService {
+
+    public static final String BROADCAST_TOPIC = "/topic/broadcast";
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationOutboxDispatcher notificationOutboxDispatcher;
+    private final TaskExecutor broadcastExecutor;
+    private final UnreadNotificationCounter unreadCounter;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, BroadcastJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.notification.broadcast.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${app.notification.broadcast.job-retention-hours:24}")
+    private long jobRetentionHours;
+
+    public NotificationBroadcastService(NotificationRepository notificationRepository,
+                                        UserRepository userRepository,
+                                        NotificationOutboxDispatcher notificationOutboxDispatcher,
+                                        @Qualifier("notificationBroadcastExecutor") TaskExecutor broadcastExecutor,
+                                        UnreadNotificationCounter unreadCounter,
+                                        TransactionTemplate transactionTemplate) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.notificationOutboxDispatcher = notificationOutboxDispatcher;
+        this.broadcastExecutor = broadcastExecutor;
+        this.unreadCounter = unreadCounter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Bắt đầu job broadcast và trả về ngay trạng thái ban đầu (kèm jobId để theo dõi tiến độ).
+     */
+    public BroadcastJobResponse startBroadcast(NotificationType type, String content,
+                                               UUID relatedEntityId, String relatedEntityType) {
+        evictFinishedJobs();
+        BroadcastJob job = new BroadcastJob(UUID.randomUUID(), userRepository.countActiveUsers());
+        jobs.put(job.id, job);
+        try {
+            broadcastExecutor.execute(() -> run(job, type, content, relatedEntityId, relatedEntityType));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            throw new BadRequestException("Too many broadcasts in progress, please try again later");
+        }
+        log.info("Broadcast job {} started for {} users", job.id, job.totalRecipients);
+        return job.toResponse();
+    }
+
+    public BroadcastJobResponse getProgress(UUID jobId) {
+        BroadcastJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Broadcast job", "id", jobId.toString());
+        }
+        return job.toResponse();
+    }
+
+    private void run(BroadcastJob job, NotificationType type, String content,
+                     UUID relatedEntityId, String relatedEntityType) {
+        LocalDateTime now = LocalDateTime.now();
+        String relatedId = relatedEntityId != null ? relatedEntityId.toString() : null;
+        try {
+            UUID afterId = MIN_UUID;
+            while (true) {
+                UUID uptoId = userRepository.findActiveUserIdAfter(afterId, chunkSize - 1).orElse(MAX_UUID);
+                UUID fromId = afterId;
+                int inserted = transactionTemplate.execute(status -> {
+                    int count = notificationRepository.insertForActiveUsersInRange(
+                            type.name(), content, relatedId, relatedEntityType, now, fromId, uptoId);
+                    unreadCounter.incrementForActiveUsersInRange(fromId, uptoId);
+                    return count;
+                });
+                job.inserted.addAndGet(inserted);
+                log.debug("Broadcast job {}: {}/{} notifications created", job.id, job.inserted.get(), job.totalRecipients);
+                if (uptoId.equals(MAX_UUID)) break;
+                afterId = uptoId;
+            }
+
+            NotificationResponse payload = NotificationResponse.builder()
+                    .content(content)
+                    .notificationType(type)
+                    .isRead(false)
+                    .relatedEntityId(relatedEntityId)
+                    .relatedEntityType(relatedEntityType)
+                    .createdAt(now)
+                    .build();
+            notificationOutboxDispatcher.enqueue(BROADCAST_TOPIC, null, payload);
+
+            job.finish("COMPLETED", null);
+            log.info("Broadcast job {} completed: {} notifications created", job.id, job.inserted.get());
+        } catch (RuntimeException e) {
+            job.finish("FAILED", e.getMessage());
+            log.error("Broadcast job {} failed after {} notifications: {}", job.id, job.inserted.get(), e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(jobRetentionHours);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static final class BroadcastJob {
+        final UUID id;
+        final long totalRecipients;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong inserted = new AtomicLong();
+        volatile String status = "RUNNING";
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+
+        BroadcastJob(UUID id, long totalRecipients) {
+            this.id = id;
+            this.totalRecipients = totalRecipients;
+        }
+
+        void finish(String status, String error) {
+            this.error = error;
+            this.finishedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        BroadcastJobResponse toResponse() {
+            return BroadcastJobResponse.builder()
+                    .jobId(id)
+                    .status(status)
+                    .totalRecipients(totalRecipients)
+                    .insertedCount(inserted.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
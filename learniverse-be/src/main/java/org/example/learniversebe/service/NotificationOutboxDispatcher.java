@@ -0,0 +1,200 @@
+package org.example.learniversebe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.model.NotificationOutbox;
+import org.example.learniversebe.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gửi message STOMP qua outbox: {@link #enqueue} ghi vào notification_outbox trong transaction của caller,
+ * sau khi commit một thread riêng lấy theo batch và gửi lên broker. Rollback thì không có message nào được gửi,
+ * và việc gửi socket không kéo dài transaction nghiệp vụ.
+ */
+@Slf4j
+@Service
+public class NotificationOutboxDispatcher {
+
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor dispatchExecutor;
+    private final AtomicBoolean drainRequested = new AtomicBoolean(false);
+    private final Timer lagTimer;
+    private final Counter dispatchedCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+
+    @Value("${app.notification.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.notification.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        SimpMessagingTemplate messagingTemplate,
+                                        ObjectMapper objectMapper,
+                                        TransactionTemplate transactionTemplate,
+                                        @Qualifier("notificationDispatchExecutor") TaskExecutor dispatchExecutor,
+                                        MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.dispatchExecutor = dispatchExecutor;
+        this.lagTimer = Timer.builder("notifications.outbox.lag")
+                .description("Time between a realtime message being enqueued and sent to the broker")
+                .register(meterRegistry);
+        this.dispatchedCounter = meterRegistry.counter("notifications.outbox.dispatched");
+        this.failedCounter = meterRegistry.counter("notifications.outbox.failed");
+        this.droppedCounter = meterRegistry.counter("notifications.outbox.dropped");
+    }
+
+    /**
+     * Ghi message vào outbox trong transaction hiện tại; message được gửi sau khi commit.
+     * @param destination STOMP destination, ví dụ /topic/notifications/{userId}
+     * @param recipientId người nhận để giữ thứ tự (null với topic chung)
+     * @param payload object sẽ được serialize thành JSON ngay bây giờ
+     */
+    public void enqueue(String destination, UUID recipientId, Object payload) {
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setDestination(destination);
+        entry.setRecipientId(recipientId);
+        try {
+            entry.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize realtime payload for " + destination, e);
+        }
+        outboxRepository.save(entry);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestDrain();
+                }
+            });
+        } else {
+            requestDrain();
+        }
+    }
+
+    /**
+     * Quét định kỳ: gửi lại message đến hạn retry và message còn sót sau khi restart.
+     */
+    @Scheduled(fixedDelayString = "${app.notification.outbox.poll-interval-ms:5000}")
+    public void pollOutbox() {
+        requestDrain();
+    }
+
+    /**
+     * Gộp nhiều yêu cầu drain liên tiếp thành một lần chạy trên dispatch thread.
+     */
+    private void requestDrain() {
+        if (!drainRequested.compareAndSet(false, true)) return;
+        try {
+            dispatchExecutor.execute(() -> {
+                drainRequested.set(false);
+                drain();
+            });
+        } catch (TaskRejectedException e) {
+            drainRequested.set(false);
+            log.warn("Notification dispatcher busy, outbox will be drained on next poll");
+        }
+    }
+
+    private void drain() {
+        try {
+            int sent;
+            do {
+                sent = dispatchBatch();
+            } while (sent >= batchSize);
+        } catch (RuntimeException e) {
+            log.error("Notification outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Gửi một batch trong một transaction ngắn (broker in-memory nên gửi nhanh).
+     * Một message lỗi sẽ chặn các message sau của cùng người nhận trong batch để giữ thứ tự.
+     * @return số message đã gửi thành công
+     */
+    private int dispatchBatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            List<NotificationOutbox> due = outboxRepository.findDueForUpdate(batchSize);
+            List<Long> done = new ArrayList<>(due.size());
+            Set<UUID> blockedRecipients = new HashSet<>();
+            LocalDateTime now = LocalDateTime.now();
+            int dispatched = 0;
+
+            for (NotificationOutbox entry : due) {
+                if (entry.getRecipientId() != null && blockedRecipients.contains(entry.getRecipientId())) {
+                    continue;
+                }
+                try {
+                    messagingTemplate.convertAndSend(entry.getDestination(), objectMapper.readTree(entry.getPayload()));
+                    done.add(entry.getId());
+                    dispatched++;
+                    lagTimer.record(Duration.between(entry.getCreatedAt(), now));
+                } catch (Exception e) {
+                    failedCounter.increment();
+                    if (entry.getRecipientId() != null) {
+                        blockedRecipients.add(entry.getRecipientId());
+                    }
+                    handleFailure(entry, e, done);
+                }
+            }
+
+            if (!done.isEmpty()) {
+                outboxRepository.deleteByIdIn(done);
+            }
+            dispatchedCounter.increment(dispatched);
+            return dispatched;
+        });
+        return sent != null ? sent : 0;
+    }
+
+    private void handleFailure(NotificationOutbox entry, Exception error, List<Long> done) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        String message = String.valueOf(error.getMessage());
+        entry.setLastError(message.substring(0, Math.min(500, message.length())));
+        if (attempts >= maxAttempts) {
+            // Bỏ message để không chặn mãi các message sau của người nhận; dữ liệu vẫn còn trong DB
+            droppedCounter.increment();
+            done.add(entry.getId());
+            log.error("Dropping realtime message {} to {} after {} attempts: {}",
+                    entry.getId(), entry.getDestination(), attempts, message);
+        } else {
+            long backoffSeconds = Math.min(MAX_BACKOFF_SECONDS, 1L << attempts);
+            entry.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoffSeconds));
+            log.warn("Failed to send realtime message {} to {}, retry in {}s: {}",
+                    entry.getId(), entry.getDestination(), backoffSeconds, message);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.learniversebe.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.dto.response.NotificationResponse;
+import org.example.learniversebe.mapper.NotificationMapper;
+import org.example.learniversebe.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gộp các lần cập nhật một thông báo gộp thành một lần push: lần cập nhật đầu tiên hẹn giờ push sau
+ * {@code push-debounce-ms}, các cập nhật tiếp theo trong khoảng đó không tạo thêm push.
+ * Khi đến giờ, trạng thái mới nhất của thông báo được đọc lại và gửi qua notification outbox.
+ */
+@Slf4j
+@Service
+public class NotificationPushDebouncer {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationMapper notificationMapper;
+    private final NotificationOutboxDispatcher notificationOutboxDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-debounce");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.notification.aggregation.push-debounce-ms:5000}")
+    private long debounceMillis;
+
+    public NotificationPushDebouncer(NotificationRepository notificationRepository,
+                                     NotificationMapper notificationMapper,
+                                     NotificationOutboxDispatcher notificationOutboxDispatcher,
+                                     TransactionTemplate transactionTemplate,
+                                     UnreadNotificationCounter unreadCounter) {
+        this.notificationRepository = notificationRepository;
+        this.notificationMapper = notificationMapper;
+        this.notificationOutboxDispatcher = notificationOutboxDispatcher;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounter = unreadCounter;
+    }
+
+    /**
+     * Hẹn push thông báo sau khi transaction hiện tại commit (nếu chưa có push nào đang chờ).
+     */
+    public void schedulePushAfterCommit(UUID notificationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(notificationId);
+                }
+            });
+        } else {
+            schedule(notificationId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void schedule(UUID notificationId) {
+        if (pending.add(notificationId)) {
+            scheduler.schedule(() -> push(notificationId), debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void push(UUID notificationId) {
+        pending.remove(notificationId);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    notificationRepository.findById(notificationId).ifPresent(notification -> {
+                        UUID recipientId = notification.getRecipient().getId();
+                        NotificationResponse response = notificationMapper.toResponse(notification);
+                        response.setUnreadCount(unreadCounter.get(recipientId));
+                        notificationOutboxDispatcher.enqueue("/topic/notifications/" + recipientId, recipientId, response);
+                    }));
+        } catch (RuntimeException e) {
+            log.error("Failed to push aggregated notification {}: {}", notificationId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.repository.UserNotificationStateRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bộ đếm thông báo chưa đọc theo user (bảng user_notification_state).
+ * Các hàm ghi phải chạy trong cùng transaction với thay đổi trên bảng notification
+ * để bộ đếm không lệch khi rollback. Dòng chưa có được khởi tạo từ COUNT thực tế.
+ */
+@Service
+public class UnreadNotificationCounter {
+
+    private final UserNotificationStateRepository stateRepository;
+
+    public UnreadNotificationCounter(UserNotificationStateRepository stateRepository) {
+        this.stateRepository = stateRepository;
+    }
+
+    /**
+     * Tăng bộ đếm sau khi đã insert một thông báo chưa đọc. Trả về số chưa đọc hiện tại.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int increment(UUID userId) {
+        if (stateRepository.incrementExisting(userId, 1) == 0) {
+            // COUNT thực tế đã gồm thông báo vừa insert trong transaction này; nếu transaction khác
+            // khởi tạo dòng trước (không thấy thông báo này) thì cộng thêm 1 thay vì bỏ qua
+            stateRepository.initializeOrAdjust(userId, 1);
+        }
+        return stateRepository.findUnreadCount(userId).orElse(0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incrementForRecipients(List<UUID> userIds) {
+        if (userIds.isEmpty()) return;
+        stateRepository.incrementExisting(userIds);
+        stateRepository.initializeMissing(userIds);
+    }
+
+    /**
+     * Như {@link #incrementForRecipients} nhưng trả về số chưa đọc hiện tại của từng user (thêm một query).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<UUID, Integer> incrementAndGet(List<UUID> userIds) {
+        Map<UUID, Integer> counts = new HashMap<>();
+        if (userIds.isEmpty()) return counts;
+        incrementForRecipients(userIds);
+        for (Object[] row : stateRepository.findUnreadCounts(userIds)) {
+            counts.put((UUID) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void incrementForActiveUsersInRange(UUID afterId, UUID uptoId) {
+        stateRepository.incrementExistingForActiveUsersInRange(afterId, uptoId);
+        stateRepository.initializeMissingForActiveUsersInRange(afterId, uptoId);
+    }
+
+    /**
+     * Giảm bộ đếm theo số thông báo vừa chuyển từ chưa đọc sang đã đọc (không xuống dưới 0).
+     * Trừ đúng số dòng đã cập nhật thay vì gán 0 để không làm mất thông báo được tạo đồng thời.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void decrement(UUID userId, int delta) {
+        if (delta <= 0) return;
+        if (stateRepository.decrement(userId, delta) == 0) {
+            stateRepository.initializeOrAdjust(userId, -delta);
+        }
+    }
+
+    /**
+     * Đọc số chưa đọc; lần đầu (chưa có dòng state) sẽ khởi tạo từ COUNT.
+     */
+    @Transactional
+    public int get(UUID userId) {
+        return stateRepository.findUnreadCount(userId).orElseGet(() -> {
+            stateRepository.initializeIfMissing(userId);
+            return stateRepository.findUnreadCount(userId).orElse(0);
+        });
+    }
+}
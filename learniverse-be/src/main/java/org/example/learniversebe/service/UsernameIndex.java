@@ -0,0 +1,141 @@
+package org.example.learniversebe.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.repository.UserRepository;
+import org.example.learniversebe.util.UsernameTrie;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Chỉ mục username của các user đang hoạt động, giữ trong bộ nhớ dưới dạng trie.
+ * Dùng cho gợi ý @mention (tiền tố) và tra username khi parse mention trong bình luận, không cần query DB.
+ * Nạp toàn bộ khi khởi động và nạp lại định kỳ; user được kích hoạt/khóa được cập nhật ngay qua
+ * {@link #add}/{@link #remove}. Chỉ mục có thể trễ tới một chu kỳ refresh, nên mọi ghi dựa trên kết quả
+ * tra cứu vẫn lọc lại user đã xóa/khóa trong câu SQL.
+ */
+@Slf4j
+@Service
+public class UsernameIndex {
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private UsernameTrie trie = new UsernameTrie();
+    /** add/remove xảy ra trong lúc rebuild đang nạp; được áp lại lên trie mới trước khi tráo. Null khi không rebuild. */
+    private List<Consumer<UsernameTrie>> pendingChanges;
+
+    public UsernameIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.mention.index.refresh-ms:600000}",
+            fixedDelayString = "${app.mention.index.refresh-ms:600000}")
+    public synchronized void rebuild() {
+        // Dựng trie mới ngoài lock rồi tráo vào, để gợi ý không bị chặn trong lúc nạp.
+        // Thay đổi đến trong lúc nạp được ghi lại, vì snapshot có thể đã đọc trước khi chúng commit.
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        UsernameTrie fresh = new UsernameTrie();
+        try {
+            for (Object[] row : userRepository.findActiveUsernames()) {
+                fresh.put((UUID) row[0], (String) row[1]);
+            }
+        } catch (RuntimeException e) {
+            clearPendingChanges();
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach(change -> change.accept(fresh));
+            pendingChanges = null;
+            trie = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Username index rebuilt with {} users", fresh.size());
+    }
+
+    public void add(UUID userId, String username) {
+        apply(t -> t.put(userId, username));
+    }
+
+    public void remove(UUID userId, String username) {
+        apply(t -> t.remove(userId, username));
+    }
+
+    private void apply(Consumer<UsernameTrie> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(trie);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearPendingChanges() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id của tối đa {@code limit} user có username bắt đầu bằng {@code prefix}, theo thứ tự chữ cái.
+     */
+    public List<UUID> autocomplete(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.startingWith(prefix, limit).stream().map(UsernameTrie.Entry::userId).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tra các username (đã parse từ @mention) sang user id; username không tồn tại bị bỏ qua.
+     * Dấu chấm cuối (hết câu, "cảm ơn @alice.") được bỏ nếu username nguyên văn không tồn tại.
+     */
+    public Set<UUID> resolve(Collection<String> usernames) {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        if (usernames.isEmpty()) {
+            return userIds;
+        }
+        lock.readLock().lock();
+        try {
+            for (String username : usernames) {
+                UsernameTrie.Entry entry = trie.find(username);
+                if (entry == null && username.endsWith(".")) {
+                    String trimmed = username.replaceAll("\\.+$", "");
+                    entry = trimmed.isEmpty() ? null : trie.find(trimmed);
+                }
+                if (entry != null) {
+                    userIds.add(entry.userId());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return userIds;
+    }
+}
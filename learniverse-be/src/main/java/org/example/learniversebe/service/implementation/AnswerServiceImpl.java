@@ -4,13 +4,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.learniversebe.dto.request.CreateAnswerRequest;
 import org.example.learniversebe.dto.request.UpdateAnswerRequest;
 import org.example.learniversebe.dto.response.AnswerResponse;
+import org.example.learniversebe.dto.response.CommentStreamEvent;
 import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.enums.AttachmentType;
+import org.example.learniversebe.enums.CommentStreamEventType;
 import org.example.learniversebe.enums.ContentType;
 import org.example.learniversebe.enums.ReactableType;
+import org.example.learniversebe.enums.ReportableType;
 import org.example.learniversebe.enums.VotableType;
 import org.example.learniversebe.service.AutoFlagContentService;
 import org.example.learniversebe.service.AutoFlagReportService;
+import org.example.learniversebe.service.CommentStreamPublisher;
 import org.example.learniversebe.exception.BadRequestException;
 import org.example.learniversebe.exception.ResourceNotFoundException;
 import org.example.learniversebe.exception.UnauthorizedException;
@@ -33,6 +37,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -50,6 +55,7 @@ public class AnswerServiceImpl implements IAnswerService {
     private final ContentModerationService moderationService;
     private final AutoFlagReportService autoFlagReportService;
     private final AutoFlagContentService autoFlagContentService;
+    private final CommentStreamPublisher commentStreamPublisher;
 
     @Value("${app.answer.edit.limit-minutes:30}")
     private long answerEditLimitMinutes;
@@ -65,7 +71,8 @@ public class AnswerServiceImpl implements IAnswerService {
                              ReactionRepository reactionRepository,
                              ContentModerationService moderationService,
                              AutoFlagReportService autoFlagReportService,
-                             AutoFlagContentService autoFlagContentService
+                             AutoFlagContentService autoFlagContentService,
+                             CommentStreamPublisher commentStreamPublisher
     ) {
         this.answerRepository = answerRepository;
         this.contentRepository = contentRepository;
@@ -79,6 +86,7 @@ public class AnswerServiceImpl implements IAnswerService {
         this.moderationService = moderationService;
         this.autoFlagReportService = autoFlagReportService;
         this.autoFlagContentService = autoFlagContentService;
+        this.commentStreamPublisher = commentStreamPublisher;
     }
 
 
@@ -86,6 +94,12 @@ public class AnswerServiceImpl implements IAnswerService {
     @Transactional
     public AnswerResponse addAnswer(CreateAnswerRequest request) {
         log.info("Adding answer to question ID: {}", request.getQuestionId());
+        // Pre-publish: gọi AI moderation bất đồng bộ, chạy song song với việc load user/question.
+        // Post-publish: lưu ngay, phân loại sau qua moderation outbox.
+        boolean postPublish = moderationService.isPostPublishMode();
+        CompletableFuture<Boolean> safetyCheck = postPublish
+                ? CompletableFuture.completedFuture(true)
+                : moderationService.isContentSafeAsync(request.getBody());
         User author = serviceHelper.getCurrentUser();
         Content question = contentRepository.findById(request.getQuestionId())
                 .orElseThrow(() -> new ResourceNotFoundException("Question not found with id: " + request.getQuestionId()));
@@ -96,7 +110,7 @@ public class AnswerServiceImpl implements IAnswerService {
         }
 
         // Check content safety using AI moderation
-        boolean isSafe = moderationService.isContentSafe(request.getBody());
+        boolean isSafe = moderationService.awaitVerdict(safetyCheck);
         if (!isSafe) {
             log.warn("Answer flagged by AI as unsafe. Author: {}", author.getId());
         }
@@ -107,27 +121,36 @@ public class AnswerServiceImpl implements IAnswerService {
         answer.setIsVisible(isSafe); // Hide if flagged
 
         // If content is flagged, save hidden answer in its own transaction,
-        // create report, notify moderators, and return error
+        // create report and notify moderators (also in its own transaction), and return error
         if (!isSafe) {
             Answer savedAnswer = autoFlagContentService.saveHiddenAnswer(answer);
-            Report report = autoFlagReportService.createForAnswer(savedAnswer);
-            notificationService.notifyModeratorsOfAutoFlag(report.getId(), "ANSWER", savedAnswer.getBody());
+            autoFlagReportService.createForAnswer(savedAnswer);
             
             // Throw exception so user gets error response, not 200 OK
             throw new BadRequestException("Câu trả lời của bạn đã bị gỡ do vi phạm tiêu chuẩn cộng đồng. Quản trị viên sẽ xem xét và khôi phục nếu đây là nhận diện sai.");
         }
 
         Answer savedAnswer = answerRepository.save(answer);
+        if (postPublish) {
+            moderationService.enqueueForReview(ReportableType.ANSWER, savedAnswer.getId(), savedAnswer.getBody());
+        }
         log.info("Answer created with ID: {} for question ID: {} by user: {}, isVisible: {}", 
             savedAnswer.getId(), question.getId(), author.getUsername(), isSafe);
 
-        question.setAnswerCount(question.getAnswerCount() + 1);
-        contentRepository.save(question);
+        contentRepository.adjustAnswerCount(question.getId(), 1);
 
         if (!question.getAuthor().getId().equals(author.getId())) {
             notificationService.notifyNewAnswer(question.getAuthor(), author, savedAnswer);
         }
 
+        // Phát cho người đang xem câu hỏi (sau commit); payload không mang vote/reaction của người xem
+        commentStreamPublisher.publishAfterCommit(question.getId(), CommentStreamEvent.builder()
+                .type(CommentStreamEventType.ANSWER_CREATED)
+                .id(savedAnswer.getId())
+                .answer(answerMapper.answerToAnswerResponse(savedAnswer))
+                .occurredAt(LocalDateTime.now())
+                .build());
+
         AnswerResponse response = answerMapper.answerToAnswerResponse(savedAnswer);
         setInteractionStatusForCurrentUser(response, author.getId());
         return response;
@@ -236,7 +259,7 @@ public class AnswerServiceImpl implements IAnswerService {
         }
 
         // Giảm answer count trên question
-        question.setAnswerCount(Math.max(0, question.getAnswerCount() - 1));
+        contentRepository.adjustAnswerCount(question.getId(), -1);
         contentRepository.save(question);
 
         // Soft delete answer (dùng @SQLDelete)
@@ -1,9 +1,9 @@
 package org.example.learniversebe.service.implementation;
 
-import jakarta.mail.MessagingException;
 import lombok.extern.slf4j.Slf4j;
 import org.example.learniversebe.dto.request.*;
 import org.example.learniversebe.dto.response.AuthResponse;
+import org.example.learniversebe.enums.EmailTemplate;
 import org.example.learniversebe.enums.UserRole;
 import org.example.learniversebe.enums.UserStatus;
 import org.example.learniversebe.exception.*;
@@ -16,8 +16,10 @@ import org.example.learniversebe.service.IAuthService;
 import org.example.learniversebe.service.IEmailService;
 import org.example.learniversebe.service.IPasswordResetTokenService;
 import org.example.learniversebe.service.IRefreshTokenService;
+import org.example.learniversebe.service.UsernameIndex;
 import org.example.learniversebe.util.SecurityUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -62,6 +64,8 @@ public class AuthServiceImpl implements IAuthService {
 
     private final IPasswordResetTokenService passwordResetTokenService;
 
+    private final UsernameIndex usernameIndex;
+
 
     public AuthServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
                            JwtUtil jwtUtil, IEmailService emailService,
@@ -70,8 +74,10 @@ public class AuthServiceImpl implements IAuthService {
                            IRefreshTokenService refreshTokenService,
                            RoleRepository roleRepository,
                            UserDetailsServiceImpl userDetailsService,
-                           IPasswordResetTokenService passwordResetTokenService) {
+                           IPasswordResetTokenService passwordResetTokenService,
+                           UsernameIndex usernameIndex) {
         this.passwordResetTokenService = passwordResetTokenService;
+        this.usernameIndex = usernameIndex;
         this.userDetailsService = userDetailsService;
         this.roleRepository = roleRepository;
         this.refreshTokenService = refreshTokenService;
@@ -207,7 +213,11 @@ public class AuthServiceImpl implements IAuthService {
 
         user.addRole(role);
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (isAdmin) {
+            usernameIndex.add(savedUser.getId(), savedUser.getUsername());
+        }
+        return savedUser;
     }
 
     private AuthCredential createCredential(User user, String password, boolean requiresVerification) {
@@ -299,6 +309,8 @@ public class AuthServiceImpl implements IAuthService {
 
         userRepository.save(userDetails);
         authCredentialRepository.save(authCredential);
+        // User đã kích hoạt mới được gợi ý khi @mention
+        usernameIndex.add(userDetails.getId(), userDetails.getUsername());
     }
 
     @Override
@@ -406,190 +418,19 @@ public class AuthServiceImpl implements IAuthService {
     }
 
     private void sendForgetPasswordEmail(String email, String token) {
-        String subject = "[Learniverse System] Password Reset Request";
-        String resetLink = frontendUrl + "/reset-password?token=" + token;// Replace with your frontend URL
-        String htmlMessage = "<!DOCTYPE html>"
-                + "<html lang=\"en\">"
-                + "<head>"
-                + "<meta charset=\"UTF-8\">"
-                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">"
-                + "<title>Learniverse System - Password Reset</title>"
-                + "</head>"
-                + "<body style=\"margin: 0; padding: 0; font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background-color: #f4f4f4;\">"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #f4f4f4; padding: 40px 0;\">"
-                + "<tr>"
-                + "<td align=\"center\">"
-                + "<table width=\"600\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #ffffff; border-radius: 8px; box-shadow: 0 2px 4px rgba(0,0,0,0.1);\">"
-                + "<!-- Header -->"
-                + "<tr>"
-                + "<td style=\"background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 40px; text-align: center; border-radius: 8px 8px 0 0;\">"
-                + "<h1 style=\"color: #ffffff; margin: 0; font-size: 28px; font-weight: 600;\">🔐 Password Reset Request</h1>"
-                + "<p style=\"color: #ffffff; margin: 10px 0 0 0; font-size: 14px; opacity: 0.9;\">Learniverse System</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Content -->"
-                + "<tr>"
-                + "<td style=\"padding: 40px 50px;\">"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 10px 0;\">Dear User,</p>"
-                + "<p style=\"color: #666666; font-size: 15px; line-height: 1.6; margin: 0 0 25px 0;\">Greetings from Learniverse!</p>"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 30px 0;\">We received a request to reset your password. Click the button below to create a new password:</p>"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\">"
-                + "<tr>"
-                + "<td align=\"center\" style=\"padding: 20px 0;\">"
-                + "<a href=\"" + resetLink + "\" style=\"display: inline-block; padding: 15px 40px; font-size: 16px; font-weight: 600; color: #ffffff; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); text-decoration: none; border-radius: 50px; box-shadow: 0 4px 15px rgba(102, 126, 234, 0.4); transition: all 0.3s;\">Reset Password</a>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "<p style=\"color: #666666; font-size: 14px; line-height: 1.6; margin: 30px 0 0 0; padding: 20px; background-color: #f8f9fa; border-left: 4px solid #ffc107; border-radius: 4px;\">⚠️ <strong>Security Notice:</strong> If you did not request a password reset, please ignore this email. Your password will remain unchanged.</p>"
-                + "<p style=\"color: #999999; font-size: 13px; line-height: 1.6; margin: 20px 0 0 0;\">This link will expire in 1 hour for security reasons.</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Footer -->"
-                + "<tr>"
-                + "<td style=\"background-color: #f8f9fa; padding: 30px; text-align: center; border-radius: 0 0 8px 8px; border-top: 1px solid #e9ecef;\">"
-                + "<p style=\"color: #6c757d; font-size: 13px; margin: 0 0 10px 0;\">© 2026 Learniverse. All rights reserved.</p>"
-                + "<p style=\"color: #adb5bd; font-size: 12px; margin: 0;\">This is an automated message, please do not reply.</p>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</body>"
-                + "</html>";
-
-        try {
-            emailService.sendEmail(email, subject, htmlMessage);
-        } catch (MessagingException e) {
-            // Handle email sending exception
-            e.printStackTrace();
-        }
+        String resetLink = frontendUrl + "/reset-password?token=" + token;
+        emailService.queueTemplatedEmail(email, EmailTemplate.PASSWORD_RESET, LocaleContextHolder.getLocale(),
+                Map.of("resetLink", resetLink));
     }
 
     private void sendVerificationEmail(String email, String code) {
-        String subject = "[Learniverse System] Email Verification Required";
-        String htmlMessage = "<!DOCTYPE html>"
-                + "<html lang=\"en\">"
-                + "<head>"
-                + "<meta charset=\"UTF-8\">"
-                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">"
-                + "<title>Learniverse System - Email Verification</title>"
-                + "</head>"
-                + "<body style=\"margin: 0; padding: 0; font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background-color: #f4f4f4;\">"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #f4f4f4; padding: 40px 0;\">"
-                + "<tr>"
-                + "<td align=\"center\">"
-                + "<table width=\"600\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #ffffff; border-radius: 8px; box-shadow: 0 2px 4px rgba(0,0,0,0.1);\">"
-                + "<!-- Header -->"
-                + "<tr>"
-                + "<td style=\"background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 40px; text-align: center; border-radius: 8px 8px 0 0;\">"
-                + "<h1 style=\"color: #ffffff; margin: 0; font-size: 28px; font-weight: 600;\">✨ Welcome to Learniverse!</h1>"
-                + "<p style=\"color: #ffffff; margin: 10px 0 0 0; font-size: 14px; opacity: 0.9;\">Your Learning Journey Begins Here</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Content -->"
-                + "<tr>"
-                + "<td style=\"padding: 40px 50px;\">"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 10px 0;\">Dear Learner,</p>"
-                + "<p style=\"color: #666666; font-size: 15px; line-height: 1.6; margin: 0 0 25px 0;\">Greetings from the Learniverse Team!</p>"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 30px 0;\">Thank you for joining our learning community. To complete your account registration and begin your educational journey, please verify your email address using the code below:</p>"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\">"
-                + "<tr>"
-                + "<td align=\"center\" style=\"padding: 30px 0;\">"
-                + "<div style=\"background: linear-gradient(135deg, #f5f7fa 0%, #c3cfe2 100%); padding: 30px; border-radius: 12px; display: inline-block; box-shadow: 0 4px 15px rgba(0,0,0,0.1);\">"
-                + "<p style=\"color: #666666; font-size: 14px; margin: 0 0 10px 0; text-transform: uppercase; letter-spacing: 2px;\">Your Verification Code</p>"
-                + "<p style=\"color: #667eea; font-size: 36px; font-weight: 700; margin: 0; letter-spacing: 8px; font-family: 'Courier New', monospace;\">" + code + "</p>"
-                + "</div>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "<p style=\"color: #666666; font-size: 14px; line-height: 1.6; margin: 20px 0 0 0; padding: 20px; background-color: #fff3cd; border-left: 4px solid #ffc107; border-radius: 4px;\">⏱️ <strong>Note:</strong> This code will expire in 15 minutes.</p>"
-                + "<p style=\"color: #999999; font-size: 13px; line-height: 1.6; margin: 20px 0 0 0;\">If you didn't create an account with us, please ignore this email.</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Footer -->"
-                + "<tr>"
-                + "<td style=\"background-color: #f8f9fa; padding: 30px; text-align: center; border-radius: 0 0 8px 8px; border-top: 1px solid #e9ecef;\">"
-                + "<p style=\"color: #6c757d; font-size: 13px; margin: 0 0 10px 0;\">© 2026 Learniverse. All rights reserved.</p>"
-                + "<p style=\"color: #adb5bd; font-size: 12px; margin: 0;\">This is an automated message, please do not reply.</p>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</body>"
-                + "</html>";
-
-        try {
-            emailService.sendEmail(email, subject, htmlMessage);
-        } catch (MessagingException e) {
-            // Handle email sending exception
-            e.printStackTrace();
-        }
+        emailService.queueTemplatedEmail(email, EmailTemplate.VERIFICATION, LocaleContextHolder.getLocale(),
+                Map.of("code", code));
     }
 
     private void sendPasswordForAdmin(String email, String password) {
-        String subject = "[Learniverse System] Administrator Account Created";
-        String htmlMessage = "<!DOCTYPE html>"
-                + "<html lang=\"en\">"
-                + "<head>"
-                + "<meta charset=\"UTF-8\">"
-                + "<meta name=\"viewport\" content=\"width=device-width, initial-scale=1.0\">"
-                + "<title>Learniverse System - Admin Account</title>"
-                + "</head>"
-                + "<body style=\"margin: 0; padding: 0; font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background-color: #f4f4f4;\">"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #f4f4f4; padding: 40px 0;\">"
-                + "<tr>"
-                + "<td align=\"center\">"
-                + "<table width=\"600\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #ffffff; border-radius: 8px; box-shadow: 0 2px 4px rgba(0,0,0,0.1);\">"
-                + "<!-- Header -->"
-                + "<tr>"
-                + "<td style=\"background: linear-gradient(135deg, #f093fb 0%, #f5576c 100%); padding: 40px; text-align: center; border-radius: 8px 8px 0 0;\">"
-                + "<h1 style=\"color: #ffffff; margin: 0; font-size: 28px; font-weight: 600;\">👑 Administrator Access Granted</h1>"
-                + "<p style=\"color: #ffffff; margin: 10px 0 0 0; font-size: 14px; opacity: 0.9;\">Learniverse System</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Content -->"
-                + "<tr>"
-                + "<td style=\"padding: 40px 50px;\">"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 10px 0;\">Dear Administrator,</p>"
-                + "<p style=\"color: #666666; font-size: 15px; line-height: 1.6; margin: 0 0 25px 0;\">Greetings from Learniverse!</p>"
-                + "<p style=\"color: #333333; font-size: 16px; line-height: 1.6; margin: 0 0 30px 0;\">Your administrator account has been successfully created with elevated privileges. Please find your secure login credentials below:</p>"
-                + "<table width=\"100%\" cellpadding=\"0\" cellspacing=\"0\" style=\"background-color: #f8f9fa; border-radius: 8px; padding: 25px; margin: 20px 0;\">"
-                + "<tr>"
-                + "<td>"
-                + "<p style=\"color: #666666; font-size: 14px; margin: 0 0 15px 0;\"><strong style=\"color: #333333;\">Email:</strong></p>"
-                + "<p style=\"color: #667eea; font-size: 16px; margin: 0 0 25px 0; font-family: 'Courier New', monospace; background-color: #ffffff; padding: 12px; border-radius: 4px; border: 1px solid #e9ecef;\">" + email + "</p>"
-                + "<p style=\"color: #666666; font-size: 14px; margin: 0 0 15px 0;\"><strong style=\"color: #333333;\">Temporary Password:</strong></p>"
-                + "<p style=\"color: #f5576c; font-size: 18px; font-weight: 600; margin: 0; font-family: 'Courier New', monospace; background-color: #ffffff; padding: 12px; border-radius: 4px; border: 1px solid #e9ecef; letter-spacing: 1px;\">" + password + "</p>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "<p style=\"color: #666666; font-size: 14px; line-height: 1.6; margin: 30px 0 0 0; padding: 20px; background-color: #fff3cd; border-left: 4px solid #ffc107; border-radius: 4px;\">⚠️ <strong>Important:</strong> Please change this password immediately after your first login for security purposes.</p>"
-                + "<p style=\"color: #666666; font-size: 14px; line-height: 1.6; margin: 20px 0 0 0; padding: 20px; background-color: #f8d7da; border-left: 4px solid #dc3545; border-radius: 4px;\">🔒 <strong>Security Notice:</strong> Never share your credentials with anyone. Keep this email secure and delete it after changing your password.</p>"
-                + "</td>"
-                + "</tr>"
-                + "<!-- Footer -->"
-                + "<tr>"
-                + "<td style=\"background-color: #f8f9fa; padding: 30px; text-align: center; border-radius: 0 0 8px 8px; border-top: 1px solid #e9ecef;\">"
-                + "<p style=\"color: #6c757d; font-size: 13px; margin: 0 0 10px 0;\">© 2026 Learniverse. All rights reserved.</p>"
-                + "<p style=\"color: #adb5bd; font-size: 12px; margin: 0;\">This is an automated message, please do not reply.</p>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</td>"
-                + "</tr>"
-                + "</table>"
-                + "</body>"
-                + "</html>";
-
-        try {
-            emailService.sendEmail(email, subject, htmlMessage);
-        } catch (MessagingException e) {
-            // Handle email sending exception
-            e.printStackTrace();
-        }
+        emailService.queueTemplatedEmail(email, EmailTemplate.ADMIN_ACCOUNT, LocaleContextHolder.getLocale(),
+                Map.of("email", email, "password", password));
     }
 
     private String generateSecurePassword() {
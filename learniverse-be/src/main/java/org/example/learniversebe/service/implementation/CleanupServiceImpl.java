@@ -6,10 +6,12 @@ import org.example.learniversebe.model.PasswordResetToken;
 import org.example.learniversebe.model.RefreshToken;
 import org.example.learniversebe.model.User;
 import org.example.learniversebe.repository.AuthCredentialRepository;
+import org.example.learniversebe.repository.NotificationRepository;
 import org.example.learniversebe.repository.PasswordResetTokenRepository;
 import org.example.learniversebe.repository.RefreshTokenRepository;
 import org.example.learniversebe.repository.UserRepository;
 import org.example.learniversebe.service.ICleanupService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -29,14 +31,27 @@ public class CleanupServiceImpl implements ICleanupService {
 
     private final PasswordResetTokenRepository passwordResetTokenRepository;
 
+    private final NotificationRepository notificationRepository;
+
+    @Value("${app.notification.retention.read-days:90}")
+    private int notificationRetentionDays;
+
+    @Value("${app.notification.retention.batch-size:1000}")
+    private int notificationRetentionBatchSize;
+
+    @Value("${app.notification.retention.max-batches:200}")
+    private int notificationRetentionMaxBatches;
+
     public CleanupServiceImpl(UserRepository userRepository,
                               AuthCredentialRepository authCredentialRepository,
                               RefreshTokenRepository refreshTokenRepository,
-                              PasswordResetTokenRepository passwordResetTokenRepository) {
+                              PasswordResetTokenRepository passwordResetTokenRepository,
+                              NotificationRepository notificationRepository) {
         this.authCredentialRepository = authCredentialRepository;
         this.userRepository = userRepository;
         this.refreshTokenRepository = refreshTokenRepository;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.notificationRepository = notificationRepository;
     }
 
     @Override
@@ -89,4 +104,29 @@ public class CleanupServiceImpl implements ICleanupService {
             log.info("Cleaned up {} expired password reset tokens.", expiredTokens.size());
         }
     }
+
+    /**
+     * Xóa thông báo đã đọc cũ hơn retention theo từng batch (mỗi batch một transaction ngắn),
+     * dừng khi hết dữ liệu hoặc đạt max-batches; phần còn lại được xử lý ở lần chạy sau.
+     */
+    @Override
+    @Scheduled(cron = "${app.notification.retention.cron:0 30 0 * * *}") // runs every day at 00:30 by default
+    public void cleanupOldReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(notificationRetentionDays);
+        long total = 0;
+
+        for (int batch = 0; batch < notificationRetentionMaxBatches; batch++) {
+            int deleted = notificationRepository.deleteReadOlderThan(cutoff, notificationRetentionBatchSize);
+            total += deleted;
+            if (deleted < notificationRetentionBatchSize) {
+                break;
+            }
+        }
+
+        if (total == 0) {
+            log.info("No read notifications older than {} days to clean up.", notificationRetentionDays);
+        } else {
+            log.info("Cleaned up {} read notifications older than {} days.", total, notificationRetentionDays);
+        }
+    }
 }
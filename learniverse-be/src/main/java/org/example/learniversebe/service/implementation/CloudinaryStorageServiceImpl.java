@@ -5,6 +5,8 @@ import com.cloudinary.utils.ObjectUtils;
 import lombok.RequiredArgsConstructor;
 import org.example.learniversebe.exception.BadRequestException;
 import org.example.learniversebe.service.IStorageService;
+import org.springframework.core.io.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -12,10 +14,12 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "cloudinary", matchIfMissing = true)
 public class CloudinaryStorageServiceImpl implements IStorageService {
 
     private final Cloudinary cloudinary;
@@ -66,6 +70,24 @@ public class CloudinaryStorageServiceImpl implements IStorageService {
         );
     }
 
+    /**
+     * Thumbnail được Cloudinary chuyển sang WebP ngay khi upload (format = webp).
+     */
+    @Override
+    public Map<String, String> uploadDerivative(byte[] data, String mimeType) throws IOException {
+        Map uploadResult = cloudinary.uploader().upload(data, ObjectUtils.asMap(
+                "resource_type", "image",
+                "folder", "learniverse/thumbnails",
+                "public_id", UUID.randomUUID().toString(),
+                "format", "webp"
+        ));
+
+        return Map.of(
+                "url", (String) uploadResult.get("secure_url"),
+                "key", (String) uploadResult.get("public_id")
+        );
+    }
+
     @Override
     public boolean deleteFile(String publicId) throws IOException {
         try {
@@ -84,6 +106,14 @@ public class CloudinaryStorageServiceImpl implements IStorageService {
         }
     }
     
+    /**
+     * File trên Cloudinary được client tải thẳng qua secure_url, backend không stream lại.
+     */
+    @Override
+    public Optional<Resource> loadAsResource(String key) {
+        return Optional.empty();
+    }
+
     /**
      * Extract file extension từ filename
      */
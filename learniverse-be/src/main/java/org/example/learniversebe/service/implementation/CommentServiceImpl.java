@@ -4,11 +4,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.learniversebe.dto.request.CreateCommentRequest;
 import org.example.learniversebe.dto.request.UpdateCommentRequest;
 import org.example.learniversebe.dto.response.CommentResponse;
+import org.example.learniversebe.dto.response.CommentStreamEvent;
 import org.example.learniversebe.dto.response.PageResponse;
+import org.example.learniversebe.enums.CommentStreamEventType;
 import org.example.learniversebe.enums.ReactableType;
-import org.example.learniversebe.enums.ReactionType;
 import org.example.learniversebe.enums.ReportReason;
 import org.example.learniversebe.enums.ReportStatus;
+import org.example.learniversebe.enums.ReportableType;
 import org.example.learniversebe.exception.BadRequestException;
 import org.example.learniversebe.exception.ResourceNotFoundException;
 import org.example.learniversebe.exception.UnauthorizedException;
@@ -17,33 +19,44 @@ import org.example.learniversebe.model.*;
 import org.example.learniversebe.repository.*;
 import org.example.learniversebe.service.AutoFlagContentService;
 import org.example.learniversebe.service.AutoFlagReportService;
+import org.example.learniversebe.service.CommentStreamPublisher;
+import org.example.learniversebe.service.CommentViewerStateLoader;
 import org.example.learniversebe.service.ContentModerationService;
 import org.example.learniversebe.service.ContentVisibilityService;
 import org.example.learniversebe.service.ICommentService;
 import org.example.learniversebe.service.INotificationService;
+import org.example.learniversebe.service.UsernameIndex;
+import org.example.learniversebe.util.MentionParser;
 import org.example.learniversebe.util.ServiceHelper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class CommentServiceImpl implements ICommentService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+
     private final CommentRepository commentRepository;
     private final ContentRepository contentRepository; // Để tìm commentable Content
     private final AnswerRepository answerRepository;   // Để tìm commentable Answer
-    private final UserRepository userRepository;       // Để tìm author và mentioned users
     private final MentionRepository mentionRepository; // Để lưu mentions
     private final CommentMapper commentMapper;
     private final ServiceHelper serviceHelper;
-    private final ReactionRepository reactionRepository;
+    private final CommentViewerStateLoader viewerStateLoader;
+    private final CommentStreamPublisher commentStreamPublisher;
+    private final UsernameIndex usernameIndex;
     private final ContentModerationService moderationService;
 //    private final IInteractionService interactionService; // Inject InteractionService
      private final INotificationService notificationService;
@@ -58,14 +71,24 @@ public class CommentServiceImpl implements ICommentService {
     @Value("${app.comment.max-depth:3}") // Giới hạn độ sâu reply
     private int maxCommentDepth;
 
+    @Value("${app.comment.thread.max-size:500}") // Số comment tối đa trả về khi tải cả thread
+    private int maxThreadSize;
+
+    @Value("${app.comment.thread.max-inline-replies:10}") // Số reply tối đa nhúng dưới mỗi comment gốc
+    private int maxInlineReplies;
+
+    @Value("${app.comment.mention.max-per-comment:20}") // Số người tối đa được nhắc (và nhận thông báo) trong một comment
+    private int maxMentionsPerComment;
+
     public CommentServiceImpl(CommentRepository commentRepository,
                               ContentRepository contentRepository,
                               AnswerRepository answerRepository,
-                              UserRepository userRepository,
                               MentionRepository mentionRepository,
                               CommentMapper commentMapper,
                               ServiceHelper serviceHelper,
-                              ReactionRepository reactionRepository,
+                              CommentViewerStateLoader viewerStateLoader,
+                              CommentStreamPublisher commentStreamPublisher,
+                              UsernameIndex usernameIndex,
                               ContentModerationService moderationService,
                               INotificationService notificationService,
                               ContentVisibilityService visibilityService, 
@@ -76,11 +99,12 @@ public class CommentServiceImpl implements ICommentService {
         this.commentRepository = commentRepository;
         this.contentRepository = contentRepository;
         this.answerRepository = answerRepository;
-        this.userRepository = userRepository;
         this.mentionRepository = mentionRepository;
         this.commentMapper = commentMapper;
         this.serviceHelper = serviceHelper;
-        this.reactionRepository = reactionRepository;
+        this.viewerStateLoader = viewerStateLoader;
+        this.commentStreamPublisher = commentStreamPublisher;
+        this.usernameIndex = usernameIndex;
         this.moderationService = moderationService;
         this.notificationService = notificationService;
         this.visibilityService = visibilityService;
@@ -93,11 +117,13 @@ public class CommentServiceImpl implements ICommentService {
     @Transactional
     public CommentResponse addComment(CreateCommentRequest request) {
         log.info("Adding comment to {} with ID: {}", request.getCommentableType(), request.getCommentableId());
+        // Pre-publish: gọi AI moderation bất đồng bộ, chạy song song với các bước validate bên dưới.
+        // Post-publish: lưu ngay, phân loại sau qua moderation outbox.
+        boolean postPublish = moderationService.isPostPublishMode();
+        CompletableFuture<Boolean> safetyCheck = postPublish
+                ? CompletableFuture.completedFuture(true)
+                : moderationService.isContentSafeAsync(request.getBody());
         User author = serviceHelper.getCurrentUser();
-        boolean isSafe = moderationService.isContentSafe(request.getBody());
-        if (!isSafe) {
-            log.warn("Comment flagged by AI as unsafe. Author: {}", author.getId());
-        }
 
         Comment parentComment = null;
         int depth;
@@ -107,8 +133,8 @@ public class CommentServiceImpl implements ICommentService {
         if (request.getParentId() != null) {
             parentComment = commentRepository.findById(request.getParentId())
                     .orElseThrow(() -> new ResourceNotFoundException("Parent comment not found with id: " + request.getParentId()));
-            // Kiểm tra độ sâu nesting
-            depth = calculateDepth(parentComment) + 1;
+            // Kiểm tra độ sâu nesting (depth lưu sẵn trên comment cha)
+            depth = parentComment.getDepth() + 1;
             if (depth > maxCommentDepth) {
                 throw new BadRequestException("Comment nesting level exceeds maximum depth of " + maxCommentDepth);
             }
@@ -119,6 +145,11 @@ public class CommentServiceImpl implements ICommentService {
             }
         }
 
+        boolean isSafe = moderationService.awaitVerdict(safetyCheck);
+        if (!isSafe) {
+            log.warn("Comment flagged by AI as unsafe. Author: {}", author.getId());
+        }
+
         // 2. Map DTO sang Entity và set thông tin
         Comment comment = commentMapper.createCommentRequestToComment(request);
         comment.setAuthor(author);
@@ -127,12 +158,10 @@ public class CommentServiceImpl implements ICommentService {
         // @PrePersist sẽ set ID và timestamps
 
         // If content is flagged, save it hidden in its own transaction,
-        // create report, notify moderators, and return error
+        // create report and notify moderators (also in its own transaction), and return error
         if (!isSafe) {
             Comment savedComment = autoFlagContentService.saveHiddenComment(comment);
-            Report report = autoFlagReportService.createForComment(savedComment);
-            // Notify moderators about the auto-flagged content
-            notificationService.notifyModeratorsOfAutoFlag(report.getId(), "COMMENT", savedComment.getBody());
+            autoFlagReportService.createForComment(savedComment);
 
             // Throw exception so user gets error response, not 200 OK
             throw new BadRequestException("Bình luận của bạn đã bị gỡ do vi phạm tiêu chuẩn cộng đồng. Quản trị viên sẽ xem xét và khôi phục nếu đây là nhận diện sai.");
@@ -140,16 +169,18 @@ public class CommentServiceImpl implements ICommentService {
 
         // 3. Lưu Comment
         Comment savedComment = commentRepository.save(comment);
+        if (postPublish) {
+            moderationService.enqueueForReview(ReportableType.COMMENT, savedComment.getId(), savedComment.getBody());
+        }
 
         // 4. Cập nhật Counts
         updateCommentableCommentCount(request.getCommentableType(), request.getCommentableId(), 1);
         if (parentComment != null) {
-            parentComment.setReplyCount(parentComment.getReplyCount() + 1);
-            commentRepository.save(parentComment);
+            commentRepository.adjustReplyCount(parentComment.getId(), 1);
         }
 
         // 5. Xử lý Mentions
-        processMentions(savedComment, author, request.getMentionedUserIds());
+        processMentions(savedComment, author, request.getMentionedUserIds(), false);
 
         // 6. Gửi Notifications
         if (parentComment != null) {
@@ -165,8 +196,11 @@ public class CommentServiceImpl implements ICommentService {
 
         // 7. Map sang Response DTO
         CommentResponse response = commentMapper.commentToCommentResponse(savedComment);
-        // Set trạng thái tương tác ban đầu
-        setInteractionStatusForCurrentUser(response, author.getId());
+        // Comment vừa tạo chưa thể có reaction nào, không cần query
+        response.setCurrentUserReaction(null);
+
+        // 8. Phát cho người đang xem bài viết (sau commit, gộp theo bài viết)
+        publishStreamEvent(savedComment, CommentStreamEventType.COMMENT_CREATED, response);
         return response;
     }
 
@@ -184,38 +218,116 @@ public class CommentServiceImpl implements ICommentService {
             return response;
         }
 
-        // 3. Xử lý Reaction (N+1 Optimization)
-        UUID currentUserId = serviceHelper.getCurrentUserId();
-
-        if (currentUserId != null) {
-            List<UUID> commentIds = commentDTOs.stream()
-                    .map(CommentResponse::getId)
-                    .toList();
-
-            // Query 1 lần lấy reaction cho toàn bộ comment trong trang này
-            List<Reaction> reactions = reactionRepository.findByUserIdAndReactableTypeAndReactableIdIn(
-                    currentUserId,
-                    ReactableType.COMMENT,
-                    commentIds
-            );
-
-            Map<UUID, ReactionType> reactionMap = reactions.stream()
-                    .collect(Collectors.toMap(
-                            Reaction::getReactableId,
-                            Reaction::getReactionType,
-                            (existing, replacement) -> existing
-                    ));
-
-            for (CommentResponse dto : commentDTOs) {
-                if (reactionMap.containsKey(dto.getId())) {
-                    dto.setCurrentUserReaction(reactionMap.get(dto.getId()));
+        // 3. Xử lý Reaction (một query cho cả trang)
+        viewerStateLoader.load(commentDTOs, serviceHelper.getCurrentUserId());
+
+        return response;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> getCommentsByCursor(
+            ReactableType type, UUID id, LocalDateTime cursor, UUID cursorId, int limit, boolean since) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Comment> rows;
+        if (cursor == null) {
+            rows = commentRepository.findFirstPageFor(type, id, pageable);
+        } else if (since) {
+            rows = commentRepository.findPageForAfter(type, id, cursor, cursorId != null ? cursorId : MAX_UUID, pageable);
+        } else {
+            rows = commentRepository.findPageForBefore(type, id, cursor, cursorId != null ? cursorId : MIN_UUID, pageable);
+        }
+
+        org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> page;
+        if (since && cursor == null) {
+            // Trang đầu sắp xếp mới trước: cursor để poll tiếp là comment mới nhất, không phải dòng cuối trang
+            page = commentMapper.toCursorPage(rows, pageSize, false, null, null);
+            if (!rows.isEmpty()) {
+                page.getPagination().setNextCursor(rows.get(0).getCreatedAt());
+                page.getPagination().setNextCursorId(rows.get(0).getId());
+                page.getPagination().setHasNext(false);
+            }
+        } else {
+            page = commentMapper.toCursorPage(rows, pageSize, since, cursor, cursorId);
+        }
+        viewerStateLoader.load(page.getData(), serviceHelper.getCurrentUserId());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> getRepliesByCursor(
+            UUID parentId, LocalDateTime cursor, UUID cursorId, int limit) {
+        if (!commentRepository.existsById(parentId)) {
+            throw new ResourceNotFoundException("Parent comment not found with id: " + parentId);
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Comment> rows = cursor == null
+                ? commentRepository.findFirstReplyPage(parentId, pageable)
+                : commentRepository.findReplyPageAfter(parentId, cursor, cursorId != null ? cursorId : MAX_UUID, pageable);
+
+        // Reply sắp xếp cũ trước nên cursor cuối trang cũng dùng để poll reply mới
+        org.example.learniversebe.dto.response.pagination.PageResponse<CommentResponse> page =
+                commentMapper.toCursorPage(rows, pageSize, true, cursor, cursorId);
+        viewerStateLoader.load(page.getData(), serviceHelper.getCurrentUserId());
+        return page;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<CommentResponse> getCommentThreadsFor(ReactableType type, UUID id, Pageable pageable,
+                                                              int repliesPerComment) {
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Comment> rootPage = commentRepository.findTopLevelWithAuthor(type, id, unsorted);
+        PageResponse<CommentResponse> response = commentMapper.commentPageToCommentPageResponse(rootPage);
+        List<CommentResponse> roots = response.getContent();
+        if (roots.isEmpty()) {
+            return response;
+        }
+
+        // Reply đầu tiên của mọi comment gốc trong trang: một query window + một query load entity
+        int perParent = Math.max(0, Math.min(repliesPerComment, maxInlineReplies));
+        Map<UUID, List<CommentResponse>> repliesByParent = new HashMap<>();
+        List<UUID> parentIds = roots.stream()
+                .filter(root -> root.getReplyCount() != null && root.getReplyCount() > 0)
+                .map(CommentResponse::getId)
+                .toList();
+        if (perParent > 0 && !parentIds.isEmpty()) {
+            List<UUID> replyIds = commentRepository.findFirstReplyIdsByParentIds(parentIds, perParent);
+            if (!replyIds.isEmpty()) {
+                for (Comment reply : commentRepository.findWithAuthorByIdIn(replyIds)) {
+                    CommentResponse dto = commentMapper.commentToCommentResponse(reply);
+                    repliesByParent.computeIfAbsent(dto.getParentId(), k -> new ArrayList<>()).add(dto);
                 }
             }
         }
+        for (CommentResponse root : roots) {
+            root.setReplies(repliesByParent.getOrDefault(root.getId(), List.of()));
+        }
 
+        // Reaction của user hiện tại cho cả comment gốc và reply lồng bên trong: một query
+        viewerStateLoader.load(roots, serviceHelper.getCurrentUserId());
         return response;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentResponse> getThread(UUID commentId) {
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Comment not found with id: " + commentId));
+
+        // Một query theo materialized path, không phải tải từng tầng reply
+        List<Comment> subtree = commentRepository.findSubtreeByPath(comment.getRootId(), comment.getPath(), maxThreadSize);
+        List<CommentResponse> thread = commentMapper.commentsToCommentResponses(subtree);
+        viewerStateLoader.load(thread, serviceHelper.getCurrentUserId());
+        return thread;
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<CommentResponse> getRepliesForComment(UUID parentId, Pageable pageable) {
@@ -225,11 +337,8 @@ public class CommentServiceImpl implements ICommentService {
         Page<Comment> replyPage = commentRepository.findByParentIdOrderByCreatedAtAsc(parentId, pageable);
         PageResponse<CommentResponse> responsePage = commentMapper.commentPageToCommentPageResponse(replyPage);
 
-        // Lấy trạng thái tương tác
-        UUID currentUserId = serviceHelper.getCurrentUserId();
-        if (currentUserId != null && responsePage != null && responsePage.getContent() != null) {
-            responsePage.getContent().forEach(commentDto -> setInteractionStatusForCurrentUser(commentDto, currentUserId));
-        }
+        // Lấy trạng thái tương tác (một query cho cả trang)
+        viewerStateLoader.load(responsePage.getContent(), serviceHelper.getCurrentUserId());
         return responsePage;
     }
 
@@ -241,10 +350,7 @@ public class CommentServiceImpl implements ICommentService {
         CommentResponse response = commentMapper.commentToCommentResponse(comment);
 
         // Lấy trạng thái tương tác
-        UUID currentUserId = serviceHelper.getCurrentUserId();
-        if (currentUserId != null) {
-            setInteractionStatusForCurrentUser(response, currentUserId);
-        }
+        viewerStateLoader.load(response, serviceHelper.getCurrentUserId());
         return response;
     }
 
@@ -274,14 +380,15 @@ public class CommentServiceImpl implements ICommentService {
         comment.setBody(request.getBody());
         // @PreUpdate sẽ set isEdited và updatedAt
 
-        // Xử lý Mentions (Xóa cũ, thêm mới)
-        mentionRepository.deleteByCommentId(commentId); // Xóa mentions cũ
-        processMentions(comment, currentUser, request.getMentionedUserIds()); // Thêm mentions mới
+        // Xử lý Mentions (xóa người không còn được nhắc, thêm và thông báo người mới)
+        processMentions(comment, currentUser, request.getMentionedUserIds(), true);
 
         Comment updatedComment = commentRepository.save(comment);
+        publishStreamEvent(updatedComment, CommentStreamEventType.COMMENT_UPDATED,
+                commentMapper.commentToCommentResponse(updatedComment));
 
         CommentResponse response = commentMapper.commentToCommentResponse(updatedComment);
-        setInteractionStatusForCurrentUser(response, currentUser.getId());
+        viewerStateLoader.load(response, currentUser.getId());
         return response;
     }
 
@@ -296,21 +403,16 @@ public class CommentServiceImpl implements ICommentService {
             throw new UnauthorizedException("User is not authorized to delete this comment");
         }
 
-        int totalDeletedCount = 1;
-
-        totalDeletedCount += deleteRepliesRecursively(comment);
+        // Xóa mềm comment, toàn bộ replies, mention và reaction trong một câu lệnh
+        int totalDeletedCount = commentRepository.softDeleteSubtree(commentId);
 
         updateCommentableCommentCount(comment.getCommentableType(), comment.getCommentableId(), -totalDeletedCount);
 
         if (comment.getParent() != null) {
-            Comment parent = comment.getParent();
-            parent.setReplyCount(Math.max(0, parent.getReplyCount() - 1));
-            commentRepository.save(parent);
+            commentRepository.adjustReplyCount(comment.getParent().getId(), -1);
         }
 
-        commentRepository.delete(comment);
-        mentionRepository.softDeleteByCommentId(commentId);
-        reactionRepository.softDeleteByReactable(ReactableType.COMMENT, commentId);
+        publishStreamEvent(comment, CommentStreamEventType.COMMENT_DELETED, null);
     }
 
     // --- Helper Methods ---
@@ -340,102 +442,70 @@ public class CommentServiceImpl implements ICommentService {
     /** Cập nhật comment count trên Content hoặc Answer */
     private void updateCommentableCommentCount(ReactableType type, UUID id, int delta) {
         switch (type) {
-            case CONTENT -> contentRepository.findById(id).ifPresent(c -> {
-                c.setCommentCount(Math.max(0, c.getCommentCount() + delta));
-                contentRepository.save(c);
-            });
+            case CONTENT -> contentRepository.adjustCommentCount(id, delta);
             case ANSWER, COMMENT -> {
                 // No-op for now (Answer/Comment doesn't store commentCount)
             }
         }
     }
 
-    /** Xử lý tạo Mention entities */
-    private void processMentions(Comment comment, User mentioner, Set<UUID> mentionedUserIds) {
-        if (mentionedUserIds == null || mentionedUserIds.isEmpty()) {
-            return;
+    /**
+     * Xử lý mention: gộp id client gửi với mention parse từ nội dung ({@code @[name](id)} và {@code @username}
+     * tra trong UsernameIndex), tạo toàn bộ Mention bằng một câu INSERT nhiều dòng rồi gửi thông báo theo lô
+     * cho đúng những người vừa được thêm. Khi sửa comment, người đã được nhắc trước đó không bị thông báo lại.
+     */
+    private void processMentions(Comment comment, User mentioner, Set<UUID> mentionedUserIds, boolean replaceExisting) {
+        MentionParser.Mentions parsed = MentionParser.parse(comment.getBody());
+        Set<UUID> userIds = new LinkedHashSet<>();
+        if (mentionedUserIds != null) {
+            userIds.addAll(mentionedUserIds);
         }
-
-        List<User> mentionedUsers = userRepository.findAllById(mentionedUserIds);
-        if (mentionedUsers.isEmpty()) {
-            return;
+        userIds.addAll(parsed.userIds());
+        userIds.addAll(usernameIndex.resolve(parsed.usernames()));
+        userIds.remove(mentioner.getId());
+        if (userIds.size() > maxMentionsPerComment) {
+            userIds = userIds.stream().limit(maxMentionsPerComment).collect(Collectors.toCollection(LinkedHashSet::new));
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        List<Mention> mentions = new ArrayList<>();
-        Set<User> notifyUsers = new HashSet<>();
-
-        for (User mentionedUser : mentionedUsers) {
-            if (mentionedUser.getId().equals(mentioner.getId())) continue;
-
-            Mention mention = new Mention();
-            mention.setComment(comment);
-            mention.setMentionedUser(mentionedUser);
-            mention.setMentionedBy(mentioner);
-            mention.setCreatedAt(now);
-            mention.setUpdatedAt(now);
-            mentions.add(mention);
-            notifyUsers.add(mentionedUser);
-        }
-
-        if (!mentions.isEmpty()) {
-            mentionRepository.saveAll(mentions);
-            notificationService.notifyMentionedUsers(notifyUsers, mentioner, comment);
+        if (replaceExisting) {
+            if (userIds.isEmpty()) {
+                mentionRepository.deleteByCommentId(comment.getId());
+            } else {
+                mentionRepository.deleteByCommentIdExcept(comment.getId(), userIds);
+            }
         }
-    }
-
-    /** Tính độ sâu của comment */
-    private int calculateDepth(Comment comment) {
-        int depth = 0;
-        Comment current = comment;
-        while (current.getParent() != null && depth <= maxCommentDepth + 1) { // +1 để phát hiện vượt quá
-            current = current.getParent();
-            depth++;
+        if (userIds.isEmpty()) {
+            return;
         }
-        return depth;
-    }
-
-    /** * Xóa mềm các replies (đệ quy) và TRẢ VỀ số lượng đã xóa
-     */
-    private int deleteRepliesRecursively(Comment parentComment) {
-        int deletedCount = 0;
-        List<Comment> replies = commentRepository.findByParentId(parentComment.getId());
-
-        for (Comment reply : replies) {
-            if (reply.getDeletedAt() == null) {
-                // Đệ quy trước để xóa các cháu
-                deletedCount += deleteRepliesRecursively(reply);
 
-                // Xóa reply hiện tại
-                commentRepository.delete(reply);
-
-                // Xóa mention/reaction của reply
-                mentionRepository.softDeleteByCommentId(reply.getId());
-                reactionRepository.softDeleteByReactable(ReactableType.COMMENT, reply.getId());
-
-                // Tăng biến đếm (cho reply này)
-                deletedCount++;
-            }
+        List<UUID> added = mentionRepository.insertForUsers(comment.getId(), mentioner.getId(), userIds, LocalDateTime.now());
+        if (!added.isEmpty()) {
+            notificationService.notifyMentionedUsers(added, mentioner, comment);
         }
-        return deletedCount;
     }
 
-    /** * Set trạng thái tương tác của user hiện tại cho comment DTO
+    /**
+     * Gửi sự kiện lên luồng comment của bài viết chứa comment (comment trên answer thuộc về question).
+     * Payload không mang trạng thái riêng của người xem.
      */
-    private void setInteractionStatusForCurrentUser(CommentResponse commentDto, UUID currentUserId) {
-        if (currentUserId == null) {
-            commentDto.setCurrentUserReaction(null);
-            return;
+    private void publishStreamEvent(Comment comment, CommentStreamEventType type, CommentResponse payload) {
+        UUID contentId = switch (comment.getCommentableType()) {
+            case CONTENT -> comment.getCommentableId();
+            case ANSWER -> answerRepository.findById(comment.getCommentableId())
+                    .map(answer -> answer.getQuestion().getId())
+                    .orElse(null);
+            case COMMENT -> null;
+        };
+        if (payload != null) {
+            payload.setCurrentUserReaction(null);
         }
-
-        // Query ReactionRepository để tìm reaction của user cho COMMENT này
-        Optional<Reaction> reaction = reactionRepository.findByUserIdAndReactableTypeAndReactableId(
-                currentUserId,
-                ReactableType.COMMENT,
-                commentDto.getId()
-        );
-
-        commentDto.setCurrentUserReaction(reaction.map(Reaction::getReactionType).orElse(null));
+        commentStreamPublisher.publishAfterCommit(contentId, CommentStreamEvent.builder()
+                .type(type)
+                .id(comment.getId())
+                .parentId(comment.getParent() != null ? comment.getParent().getId() : null)
+                .comment(payload)
+                .occurredAt(LocalDateTime.now())
+                .build());
     }
 
     /**
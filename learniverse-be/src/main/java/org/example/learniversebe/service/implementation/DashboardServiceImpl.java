@@ -31,6 +31,8 @@ import org.example.learniversebe.repository.TagRepository;
 import org.example.learniversebe.repository.UserRepository;
 import org.example.learniversebe.service.IDashboardService;
 import org.example.learniversebe.service.INotificationService;
+import org.example.learniversebe.service.NotificationBroadcastService;
+import org.example.learniversebe.service.UnreadNotificationCounter;
 import org.example.learniversebe.service.IPostService;
 import org.example.learniversebe.service.IQuestionService;
 import org.springframework.data.domain.Page;
@@ -61,9 +63,13 @@ public class DashboardServiceImpl implements IDashboardService {
     private final ContentMapper contentMapper;
 
     private final INotificationService notificationService;
+    private final NotificationBroadcastService notificationBroadcastService;
+    private final UnreadNotificationCounter unreadNotificationCounter;
     private final IPostService postService;
     private final IQuestionService questionService;
     private static final int PAGE_SIZE = 20;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
 
     @Override
     public DashboardStatsResponse getStats() {
@@ -308,70 +314,62 @@ public class DashboardServiceImpl implements IDashboardService {
                 .build();
     }
 
+    @Override
+    @Transactional
+    public org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse> getAllNotificationsByCursor(
+            LocalDateTime cursor, UUID cursorId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> rows = cursor == null
+                ? notificationRepository.findFirstPage(pageable)
+                : notificationRepository.findPageBefore(cursor, cursorId != null ? cursorId : MIN_UUID, pageable);
+        return notificationMapper.toCursorPage(rows, pageSize);
+    }
+
     @Override
     @Transactional
     public int sendNotification(SendNotificationRequest request) {
         log.info("Sending notification: {}", request);
 
-        List<User> recipients;
-        NotificationType notificationType;
-
         if (request.getRecipientIds() == null || request.getRecipientIds().isEmpty()) {
-            // Broadcast to all users
-            recipients = userRepository.findAll();
-            notificationType = NotificationType.BROADCAST;
-            log.info("Broadcasting notification to all {} users", recipients.size());
-        } else {
-            // Send to specific users
-            recipients = userRepository.findAllById(request.getRecipientIds());
-            notificationType = NotificationType.SYSTEM;
-            log.info("Sending notification to {} specific users", recipients.size());
+            // Broadcast to all users (background job)
+            BroadcastJobResponse job = notificationBroadcastService.startBroadcast(
+                    NotificationType.BROADCAST,
+                    request.getContent(),
+                    request.getRelatedEntityId(),
+                    request.getRelatedEntityType());
+            return (int) job.getTotalRecipients();
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        int sentCount = 0;
-
-        for (User recipient : recipients) {
-            Notification notification = new Notification();
-            notification.setId(UUID.randomUUID());
-            notification.setRecipient(recipient);
-            notification.setSender(null); // System notification, no sender
-            notification.setNotificationType(notificationType);
-            notification.setContent(request.getContent());
-            notification.setRelatedEntityId(request.getRelatedEntityId());
-            notification.setRelatedEntityType(request.getRelatedEntityType());
-            notification.setIsRead(false);
-            notification.setCreatedAt(now);
-            notification.setUpdatedAt(now);
-
-            notificationRepository.save(notification);
-            sentCount++;
-        }
+        // Send to specific users: một câu INSERT ... SELECT
+        List<UUID> insertedRecipients = notificationRepository.insertForRecipients(
+                NotificationType.SYSTEM.name(),
+                request.getContent(),
+                request.getRelatedEntityId() != null ? request.getRelatedEntityId().toString() : null,
+                request.getRelatedEntityType(),
+                LocalDateTime.now(),
+                request.getRecipientIds());
+        // Chỉ tăng bộ đếm cho người nhận thực sự được tạo thông báo (user đã xóa bị bỏ qua)
+        unreadNotificationCounter.incrementForRecipients(insertedRecipients);
+        int sentCount = insertedRecipients.size();
 
         log.info("Successfully sent {} notifications", sentCount);
         return sentCount;
     }
-    @Override
-    @Transactional
-    public int broadcastNotification(BroadcastNotificationRequest request) {
-        // Lấy tất cả users đang active
-        List<User> allUsers = userRepository.findAll().stream()
-                .filter(User::isEnabled)
-                .toList();
 
-        // Gửi thông báo cho từng user
-        for (User user : allUsers) {
-            notificationService.createNotification(
-                    user.getId(),
-                    null,
-                    request.getNotificationType(),
-                    request.getContent(),
-                    request.getRelatedEntityId(),
-                    request.getRelatedEntityType()
-            );
-        }
+    @Override
+    public BroadcastJobResponse broadcastNotification(BroadcastNotificationRequest request) {
+        return notificationBroadcastService.startBroadcast(
+                request.getNotificationType(),
+                request.getContent(),
+                request.getRelatedEntityId(),
+                request.getRelatedEntityType());
+    }
 
-        return allUsers.size();
+    @Override
+    public BroadcastJobResponse getBroadcastProgress(UUID jobId) {
+        return notificationBroadcastService.getProgress(jobId);
     }
 
     @Override
@@ -3,19 +3,27 @@ package org.example.learniversebe.service.implementation;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.enums.EmailTemplate;
+import org.example.learniversebe.service.EmailOutboxSender;
 import org.example.learniversebe.service.IEmailService;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+import java.util.Map;
+
 @Slf4j
 @Service
 public class EmailServiceImpl implements IEmailService {
 
     private final JavaMailSender emailSender;
 
-    public EmailServiceImpl(JavaMailSender emailSender) {
+    private final EmailOutboxSender emailOutboxSender;
+
+    public EmailServiceImpl(JavaMailSender emailSender, EmailOutboxSender emailOutboxSender) {
         this.emailSender = emailSender;
+        this.emailOutboxSender = emailOutboxSender;
     }
 
     @Override
@@ -31,4 +39,16 @@ public class EmailServiceImpl implements IEmailService {
         emailSender.send(message);
         log.info("Email sent successfully to: {}", to);
     }
+
+    @Override
+    public void queueEmail(String to, String subject, String body) {
+        log.info("Queueing email to: {} with subject: {}", to, subject);
+        emailOutboxSender.enqueue(to, subject, body);
+    }
+
+    @Override
+    public void queueTemplatedEmail(String to, EmailTemplate template, Locale locale, Map<String, String> params) {
+        log.info("Queueing {} email to: {}", template, to);
+        emailOutboxSender.enqueueTemplate(to, template, locale, params);
+    }
 }
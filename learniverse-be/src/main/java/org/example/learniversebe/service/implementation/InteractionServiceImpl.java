@@ -6,6 +6,7 @@ import org.example.learniversebe.dto.request.ReactionRequest;
 import org.example.learniversebe.dto.request.VoteRequest;
 import org.example.learniversebe.dto.response.BookmarkResponse;
 import org.example.learniversebe.dto.response.PageResponse;
+import org.example.learniversebe.dto.response.ReactionStateResponse;
 import org.example.learniversebe.enums.*;
 import org.example.learniversebe.exception.BadRequestException;
 import org.example.learniversebe.exception.ResourceNotFoundException;
@@ -14,6 +15,8 @@ import org.example.learniversebe.mapper.BookmarkMapper;
 import org.example.learniversebe.mapper.ContentMapper;
 import org.example.learniversebe.model.*;
 import org.example.learniversebe.repository.*;
+import org.example.learniversebe.repository.projection.BookmarkUpsertProjection;
+import org.example.learniversebe.repository.projection.ReactionUpsertProjection;
 import org.example.learniversebe.service.ContentVisibilityService;
 import org.example.learniversebe.service.IInteractionService;
 import org.example.learniversebe.util.ServiceHelper;
@@ -25,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -72,208 +76,95 @@ public class InteractionServiceImpl implements IInteractionService {
     @Transactional
     public int vote(VoteRequest request) {
         log.info("Processing vote for {} with ID: {} of type: {}", request.getVotableType(), request.getVotableId(), request.getVoteType());
-        User user = serviceHelper.getCurrentUser();
+        UUID userId = serviceHelper.getCurrentUserId();
+        if (userId == null) {
+            throw new UnauthorizedException("User not authenticated");
+        }
         VotableType type = request.getVotableType();
         UUID typeId = request.getVotableId();
         VoteType newVoteType = request.getVoteType();
 
         validateVotableEntity(type, typeId);
 
-        Optional<Vote> existingVoteOpt = voteRepository.findExistingVoteRaw(user.getId(), type, typeId);
-
-        int scoreDelta;
-
-        if (existingVoteOpt.isPresent()) {
-            Vote existingVote = existingVoteOpt.get();
-
-            if (existingVote.getDeletedAt() != null) {
-                existingVote.setDeletedAt(null);
-                existingVote.setVoteType(newVoteType);
-                voteRepository.save(existingVote);
-
-                scoreDelta = (newVoteType == VoteType.UPVOTE) ? 1 : -1;
-            }
-            else {
-                if (existingVote.getVoteType() == newVoteType) {
-                    voteRepository.delete(existingVote);
-                    scoreDelta = (newVoteType == VoteType.UPVOTE) ? -1 : 1;
-                } else {
-                    existingVote.setVoteType(newVoteType);
-                    voteRepository.save(existingVote);
-                    scoreDelta = (newVoteType == VoteType.UPVOTE) ? 2 : -2;
-                }
-            }
-        } else {
-            Vote newVote = new Vote();
-            newVote.setUser(user);
-            newVote.setVotableType(type);
-            newVote.setVotableId(typeId);
-            newVote.setVoteType(newVoteType);
-            voteRepository.save(newVote);
-
-            scoreDelta = (newVoteType == VoteType.UPVOTE) ? 1 : -1;
-        }
-
-        // Cập nhật điểm số tổng vào bảng cha (Content/Answer)
-        return updateVoteScore(type, typeId, scoreDelta);
+        // Upsert vote + cập nhật điểm tổng (Content/Answer) trong cùng một câu lệnh
+        return voteRepository.upsertVote(userId, type.name(), typeId, newVoteType.name(),
+                newVoteType == VoteType.UPVOTE ? 1 : -1, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
     }
 
 
     @Override
     @Transactional
-    public void react(ReactionRequest request) {
+    public ReactionStateResponse react(ReactionRequest request) {
         log.info("Processing reaction for {} with ID: {} of type: {}", request.getReactableType(), request.getReactableId(), request.getReactionType());
-        User user = serviceHelper.getCurrentUser();
+        UUID userId = requireCurrentUserId();
         ReactableType type = request.getReactableType();
         UUID typeId = request.getReactableId();
-        ReactionType newReactionType = request.getReactionType();
+        InteractionUpsertMode mode = InteractionUpsertMode.fromActive(request.getActive());
 
         validateReactableEntity(type, typeId);
 
-        Optional<Reaction> existingReactionOpt = reactionRepository.findExistingReactionRaw(user.getId(), type, typeId);
-
-        int countDelta = 0;
-
-        if (existingReactionOpt.isPresent()) {
-            Reaction existingReaction = existingReactionOpt.get();
-
-            if (existingReaction.getDeletedAt() != null) {
-                existingReaction.setDeletedAt(null);
-                existingReaction.setReactionType(newReactionType);
-                reactionRepository.save(existingReaction);
-                countDelta = 1;
-            }
-            else {
-                if (existingReaction.getReactionType() == newReactionType) {
-                    reactionRepository.delete(existingReaction);
-                    countDelta = -1;
-                } else {
-                    existingReaction.setReactionType(newReactionType);
-                    reactionRepository.save(existingReaction);
-                }
-            }
-        } else {
-            Reaction newReaction = new Reaction();
-            newReaction.setUser(user);
-            newReaction.setReactableType(type);
-            newReaction.setReactableId(typeId);
-            newReaction.setReactionType(newReactionType);
-            reactionRepository.save(newReaction);
-            countDelta = 1;
-        }
-
-        if (countDelta != 0) {
-            updateReactionCount(type, typeId, countDelta);
-        }
-    }
-
-    private void updateReactionCountManual(Object reactableEntity, int countDelta) {
-        if (reactableEntity instanceof Content content) {
-            int newCount = Math.max(0, content.getReactionCount() + countDelta);
-            content.setReactionCount(newCount);
-            contentRepository.save(content);
-        } else if (reactableEntity instanceof Answer answer) {
-            // answer.setReactionCount(...);
-            // answerRepository.save(answer);
-        } else if (reactableEntity instanceof Comment comment) {
-            int newCount = Math.max(0, comment.getReactionCount() + countDelta);
-            comment.setReactionCount(newCount);
-            commentRepository.save(comment);
+        // Upsert reaction + cập nhật reactionCount trong cùng một câu lệnh
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<ReactionUpsertProjection> result = reactionRepository.upsertReaction(
+                userId, type.name(), typeId, request.getReactionType().name(), mode.name(), now);
+        if (result.isEmpty() && mode != InteractionUpsertMode.REMOVE) {
+            // Request đồng thời vừa tạo dòng reaction: chạy lại để áp dụng lên dòng đó
+            result = reactionRepository.upsertReaction(
+                    userId, type.name(), typeId, request.getReactionType().name(), mode.name(), now);
         }
+        return result
+                .map(state -> new ReactionStateResponse(
+                        state.getReactionType() == null ? null : ReactionType.valueOf(state.getReactionType()),
+                        state.getReactionCount()))
+                .orElseGet(() -> new ReactionStateResponse(null, null));
     }
 
     @Override
     @Transactional
     public BookmarkResponse addBookmark(BookmarkRequest request) {
-        User currentUser = serviceHelper.getCurrentUser();
+        UUID userId = requireCurrentUserId();
         Content content = contentRepository.findById(request.getContentId())
                 .orElseThrow(() -> new ResourceNotFoundException("Content not found"));
 
-        // 1. Tìm bookmark (kể cả đã xóa)
-        Optional<Bookmark> existingBookmarkOpt = bookmarkRepository
-                .findByUserIdAndContentIdRaw(currentUser.getId(), content.getId());
-
-        Bookmark bookmark;
-
-        if (existingBookmarkOpt.isPresent()) {
-            bookmark = existingBookmarkOpt.get();
-            // Nếu đã xóa -> Khôi phục (Restore)
-            if (bookmark.getDeletedAt() != null) {
-                bookmark.setDeletedAt(null);
-                content.setBookmarkCount(content.getBookmarkCount() + 1);
-            }
-            // Luôn cập nhật thông tin mới nhất (dù là mới hay cũ)
-            bookmark.setCollectionName(request.getCollectionName());
-            bookmark.setNotes(request.getNotes());
-            bookmark.setUpdatedAt(LocalDateTime.now());
-        } else {
-            // Chưa từng tồn tại -> Tạo mới (Create)
-            bookmark = new Bookmark();
-            bookmark.setUser(currentUser);
-            bookmark.setContent(content);
-            bookmark.setCollectionName(request.getCollectionName());
-            bookmark.setNotes(request.getNotes());
-
-            content.setBookmarkCount(content.getBookmarkCount() + 1);
+        BookmarkUpsertProjection state = upsertBookmark(userId, content.getId(),
+                request.getCollectionName(), request.getNotes(), InteractionUpsertMode.SET);
+
+        // Dựng bookmark tạm để map response, không nạp lại entity vừa ghi
+        Bookmark bookmark = new Bookmark();
+        bookmark.setId(state.getId());
+        bookmark.setContent(content);
+        bookmark.setCollectionName(request.getCollectionName());
+        bookmark.setNotes(request.getNotes());
+        bookmark.setCreatedAt(state.getCreatedAt());
+
+        BookmarkResponse response = bookmarkMapper.toBookmarkResponse(bookmark, contentMapper);
+        response.setUserId(userId);
+        if (response.getPostSummary() != null) {
+            response.getPostSummary().setBookmarkCount(state.getBookmarkCount());
+            response.getPostSummary().setBookmarkedByCurrentUser(true);
         }
-
-        contentRepository.save(content);
-        Bookmark saved = bookmarkRepository.save(bookmark);
-        return bookmarkMapper.toBookmarkResponse(saved, contentMapper);
+        if (response.getQuestionSummary() != null) {
+            response.getQuestionSummary().setBookmarkCount(state.getBookmarkCount());
+            response.getQuestionSummary().setBookmarkedByCurrentUser(true);
+        }
+        return response;
     }
 
     @Override
     @Transactional
     public void removeBookmark(UUID contentId) {
-        User currentUser = serviceHelper.getCurrentUser();
-
-        // Chỉ tìm những cái đang active (chưa xóa)
-        Optional<Bookmark> bookmarkOpt = bookmarkRepository.findByUserIdAndContentId(currentUser.getId(), contentId);
-
-        if (bookmarkOpt.isPresent()) {
-            Bookmark bookmark = bookmarkOpt.get();
-            bookmarkRepository.delete(bookmark);
-
-            // Giảm count
-            Content content = bookmark.getContent();
-            content.setBookmarkCount(Math.max(0, content.getBookmarkCount() - 1));
-            contentRepository.save(content);
-        }
-        // Nếu không tìm thấy (đã xóa hoặc chưa từng bookmark) -> Không làm gì cả (Idempotent)
+        // Chưa từng bookmark hoặc đã bỏ -> không làm gì cả (Idempotent)
+        upsertBookmark(requireCurrentUserId(), contentId, null, null, InteractionUpsertMode.REMOVE);
     }
 
     @Transactional
     @Override
     public boolean toggleBookmark(UUID contentId) {
-        User currentUser = serviceHelper.getCurrentUser();
-
-        // Tìm bookmark (kể cả đã xóa) để quyết định hành động
-        Optional<Bookmark> existingBookmarkOpt = bookmarkRepository
-                .findByUserIdAndContentIdRaw(currentUser.getId(), contentId);
-
-        if (existingBookmarkOpt.isPresent()) {
-            Bookmark bookmark = existingBookmarkOpt.get();
-
-            if (bookmark.getDeletedAt() == null) {
-                // Case 1: Đang active -> Thực hiện Remove
-                // Gọi lại hàm removeBookmark để tái sử dụng logic (DRY)
-                removeBookmark(contentId);
-                return false; // Trả về false nghĩa là "đã xóa"
-            } else {
-                // Case 2: Đã xóa mềm -> Thực hiện Restore (Add)
-                // Tạo request giả để tái sử dụng logic addBookmark
-                BookmarkRequest request = new BookmarkRequest();
-                request.setContentId(contentId);
-                addBookmark(request);
-                return true; // Trả về true nghĩa là "đã thêm"
-            }
-        } else {
-            // Case 3: Chưa có -> Thực hiện Create (Add)
-            BookmarkRequest request = new BookmarkRequest();
-            request.setContentId(contentId);
-            addBookmark(request);
-            return true; // Trả về true nghĩa là "đã thêm"
+        UUID userId = requireCurrentUserId();
+        if (!contentRepository.existsById(contentId)) {
+            throw new ResourceNotFoundException("Content not found");
         }
+        return upsertBookmark(userId, contentId, null, null, InteractionUpsertMode.TOGGLE).getActive();
     }
 
     @Override
@@ -376,33 +267,29 @@ public class InteractionServiceImpl implements IInteractionService {
         }
     }
 
-    private int updateVoteScore(VotableType type, UUID id, int delta) {
-        if (delta == 0) return 0; // Không có thay đổi
-
-        if (type == VotableType.CONTENT) {
-            Content content = contentRepository.findById(id).orElseThrow();
-            content.setVoteScore(content.getVoteScore() + delta);
-            contentRepository.save(content);
-            return content.getVoteScore();
-        } else if (type == VotableType.ANSWER) {
-            Answer answer = answerRepository.findById(id).orElseThrow();
-            answer.setVoteScore(answer.getVoteScore() + delta);
-            answerRepository.save(answer);
-            return answer.getVoteScore();
+    private UUID requireCurrentUserId() {
+        UUID userId = serviceHelper.getCurrentUserId();
+        if (userId == null) {
+            throw new UnauthorizedException("User not authenticated");
         }
-        return 0;
+        return userId;
     }
 
-    private void updateReactionCount(ReactableType type, UUID id, int delta) {
-        if (delta == 0) return;
-        if (type == ReactableType.CONTENT) {
-            Content content = contentRepository.findById(id).orElseThrow();
-            content.setReactionCount(Math.max(0, content.getReactionCount() + delta));
-            contentRepository.save(content);
-        } else if (type == ReactableType.COMMENT) {
-            Comment comment = commentRepository.findById(id).orElseThrow();
-            comment.setReactionCount(Math.max(0, comment.getReactionCount() + delta));
-            commentRepository.save(comment);
+    /**
+     * Gọi upsert bookmark, chạy lại một lần nếu request đồng thời vừa tạo dòng bookmark.
+     * Chỉ trả về null khi REMOVE mà chưa từng bookmark.
+     */
+    private BookmarkUpsertProjection upsertBookmark(UUID userId, UUID contentId, String collectionName,
+                                                    String notes, InteractionUpsertMode mode) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<BookmarkUpsertProjection> result = bookmarkRepository.upsertBookmark(
+                userId, contentId, collectionName, notes, mode.name(), now);
+        if (result.isEmpty() && mode != InteractionUpsertMode.REMOVE) {
+            result = bookmarkRepository.upsertBookmark(userId, contentId, collectionName, notes, mode.name(), now);
+        }
+        if (result.isEmpty() && mode != InteractionUpsertMode.REMOVE) {
+            throw new BadRequestException("Bookmark was modified concurrently, please retry");
         }
+        return result.orElse(null);
     }
 }
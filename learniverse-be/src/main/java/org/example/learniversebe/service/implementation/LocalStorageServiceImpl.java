@@ -0,0 +1,228 @@
+package org.example.learniversebe.service.implementation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.exception.BadRequestException;
+import org.example.learniversebe.repository.StoredBlobRepository;
+import org.example.learniversebe.service.IStorageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Storage lưu file trên local filesystem theo địa chỉ nội dung (SHA-256).
+ * File giống hệt nhau chỉ được lưu một lần; mỗi lần upload trả về một storageKey riêng
+ * dạng {@code <sha256>/<uuid>.<ext>}, được ghi vào stored_blob_refs và tăng ref_count của blob trong stored_blobs.
+ * Blob vật lý chỉ bị xóa khi storageKey cuối cùng tham chiếu tới nó bị xóa; xóa key không tồn tại không có tác dụng.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local")
+public class LocalStorageServiceImpl implements IStorageService {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("^([0-9a-f]{64})/([0-9a-f-]{36}(\\.[a-z]+)?)$");
+    private static final int LOCK_STRIPES = 64;
+
+    private final StoredBlobRepository storedBlobRepository;
+    private final Path blobRoot;
+    private final Path tmpRoot;
+    private final String publicUrl;
+
+    // Khóa theo hash để upload/xóa cùng một blob không chen nhau (local storage chỉ chạy 1 node)
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    // Validate constants
+    private final long MAX_IMAGE_SIZE = 5 * 1024 * 1024;
+    private final long MAX_PDF_SIZE = 15 * 1024 * 1024;  // 15MB
+    private final List<String> ALLOWED_IMAGE_TYPES = Arrays.asList("image/jpeg", "image/png", "image/gif", "image/webp");
+    private final String PDF_TYPE = "application/pdf";
+
+    public LocalStorageServiceImpl(StoredBlobRepository storedBlobRepository,
+                                   @Value("${app.storage.local.root:./storage}") String root,
+                                   @Value("${app.storage.local.public-url:/api/v1/files}") String publicUrl) throws IOException {
+        this.storedBlobRepository = storedBlobRepository;
+        Path rootPath = Paths.get(root).toAbsolutePath().normalize();
+        this.blobRoot = Files.createDirectories(rootPath.resolve("blobs"));
+        this.tmpRoot = Files.createDirectories(rootPath.resolve("tmp"));
+        this.publicUrl = publicUrl;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Map<String, String> uploadFile(MultipartFile file) throws IOException {
+        validateFile(file);
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getSize(), file.getContentType(), extensionOf(file));
+        }
+    }
+
+    @Override
+    public Map<String, String> uploadDerivative(byte[] data, String mimeType) throws IOException {
+        String extension = "image/jpeg".equals(mimeType) ? ".jpg" : "image/png".equals(mimeType) ? ".png" : "";
+        try (InputStream in = new ByteArrayInputStream(data)) {
+            return store(in, data.length, mimeType, extension);
+        }
+    }
+
+    /**
+     * Hash trong lúc stream xuống file tạm (không đọc toàn bộ file vào heap),
+     * sau đó move vào blob store nếu nội dung chưa tồn tại.
+     */
+    private Map<String, String> store(InputStream source, long size, String mimeType, String extension) throws IOException {
+        Path tmp = Files.createTempFile(tmpRoot, "upload-", ".part");
+        String hash;
+        String key;
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(source, digest);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                in.transferTo(out);
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+
+            key = hash + "/" + UUID.randomUUID() + extension;
+
+            // Move file trước rồi mới ghi tham chiếu: move lỗi thì không có ref_count nào trỏ tới blob không tồn tại
+            Path blob = blobPath(hash);
+            synchronized (lockFor(hash)) {
+                boolean created = false;
+                if (Files.exists(blob)) {
+                    log.debug("Deduplicated upload -> blob {}", hash);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.move(tmp, blob, StandardCopyOption.ATOMIC_MOVE);
+                    created = true;
+                }
+                try {
+                    storedBlobRepository.acquire(key, hash, size, mimeType);
+                } catch (RuntimeException e) {
+                    if (created) {
+                        Files.deleteIfExists(blob);
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        return Map.of(
+                "url", publicUrl + "/" + key,
+                "key", key
+        );
+    }
+
+    @Override
+    public boolean deleteFile(String publicId) throws IOException {
+        String hash = hashOf(publicId);
+        synchronized (lockFor(hash)) {
+            // Chỉ giảm ref_count khi đúng key này còn tham chiếu (xóa lặp lại hoặc key bịa -> không làm gì)
+            if (storedBlobRepository.release(publicId) == 0) {
+                return false;
+            }
+            if (storedBlobRepository.deleteIfUnreferenced(hash) > 0) {
+                Files.deleteIfExists(blobPath(hash));
+                log.info("Deleted unreferenced blob {}", hash);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<Resource> loadAsResource(String key) {
+        String hash = hashOf(key);
+        // Chỉ phục vụ key đã cấp: hash đúng nhưng tên bịa thì coi như không tồn tại
+        if (storedBlobRepository.findHashByKey(key).filter(hash::equals).isEmpty()) {
+            return Optional.empty();
+        }
+        Path blob = blobPath(hash);
+        if (!Files.isReadable(blob)) {
+            return Optional.empty();
+        }
+        // Spring MVC stream nội dung file ra response và tự xử lý header Range (206 Partial Content)
+        return Optional.of(new FileSystemResource(blob));
+    }
+
+    /**
+     * Lấy hash của blob từ storageKey, đồng thời chặn path traversal.
+     */
+    private String hashOf(String key) {
+        Matcher matcher = KEY_PATTERN.matcher(key == null ? "" : key);
+        if (!matcher.matches()) {
+            throw new BadRequestException("Invalid storage key: " + key);
+        }
+        return matcher.group(1);
+    }
+
+    private Path blobPath(String hash) {
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String extensionOf(MultipartFile file) {
+        if (PDF_TYPE.equals(file.getContentType())) {
+            return ".pdf";
+        }
+        String filename = file.getOriginalFilename();
+        if (filename == null || filename.isEmpty()) {
+            return "";
+        }
+        int lastDotIndex = filename.lastIndexOf('.');
+        if (lastDotIndex > 0 && lastDotIndex < filename.length() - 1) {
+            String ext = filename.substring(lastDotIndex + 1).toLowerCase();
+            List<String> allowedExtensions = Arrays.asList("pdf", "jpg", "jpeg", "png", "gif", "webp");
+            if (allowedExtensions.contains(ext)) {
+                return "." + ext;
+            }
+        }
+        return "";
+    }
+
+    private void validateFile(MultipartFile file) {
+        String contentType = file.getContentType();
+        long size = file.getSize();
+
+        if (ALLOWED_IMAGE_TYPES.contains(contentType)) {
+            if (size > MAX_IMAGE_SIZE) throw new BadRequestException("Image size exceeds 5MB limit");
+        } else if (PDF_TYPE.equals(contentType)) {
+            if (size > MAX_PDF_SIZE) throw new BadRequestException("PDF size exceeds 15MB limit");
+        } else {
+            throw new BadRequestException("Unsupported file type: " + contentType);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.learniversebe.service.implementation;
 
 import lombok.extern.slf4j.Slf4j;
+import org.example.learniversebe.config.WebSocketAuthInterceptor;
 import org.example.learniversebe.dto.response.NotificationResponse;
 import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.enums.NotificationType;
@@ -13,18 +14,26 @@ import org.example.learniversebe.model.User;
 import org.example.learniversebe.repository.NotificationRepository;
 import org.example.learniversebe.repository.UserRepository;
 import org.example.learniversebe.service.INotificationService;
+import org.example.learniversebe.service.NotificationOutboxDispatcher;
+import org.example.learniversebe.service.NotificationPushDebouncer;
+import org.example.learniversebe.service.UnreadNotificationCounter;
 import org.example.learniversebe.util.ServiceHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -37,7 +46,18 @@ public class NotificationServiceImpl implements INotificationService {
     private final UserRepository userRepository;
     private final NotificationMapper notificationMapper;
     private final ServiceHelper serviceHelper;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationOutboxDispatcher notificationOutboxDispatcher;
+    private final NotificationPushDebouncer pushDebouncer;
+    private final UnreadNotificationCounter unreadCounter;
+
+    /** Số actor gần nhất được lưu trên thông báo gộp */
+    private static final int MAX_RECENT_ACTORS = 5;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    @Value("${app.notification.aggregation.window-minutes:60}")
+    private long aggregationWindowMinutes;
 
     @Override
     @Transactional
@@ -51,86 +71,101 @@ public class NotificationServiceImpl implements INotificationService {
                     .orElseThrow(() -> new ResourceNotFoundException("User", "id", senderId.toString()));
         }
 
-        Notification notification = new Notification();
-        notification.setId(UUID.randomUUID());
-
-        notification.setRecipient(recipient);
-        notification.setSender(sender);
-        notification.setNotificationType(type);
-
-        notification.setContent(content);
-        notification.setRelatedEntityId(relatedEntityId);
-        notification.setRelatedEntityType(relatedEntityType);
-        notification.setIsRead(false);
-
-        LocalDateTime now = LocalDateTime.now();
-        notification.setCreatedAt(now);
-        notification.setUpdatedAt(now);
+        Notification savedNotification = notificationRepository.saveAndFlush(
+                newNotification(recipient, sender, type, content, relatedEntityId, relatedEntityType));
 
-        Notification savedNotification = notificationRepository.save(notification);
-
-        sendRealtimeNotification(savedNotification);
+        sendRealtimeNotification(savedNotification, unreadCounter.increment(recipientId));
 
         return savedNotification;
     }
 
     @Override
+    @Transactional
     public void notifyNewAnswer(User questionAuthor, User answerAuthor, Answer answer) {
         if (questionAuthor.getId().equals(answerAuthor.getId())) return;
 
-        createNotification(
-                questionAuthor.getId(),
-                answerAuthor.getId(),
+        UUID questionId = answer.getQuestion().getId();
+        createOrAggregate(
+                questionAuthor,
+                answerAuthor,
                 NotificationType.ANSWER,
-                answerAuthor.getUsername() + " đã trả lời câu hỏi của bạn.",
-                answer.getQuestion().getId(),
+                "ANSWER:" + questionId,
+                "đã trả lời câu hỏi của bạn.",
+                questionId,
                 "QUESTION"
         );
     }
 
     @Override
+    @Transactional
     public void notifyNewComment(User entityAuthor, User commentAuthor, Comment comment) {
         if (entityAuthor.getId().equals(commentAuthor.getId())) return;
 
-        createNotification(
-                entityAuthor.getId(),
-                commentAuthor.getId(),
+        createOrAggregate(
+                entityAuthor,
+                commentAuthor,
                 NotificationType.COMMENT,
-                commentAuthor.getUsername() + " đã bình luận về bài viết của bạn.",
+                "COMMENT:" + comment.getCommentableType() + ":" + comment.getCommentableId(),
+                "đã bình luận về bài viết của bạn.",
                 comment.getId(),
                 "COMMENT"
         );
     }
 
     @Override
+    @Transactional
     public void notifyNewReply(User parentCommentAuthor, User replyAuthor, Comment reply) {
         if (parentCommentAuthor.getId().equals(replyAuthor.getId())) return;
 
         UUID relatedId = (reply.getParent() != null) ? reply.getParent().getId() : reply.getId();
 
-        createNotification(
-                parentCommentAuthor.getId(),
-                replyAuthor.getId(),
+        createOrAggregate(
+                parentCommentAuthor,
+                replyAuthor,
                 NotificationType.COMMENT,
-                replyAuthor.getUsername() + " đã trả lời bình luận của bạn.",
+                "REPLY:" + relatedId,
+                "đã trả lời bình luận của bạn.",
                 relatedId,
                 "COMMENT"
         );
     }
 
     @Override
-    public void notifyMentionedUsers(Set<User> mentionedUsers, User mentioner, Comment comment) {
-        for (User mentionedUser : mentionedUsers) {
-            if (mentionedUser.getId().equals(mentioner.getId())) continue;
-
-            createNotification(
-                    mentionedUser.getId(),
-                    mentioner.getId(),
-                    NotificationType.MENTION,
-                    mentioner.getUsername() + " đã nhắc đến bạn trong một bình luận.",
-                    comment.getId(),
-                    "COMMENT"
-            );
+    @Transactional
+    public void notifyMentionedUsers(Collection<UUID> mentionedUserIds, User mentioner, Comment comment) {
+        List<UUID> recipientIds = mentionedUserIds.stream()
+                .filter(id -> !id.equals(mentioner.getId()))
+                .distinct()
+                .toList();
+        if (recipientIds.isEmpty()) return;
+
+        String groupKey = "MENTION:" + comment.getCommentableType() + ":" + comment.getCommentableId();
+        String action = "đã nhắc đến bạn trong một bình luận.";
+        LocalDateTime now = LocalDateTime.now();
+
+        // Một query lấy (và khóa) các thông báo gộp đang mở của cả nhóm người nhận
+        Map<UUID, Notification> open = new HashMap<>();
+        for (Notification notification : notificationRepository.findOpenGroupsForRecipients(
+                recipientIds, groupKey, now.minusMinutes(aggregationWindowMinutes))) {
+            open.putIfAbsent(notification.getRecipient().getId(), notification);
+        }
+        for (Notification notification : open.values()) {
+            aggregate(notification, mentioner, action, comment.getId(), now);
+        }
+        if (!open.isEmpty()) {
+            notificationRepository.saveAll(open.values());
+        }
+
+        // Người chưa có thông báo gộp: một câu INSERT nhiều dòng, push từ chính các dòng trả về
+        List<UUID> fresh = recipientIds.stream().filter(id -> !open.containsKey(id)).toList();
+        if (fresh.isEmpty()) return;
+        List<Notification> created = notificationRepository.insertGroupedForRecipients(
+                NotificationType.MENTION.name(), mentioner.getId(), mentioner.getUsername() + " " + action,
+                comment.getId(), "COMMENT", groupKey, now, fresh);
+        Map<UUID, Integer> unreadCounts = unreadCounter.incrementAndGet(
+                created.stream().map(notification -> notification.getRecipient().getId()).toList());
+        for (Notification notification : created) {
+            sendRealtimeNotification(notification, unreadCounts.getOrDefault(notification.getRecipient().getId(), 0));
         }
     }
 
@@ -171,17 +206,34 @@ public class NotificationServiceImpl implements INotificationService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public org.example.learniversebe.dto.response.pagination.PageResponse<NotificationResponse> getNotificationsByCursor(
+            LocalDateTime cursor, UUID cursorId, int limit) {
+        UUID currentUserId = serviceHelper.getCurrentUserId();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CURSOR_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Notification> rows = cursor == null
+                ? notificationRepository.findFirstPageByRecipient(currentUserId, pageable)
+                : notificationRepository.findPageByRecipientBefore(currentUserId, cursor,
+                        cursorId != null ? cursorId : MIN_UUID, pageable);
+        return notificationMapper.toCursorPage(rows, pageSize);
+    }
+
     @Override
     public long getUnreadNotificationCount() {
         UUID currentUserId = serviceHelper.getCurrentUserId();
-        return notificationRepository.countByRecipient_IdAndIsReadFalse(currentUserId);
+        return unreadCounter.get(currentUserId);
     }
 
     @Override
     @Transactional
     public void markAllAsRead() {
         UUID currentUserId = serviceHelper.getCurrentUserId();
-        notificationRepository.markAllAsReadByRecipientId(currentUserId);
+        int updated = notificationRepository.markAllAsReadByRecipientId(currentUserId);
+        unreadCounter.decrement(currentUserId, updated);
     }
 
     @Override
@@ -196,35 +248,108 @@ public class NotificationServiceImpl implements INotificationService {
             throw new RuntimeException("Notification " + notificationId.toString() + "does not belong to current user.");
         }
 
+        LocalDateTime now = LocalDateTime.now();
+        // Chỉ giảm bộ đếm khi thông báo thực sự chuyển từ chưa đọc sang đã đọc
+        if (notificationRepository.markAsReadIfUnread(notificationId, now) > 0) {
+            unreadCounter.decrement(currentUserId, 1);
+            notification.setUpdatedAt(now);
+        }
         notification.setIsRead(true);
 
-        notification.setUpdatedAt(LocalDateTime.now());
+        return notificationMapper.toResponse(notification);
+    }
+
+    private Notification newNotification(User recipient, User sender, NotificationType type, String content,
+                                         UUID relatedEntityId, String relatedEntityType) {
+        Notification notification = new Notification();
+        notification.setId(UUID.randomUUID());
+
+        notification.setRecipient(recipient);
+        notification.setSender(sender);
+        notification.setNotificationType(type);
+
+        notification.setContent(content);
+        notification.setRelatedEntityId(relatedEntityId);
+        notification.setRelatedEntityType(relatedEntityType);
+        notification.setIsRead(false);
 
-        Notification saved = notificationRepository.save(notification);
-        return notificationMapper.toResponse(saved);
+        LocalDateTime now = LocalDateTime.now();
+        notification.setCreatedAt(now);
+        notification.setUpdatedAt(now);
+        return notification;
     }
 
-    private void sendRealtimeNotification(Notification notification) {
-        try {
-            NotificationResponse response = notificationMapper.toResponse(notification);
-            String destination = "/topic/notifications/" + notification.getRecipient().getId();
+    /**
+     * Gộp thông báo cùng loại, cùng đối tượng trong cửa sổ thời gian thành một dòng
+     * ("Alice và 24 người khác ..."). Dòng mới được push ngay; các lần cập nhật sau được push gộp (debounce).
+     * Số actor đếm theo danh sách actor gần nhất nên chỉ gần đúng khi một người lặp lại sau nhiều người khác.
+     */
+    private void createOrAggregate(User recipient, User actor, NotificationType type, String groupKey,
+                                   String action, UUID relatedEntityId, String relatedEntityType) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Notification> existing = notificationRepository
+                .findFirstByRecipient_IdAndGroupKeyAndIsReadFalseAndCreatedAtAfterOrderByCreatedAtDesc(
+                        recipient.getId(), groupKey, now.minusMinutes(aggregationWindowMinutes));
+
+        if (existing.isEmpty()) {
+            Notification notification = newNotification(recipient, actor, type,
+                    actor.getUsername() + " " + action, relatedEntityId, relatedEntityType);
+            notification.setGroupKey(groupKey);
+            notification.setActorCount(1);
+            notification.setRecentActorIds(actor.getId().toString());
+            Notification saved = notificationRepository.saveAndFlush(notification);
+            sendRealtimeNotification(saved, unreadCounter.increment(recipient.getId()));
+            return;
+        }
 
-            // Gửi đến topic mà frontend đã subscribe trong websocketService.ts
-            messagingTemplate.convertAndSend(destination, response);
+        Notification notification = existing.get();
+        aggregate(notification, actor, action, relatedEntityId, now);
+        notificationRepository.save(notification);
+    }
 
-            log.info("Đã gửi thông báo realtime tới người dùng: {}", notification.getRecipient().getUsername());
-        } catch (Exception e) {
-            log.error("Lỗi khi gửi thông báo realtime qua WebSocket", e);
+    /**
+     * Thêm actor vào thông báo gộp đang mở và hẹn push (debounce) sau commit; caller tự lưu.
+     */
+    private void aggregate(Notification notification, User actor, String action, UUID relatedEntityId, LocalDateTime now) {
+        List<String> recentActors = new ArrayList<>();
+        if (notification.getRecentActorIds() != null && !notification.getRecentActorIds().isBlank()) {
+            recentActors.addAll(Arrays.asList(notification.getRecentActorIds().split(",")));
+        }
+        String actorId = actor.getId().toString();
+        if (!recentActors.remove(actorId)) {
+            notification.setActorCount(notification.getActorCount() + 1);
         }
+        recentActors.add(0, actorId);
+        notification.setRecentActorIds(String.join(",", recentActors.subList(0, Math.min(MAX_RECENT_ACTORS, recentActors.size()))));
+
+        int others = notification.getActorCount() - 1;
+        notification.setContent(others > 0
+                ? actor.getUsername() + " và " + others + " người khác " + action
+                : actor.getUsername() + " " + action);
+        notification.setSender(actor);
+        notification.setRelatedEntityId(relatedEntityId);
+        notification.setUpdatedAt(now);
+
+        pushDebouncer.schedulePushAfterCommit(notification.getId());
+    }
+
+    private void sendRealtimeNotification(Notification notification, int unreadCount) {
+        NotificationResponse response = notificationMapper.toResponse(notification);
+        response.setUnreadCount(unreadCount);
+        UUID recipientId = notification.getRecipient().getId();
+        // Gửi đến topic mà frontend đã subscribe trong websocketService.ts, sau khi transaction commit
+        notificationOutboxDispatcher.enqueue("/topic/notifications/" + recipientId, recipientId, response);
     }
 
+    /**
+     * Gửi một message duy nhất lên topic kiểm duyệt (moderator/admin subscribe một lần) thay vì
+     * tạo một dòng notification cho từng moderator. Danh sách cần xử lý lấy từ moderation feed (bảng reports).
+     */
     @Override
     @Transactional
     public void notifyModeratorsOfAutoFlag(UUID reportId, String contentType, String contentPreview) {
         log.info("Notifying moderators about auto-flagged {} content", contentType);
 
-        List<User> moderators = userRepository.findAllModeratorsAndAdmins();
-
         String previewText = contentPreview.length() > 100 
             ? contentPreview.substring(0, 100) + "..." 
             : contentPreview;
@@ -235,18 +360,17 @@ public class NotificationServiceImpl implements INotificationService {
             previewText
         );
 
-        for (User moderator : moderators) {
-            createNotification(
-                moderator.getId(),
-                null, // System notification, no sender
-                NotificationType.CONTENT_AUTO_FLAGGED,
-                message,
-                reportId,
-                "REPORT"
-            );
-        }
+        NotificationResponse event = NotificationResponse.builder()
+                .content(message)
+                .notificationType(NotificationType.CONTENT_AUTO_FLAGGED)
+                .isRead(false)
+                .relatedEntityId(reportId)
+                .relatedEntityType("REPORT")
+                .createdAt(LocalDateTime.now())
+                .build();
+        notificationOutboxDispatcher.enqueue(WebSocketAuthInterceptor.MODERATION_TOPIC, null, event);
 
-        log.info("Sent auto-flag notifications to {} moderators/admins", moderators.size());
+        log.info("Published auto-flag event for report {} to {}", reportId, WebSocketAuthInterceptor.MODERATION_TOPIC);
     }
 
     @Override
@@ -14,10 +14,11 @@ import org.example.learniversebe.exception.UnauthorizedException;
 import org.example.learniversebe.mapper.ContentMapper;
 import org.example.learniversebe.model.*;
 import org.example.learniversebe.repository.*;
+import org.example.learniversebe.service.AttachmentUploadService;
+import org.example.learniversebe.service.AttachmentUploadService.UploadedFile;
 import org.example.learniversebe.service.ContentVisibilityService;
 import org.example.learniversebe.service.IInteractionService;
 import org.example.learniversebe.service.IPostService;
-import org.example.learniversebe.service.IStorageService;
 import org.example.learniversebe.util.ServiceHelper;
 import org.example.learniversebe.util.SlugGenerator;
 import org.hibernate.Hibernate;
@@ -26,9 +27,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -50,12 +51,13 @@ public class PostServiceImpl implements IPostService {
     private final ReactionRepository reactionRepository;
     private final BookmarkRepository bookmarkRepository;
     private final ShareRepository shareRepository;
-    private final IStorageService storageService;
     private final AttachmentRepository attachmentRepository;
     private final GroupRepository groupRepository;
     private final ContentVisibilityService visibilityService;
     private final FriendRepository friendRepository;
     private final GroupMemberRepository groupMemberRepository;
+    private final AttachmentUploadService attachmentUploadService;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${app.content.edit.limit-hours:24}") // Lấy từ application.properties, mặc định 24h
     private long editLimitHours;
@@ -75,12 +77,13 @@ public class PostServiceImpl implements IPostService {
                            ReactionRepository reactionRepository,
                            BookmarkRepository bookmarkRepository,
                            ShareRepository shareRepository,
-                           IStorageService storageService,
                            AttachmentRepository attachmentRepository,
                            GroupRepository groupRepository,
                            ContentVisibilityService visibilityService,
                            FriendRepository friendRepository,
-                           GroupMemberRepository groupMemberRepository
+                           GroupMemberRepository groupMemberRepository,
+                           AttachmentUploadService attachmentUploadService,
+                           TransactionTemplate transactionTemplate
     ) {
         this.contentRepository = contentRepository;
         this.userRepository = userRepository;
@@ -95,18 +98,32 @@ public class PostServiceImpl implements IPostService {
         this.reactionRepository = reactionRepository;
         this.bookmarkRepository = bookmarkRepository;
         this.shareRepository = shareRepository;
-        this.storageService = storageService;
         this.attachmentRepository = attachmentRepository;
         this.groupRepository = groupRepository;
         this.visibilityService = visibilityService;
         this.friendRepository = friendRepository;
         this.groupMemberRepository = groupMemberRepository;
+        this.attachmentUploadService = attachmentUploadService;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    /**
+     * Upload file song song TRƯỚC khi mở transaction, transaction chỉ insert các dòng Attachment.
+     * Nếu transaction thất bại, các file đã upload sẽ bị xóa khỏi storage.
+     */
     @Override
-    @Transactional
     public PostResponse createPost(CreatePostRequest request, List<MultipartFile> files) {
         log.info("Creating new post with title: {}", request.getTitle());
+        List<UploadedFile> uploads = attachmentUploadService.uploadAll(files);
+        try {
+            return transactionTemplate.execute(status -> doCreatePost(request, uploads));
+        } catch (RuntimeException e) {
+            attachmentUploadService.discard(uploads);
+            throw e;
+        }
+    }
+
+    private PostResponse doCreatePost(CreatePostRequest request, List<UploadedFile> uploads) {
         User author = serviceHelper.getCurrentUser();
 
         if (request.getGroupId() != null) {
@@ -148,30 +165,8 @@ public class PostServiceImpl implements IPostService {
 
         Content savedContent = contentRepository.save(content);
 
-        if (files != null && !files.isEmpty()) {
-            List<Attachment> attachments = new ArrayList<>();
-            for (MultipartFile file : files) {
-                try {
-                    Map<String, String> uploadResult = storageService.uploadFile(file);
-
-                    Attachment attachment = new Attachment();
-                    attachment.setContent(savedContent);
-                    attachment.setUploadedBy(author);
-                    attachment.setFileName(file.getOriginalFilename());
-                    attachment.setMimeType(file.getContentType());
-                    attachment.setFileSize(file.getSize());
-                    attachment.setStorageUrl(uploadResult.get("url"));
-                    attachment.setStorageKey(uploadResult.get("key"));
-
-                    attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.getContentType())));
-                    attachment.setIsVerified(true);
-
-                    attachments.add(attachment);
-                } catch (IOException e) {
-                    throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
-                }
-            }
-            attachmentRepository.saveAll(attachments);
+        if (!uploads.isEmpty()) {
+            List<Attachment> attachments = attachmentUploadService.saveAttachments(uploads, savedContent, author);
             savedContent.setAttachments(new HashSet<>(attachments));
         }
 
@@ -398,8 +393,24 @@ public class PostServiceImpl implements IPostService {
     }
 
     @Override
-    @Transactional
     public PostResponse updatePost(UUID postId, UpdatePostRequest request, List<MultipartFile> files) {
+        // Kiểm tra quyền trước khi upload để không đẩy file lên storage cho bài viết của người khác
+        Content existing = contentRepository.findByIdAndContentType(postId, ContentType.POST)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found with id: " + postId));
+        if (!existing.getAuthor().getId().equals(serviceHelper.getCurrentUserId())) {
+            throw new UnauthorizedException("User is not authorized to update this post");
+        }
+
+        List<UploadedFile> uploads = attachmentUploadService.uploadAll(files);
+        try {
+            return transactionTemplate.execute(status -> doUpdatePost(postId, request, uploads));
+        } catch (RuntimeException e) {
+            attachmentUploadService.discard(uploads);
+            throw e;
+        }
+    }
+
+    private PostResponse doUpdatePost(UUID postId, UpdatePostRequest request, List<UploadedFile> uploads) {
         User currentUser = serviceHelper.getCurrentUser();
 
         Content content = contentRepository.findByIdAndContentType(postId, ContentType.POST)
@@ -453,10 +464,8 @@ public class PostServiceImpl implements IPostService {
 
             attachmentsToDelete.removeIf(att -> !att.getContent().getId().equals(postId));
 
-            // Xóa file trên Cloud
-            // for (Attachment att : attachmentsToDelete) {
-            //      storageService.deleteFile(att.getStorageKey());
-            // }
+            // Xóa file trên storage sau khi commit
+            attachmentsToDelete.forEach(attachmentUploadService::deleteStoredFiles);
 
             attachmentsToDelete.forEach(content.getAttachments()::remove);
             attachmentRepository.deleteAll(attachmentsToDelete);
@@ -464,29 +473,8 @@ public class PostServiceImpl implements IPostService {
         }
 
         // Append new attachments if provided
-        if (files != null && !files.isEmpty()) {
-            List<Attachment> newAttachments = new ArrayList<>();
-            for (MultipartFile file : files) {
-                try {
-                    Map<String, String> uploadResult = storageService.uploadFile(file);
-
-                    Attachment attachment = new Attachment();
-                    attachment.setContent(content);
-                    attachment.setUploadedBy(currentUser);
-                    attachment.setFileName(file.getOriginalFilename());
-                    attachment.setMimeType(file.getContentType());
-                    attachment.setFileSize(file.getSize());
-                    attachment.setStorageUrl(uploadResult.get("url"));
-                    attachment.setStorageKey(uploadResult.get("key"));
-                    attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.getContentType())));
-                    attachment.setIsVerified(true);
-
-                    newAttachments.add(attachment);
-                } catch (IOException e) {
-                    throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
-                }
-            }
-            attachmentRepository.saveAll(newAttachments);
+        if (!uploads.isEmpty()) {
+            List<Attachment> newAttachments = attachmentUploadService.saveAttachments(uploads, content, currentUser);
             content.getAttachments().addAll(newAttachments);
             isContentChanged = true;
         }
@@ -738,12 +726,6 @@ public class PostServiceImpl implements IPostService {
         return response;
     }
 
-    private AttachmentType determineAttachmentType(String mimeType) {
-        if (mimeType.startsWith("image/")) return AttachmentType.IMAGE;
-        if (mimeType.equals("application/pdf")) return AttachmentType.PDF;
-        return AttachmentType.OTHER;
-    }
-
     /**
      * Helper method to filter contents by visibility and map to response
      * Tái sử dụng cho nhiều methods: getNewsfeedPosts, getPostsByTag, getPostsByAuthor, searchPosts
@@ -12,10 +12,11 @@ import org.example.learniversebe.mapper.AnswerMapper;
 import org.example.learniversebe.mapper.ContentMapper;
 import org.example.learniversebe.model.*;
 import org.example.learniversebe.repository.*;
+import org.example.learniversebe.service.AttachmentUploadService;
+import org.example.learniversebe.service.AttachmentUploadService.UploadedFile;
 import org.example.learniversebe.service.IInteractionService;
 import org.example.learniversebe.service.INotificationService;
 import org.example.learniversebe.service.IQuestionService;
-import org.example.learniversebe.service.IStorageService;
 import org.example.learniversebe.util.ServiceHelper;
 import org.example.learniversebe.util.SlugGenerator;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,10 +24,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -51,9 +52,10 @@ public class QuestionServiceImpl implements IQuestionService {
     private final VoteRepository voteRepository;
     private final BookmarkRepository bookmarkRepository;
     private final ShareRepository shareRepository;
-    private final IStorageService storageService;
     private final AttachmentRepository attachmentRepository;
     private final INotificationService notificationService;
+    private final AttachmentUploadService attachmentUploadService;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Value("${app.content.edit.limit-hours:24}")
@@ -76,9 +78,10 @@ public class QuestionServiceImpl implements IQuestionService {
                                VoteRepository voteRepository,
                                BookmarkRepository bookmarkRepository,
                                ShareRepository shareRepository,
-                               IStorageService storageService,
                                AttachmentRepository attachmentRepository,
-                               INotificationService notificationService
+                               INotificationService notificationService,
+                               AttachmentUploadService attachmentUploadService,
+                               TransactionTemplate transactionTemplate
     ) {
         this.contentRepository = contentRepository;
         this.userRepository = userRepository;
@@ -96,16 +99,30 @@ public class QuestionServiceImpl implements IQuestionService {
         this.voteRepository = voteRepository;
         this.bookmarkRepository = bookmarkRepository;
         this.shareRepository = shareRepository;
-        this.storageService = storageService;
         this.attachmentRepository = attachmentRepository;
         this.notificationService = notificationService;
+        this.attachmentUploadService = attachmentUploadService;
+        this.transactionTemplate = transactionTemplate;
     }
 
 
+    /**
+     * Upload file song song TRƯỚC khi mở transaction, transaction chỉ insert các dòng Attachment.
+     * Nếu transaction thất bại, các file đã upload sẽ bị xóa khỏi storage.
+     */
     @Override
-    @Transactional
     public QuestionResponse createQuestion(CreateQuestionRequest request, List<MultipartFile> files) {
         log.info("Creating question with title: {}", request.getTitle());
+        List<UploadedFile> uploads = attachmentUploadService.uploadAll(files);
+        try {
+            return transactionTemplate.execute(status -> doCreateQuestion(request, uploads));
+        } catch (RuntimeException e) {
+            attachmentUploadService.discard(uploads);
+            throw e;
+        }
+    }
+
+    private QuestionResponse doCreateQuestion(CreateQuestionRequest request, List<UploadedFile> uploads) {
         User author = serviceHelper.getCurrentUser();
 
         Content content = contentMapper.createQuestionRequestToContent(request);
@@ -123,29 +140,8 @@ public class QuestionServiceImpl implements IQuestionService {
         Content savedContent = contentRepository.save(content);
         log.info("Question created successfully with ID: {} and slug: {} by user: {}", savedContent.getId(), savedContent.getSlug(), author.getUsername());
 
-        if (files != null && !files.isEmpty()) {
-            List<Attachment> attachments = new ArrayList<>();
-            for (MultipartFile file : files) {
-                try {
-                    Map<String, String> uploadResult = storageService.uploadFile(file);
-
-                    Attachment attachment = new Attachment();
-                    attachment.setContent(savedContent); // Link to Question
-                    attachment.setUploadedBy(author);
-                    attachment.setFileName(file.getOriginalFilename());
-                    attachment.setMimeType(file.getContentType());
-                    attachment.setFileSize(file.getSize());
-                    attachment.setStorageUrl(uploadResult.get("url"));
-                    attachment.setStorageKey(uploadResult.get("key"));
-                    attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.getContentType())));
-                    attachment.setIsVerified(true);
-
-                    attachments.add(attachment);
-                } catch (IOException e) {
-                    throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
-                }
-            }
-            attachmentRepository.saveAll(attachments);
+        if (!uploads.isEmpty()) {
+            List<Attachment> attachments = attachmentUploadService.saveAttachments(uploads, savedContent, author);
             savedContent.setAttachments(new HashSet<>(attachments));
         }
 
@@ -174,13 +170,6 @@ public class QuestionServiceImpl implements IQuestionService {
         return getQuestionResponseWithInteraction(saved);
     }
 
-    // Add method publishQuestion implementation (Similar to PostServiceImpl)
-    private AttachmentType determineAttachmentType(String mimeType) {
-        if (mimeType.startsWith("image/")) return AttachmentType.IMAGE;
-        if (mimeType.equals("application/pdf")) return AttachmentType.PDF;
-        return AttachmentType.OTHER;
-    }
-
     private QuestionResponse getQuestionResponseWithInteraction(Content content) {
         QuestionResponse response = contentMapper.contentToQuestionResponse(content);
         setInteractionStatusForCurrentUser(response, content.getId()); // Helper method already exists in your file
@@ -346,8 +335,22 @@ public class QuestionServiceImpl implements IQuestionService {
     }
 
     @Override
-    @Transactional
     public QuestionResponse updateQuestion(UUID questionId, UpdateQuestionRequest request, List<MultipartFile> files) {
+        // Kiểm tra quyền trước khi upload để không đẩy file lên storage cho câu hỏi của người khác
+        Content existing = findQuestionByIdOrFail(questionId);
+        serviceHelper.ensureCurrentUserIsAuthor(existing.getAuthor().getId(), "update question");
+        checkEditTimeLimit(existing);
+
+        List<UploadedFile> uploads = attachmentUploadService.uploadAll(files);
+        try {
+            return transactionTemplate.execute(status -> doUpdateQuestion(questionId, request, uploads));
+        } catch (RuntimeException e) {
+            attachmentUploadService.discard(uploads);
+            throw e;
+        }
+    }
+
+    private QuestionResponse doUpdateQuestion(UUID questionId, UpdateQuestionRequest request, List<UploadedFile> uploads) {
         User currentUser = serviceHelper.getCurrentUser();
         Content content = findQuestionByIdOrFail(questionId);
 
@@ -375,15 +378,8 @@ public class QuestionServiceImpl implements IQuestionService {
             for (UUID attachmentId : request.getRemoveMediaIds()) {
                 Attachment attachment = attachmentRepository.findById(attachmentId).orElse(null);
                 if (attachment != null && attachment.getContent().getId().equals(questionId)) {
-                    // Delete from cloud storage
-                    if (attachment.getStorageKey() != null) {
-                        try {
-                            storageService.deleteFile(attachment.getStorageKey());
-                        } catch (IOException e) {
-                            log.warn("Failed to delete file from storage: {}", attachment.getStorageKey(), e);
-                            // Continue with database deletion even if cloud deletion fails
-                        }
-                    }
+                    // Delete original and thumbnail from storage once the transaction commits
+                    attachmentUploadService.deleteStoredFiles(attachment);
                     // Remove from question and delete from database
                     content.getAttachments().remove(attachment);
                     attachmentRepository.delete(attachment);
@@ -392,29 +388,8 @@ public class QuestionServiceImpl implements IQuestionService {
         }
 
         // Add new attachments if provided
-        if (files != null && !files.isEmpty()) {
-            List<Attachment> newAttachments = new ArrayList<>();
-            for (MultipartFile file : files) {
-                try {
-                    Map<String, String> uploadResult = storageService.uploadFile(file);
-
-                    Attachment attachment = new Attachment();
-                    attachment.setContent(content);
-                    attachment.setUploadedBy(currentUser);
-                    attachment.setFileName(file.getOriginalFilename());
-                    attachment.setMimeType(file.getContentType());
-                    attachment.setFileSize(file.getSize());
-                    attachment.setStorageUrl(uploadResult.get("url"));
-                    attachment.setStorageKey(uploadResult.get("key"));
-                    attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.getContentType())));
-                    attachment.setIsVerified(true);
-
-                    newAttachments.add(attachment);
-                } catch (IOException e) {
-                    throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
-                }
-            }
-            attachmentRepository.saveAll(newAttachments);
+        if (!uploads.isEmpty()) {
+            List<Attachment> newAttachments = attachmentUploadService.saveAttachments(uploads, content, currentUser);
             content.getAttachments().addAll(newAttachments);
         }
 
@@ -681,40 +656,30 @@ public class QuestionServiceImpl implements IQuestionService {
     }
 
     @Override
-    @Transactional
     public QuestionResponse addAttachments(UUID questionId, List<MultipartFile> files) {
-        User currentUser = serviceHelper.getCurrentUser();
-        Content question = findQuestionByIdOrFail(questionId);
-        
-        serviceHelper.ensureCurrentUserIsAuthor(question.getAuthor().getId(), "add attachments to question");
-        
         if (files == null || files.isEmpty()) {
             throw new BadRequestException("No files provided");
         }
-        
-        List<Attachment> attachments = new ArrayList<>();
-        for (MultipartFile file : files) {
-            try {
-                Map<String, String> uploadResult = storageService.uploadFile(file);
-                
-                Attachment attachment = new Attachment();
-                attachment.setContent(question);
-                attachment.setUploadedBy(currentUser);
-                attachment.setFileName(file.getOriginalFilename());
-                attachment.setMimeType(file.getContentType());
-                attachment.setFileSize(file.getSize());
-                attachment.setStorageUrl(uploadResult.get("url"));
-                attachment.setStorageKey(uploadResult.get("key"));
-                attachment.setFileType(determineAttachmentType(Objects.requireNonNull(file.getContentType())));
-                attachment.setIsVerified(true);
-                
-                attachments.add(attachment);
-            } catch (IOException e) {
-                throw new BadRequestException("Failed to upload file: " + file.getOriginalFilename());
-            }
+        // Kiểm tra quyền trước khi upload để không đẩy file lên storage cho câu hỏi của người khác
+        Content existing = findQuestionByIdOrFail(questionId);
+        serviceHelper.ensureCurrentUserIsAuthor(existing.getAuthor().getId(), "add attachments to question");
+
+        List<UploadedFile> uploads = attachmentUploadService.uploadAll(files);
+        try {
+            return transactionTemplate.execute(status -> doAddAttachments(questionId, uploads));
+        } catch (RuntimeException e) {
+            attachmentUploadService.discard(uploads);
+            throw e;
         }
+    }
+
+    private QuestionResponse doAddAttachments(UUID questionId, List<UploadedFile> uploads) {
+        User currentUser = serviceHelper.getCurrentUser();
+        Content question = findQuestionByIdOrFail(questionId);
         
-        attachmentRepository.saveAll(attachments);
+        serviceHelper.ensureCurrentUserIsAuthor(question.getAuthor().getId(), "add attachments to question");
+        
+        List<Attachment> attachments = attachmentUploadService.saveAttachments(uploads, question, currentUser);
         question.getAttachments().addAll(attachments);
         
         return getQuestionResponseWithInteraction(question);
@@ -733,15 +698,8 @@ public class QuestionServiceImpl implements IQuestionService {
             throw new BadRequestException("Attachment does not belong to this question");
         }
         
-        // Delete from cloud storage
-        if (attachment.getStorageKey() != null) {
-            try {
-                storageService.deleteFile(attachment.getStorageKey());
-            } catch (IOException e) {
-                log.warn("Failed to delete file from storage: {}", attachment.getStorageKey(), e);
-                // Continue with database deletion even if cloud deletion fails
-            }
-        }
+        // Delete original and thumbnail from storage once the transaction commits
+        attachmentUploadService.deleteStoredFiles(attachment);
         
         // Remove from question and delete from database
         question.getAttachments().remove(attachment);
@@ -15,8 +15,10 @@ import org.example.learniversebe.model.*;
 import org.example.learniversebe.repository.*;
 import org.example.learniversebe.service.INotificationService;
 import org.example.learniversebe.service.IReportService;
+import org.example.learniversebe.service.UsernameIndex;
 import org.example.learniversebe.util.ServiceHelper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,12 +26,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
 @Service
 public class ReportServiceImpl implements IReportService {
 
+    private static final int MAX_FEED_PAGE_SIZE = 100;
+
     private final ReportRepository reportRepository;
     private final ContentRepository contentRepository;
     private final AnswerRepository answerRepository;
@@ -39,6 +44,7 @@ public class ReportServiceImpl implements IReportService {
     private final UserMapper userMapper;
     private final ServiceHelper serviceHelper;
     private final INotificationService notificationService;
+    private final UsernameIndex usernameIndex;
 
     public ReportServiceImpl(
             ReportRepository reportRepository,
@@ -49,7 +55,8 @@ public class ReportServiceImpl implements IReportService {
             ReportMapper reportMapper,
             UserMapper userMapper,
             ServiceHelper serviceHelper,
-            INotificationService notificationService) {
+            INotificationService notificationService,
+            UsernameIndex usernameIndex) {
         this.reportRepository = reportRepository;
         this.contentRepository = contentRepository;
         this.answerRepository = answerRepository;
@@ -59,6 +66,7 @@ public class ReportServiceImpl implements IReportService {
         this.userMapper = userMapper;
         this.serviceHelper = serviceHelper;
         this.notificationService = notificationService;
+        this.usernameIndex = usernameIndex;
     }
 
     @Override
@@ -188,6 +196,21 @@ public class ReportServiceImpl implements IReportService {
         return reportRepository.countByStatus(ReportStatus.PENDING);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public org.example.learniversebe.dto.response.pagination.PageResponse<ReportResponse> getModerationFeed(
+            LocalDateTime cursor, UUID cursorId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_FEED_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau mà không cần COUNT
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Report> rows = cursor == null
+                ? reportRepository.findFeedFirstPage(ReportStatus.PENDING, pageable)
+                : reportRepository.findFeedPageBefore(ReportStatus.PENDING, cursor,
+                        cursorId != null ? cursorId : new UUID(0L, 0L), pageable);
+        return reportMapper.toCursorPage(rows, pageSize);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<ReportResponse> getMyReports(Pageable pageable) {
@@ -307,6 +330,7 @@ public class ReportServiceImpl implements IReportService {
         targetAuthor.setStatus(UserStatus.INACTIVE);
         targetAuthor.setEnabled(false);
         userRepository.save(targetAuthor);
+        usernameIndex.remove(targetAuthor.getId(), targetAuthor.getUsername());
 
         // Gửi notification
         String message = String.format(
@@ -334,6 +358,7 @@ public class ReportServiceImpl implements IReportService {
         targetAuthor.setStatus(UserStatus.BANNED);
         targetAuthor.setEnabled(false);
         userRepository.save(targetAuthor);
+        usernameIndex.remove(targetAuthor.getId(), targetAuthor.getUsername());
 
         // Gửi notification
         String message = String.format(
@@ -8,6 +8,8 @@ import org.example.learniversebe.dto.request.UserProfileRequest;
 import org.example.learniversebe.dto.response.PageResponse;
 import org.example.learniversebe.dto.response.TagResponse;
 import org.example.learniversebe.dto.response.UserProfileResponse;
+import org.example.learniversebe.dto.response.UserResponse;
+import org.example.learniversebe.mapper.UserMapper;
 import org.example.learniversebe.model.User;
 import org.example.learniversebe.model.UserProfile;
 import org.example.learniversebe.model.UserProfileTag;
@@ -18,6 +20,7 @@ import org.example.learniversebe.repository.UserProfileTagRepository;
 import org.example.learniversebe.repository.UserRepository;
 import org.example.learniversebe.repository.TagRepository;
 import org.example.learniversebe.service.IUserProfileService;
+import org.example.learniversebe.service.UsernameIndex;
 import org.example.learniversebe.enums.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,23 +35,31 @@ import java.util.*;
 @Slf4j
 @Service
 public class UserProfileServiceImpl implements IUserProfileService {
+    private static final int MAX_AUTOCOMPLETE_SIZE = 20;
+
     private final UserProfileRepository userProfileRepository;
     private final TagRepository userTagRepository;
     private final UserRepository userRepository;
     private final Cloudinary cloudinary;
     private final String cloudinaryFolder;
+    private final UsernameIndex usernameIndex;
+    private final UserMapper userMapper;
 
     public UserProfileServiceImpl(UserProfileRepository userProfileRepository,
                                   TagRepository userTagRepository,
                                   UserProfileTagRepository userProfileTagRepository,
                                   UserRepository userRepository,
                                   Cloudinary cloudinary,
-                                  String cloudinaryFolder) {
+                                  String cloudinaryFolder,
+                                  UsernameIndex usernameIndex,
+                                  UserMapper userMapper) {
         this.userProfileRepository = userProfileRepository;
         this.userTagRepository = userTagRepository;
         this.userRepository = userRepository;
         this.cloudinary = cloudinary;
         this.cloudinaryFolder = cloudinaryFolder;
+        this.usernameIndex = usernameIndex;
+        this.userMapper = userMapper;
     }
 
     @Override
@@ -130,6 +141,33 @@ public class UserProfileServiceImpl implements IUserProfileService {
         return toResponse(userProfileRepository.save(profile));
     }
 
+    /**
+     * Gợi ý @mention theo tiền tố username: tra trie trong bộ nhớ, sau đó một query lấy user kèm profile
+     * (giữ thứ tự của trie).
+     */
+    @Override
+    public List<UserResponse> autocompleteUsernames(String prefix, int limit) {
+        String query = prefix == null ? "" : prefix.trim();
+        if (query.startsWith("@")) {
+            query = query.substring(1);
+        }
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> ids = usernameIndex.autocomplete(query, Math.min(Math.max(limit, 1), MAX_AUTOCOMPLETE_SIZE));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, User> users = new HashMap<>();
+        userRepository.findWithProfileByIdIn(ids).forEach(user -> users.put(user.getId(), user));
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .filter(User::isEnabled)
+                .map(userMapper::toUserResponse)
+                .toList();
+    }
+
     public PageResponse<UserProfileResponse> searchUserExcludeAdmin(Pageable pageable, String search){
         if (search == null) {
             search = "";
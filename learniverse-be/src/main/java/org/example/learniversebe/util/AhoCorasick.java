@@ -0,0 +1,90 @@
+package org.example.learniversebe.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Automaton Aho–Corasick: tìm tất cả vị trí xuất hiện của nhiều pattern trong một lần duyệt text, O(n + số match).
+ * Bất biến sau khi tạo nên dùng chung giữa các thread được. So khớp phân biệt hoa thường —
+ * caller tự chuẩn hóa pattern và text giống nhau.
+ */
+public class AhoCorasick {
+
+    /** Một lần xuất hiện: text.substring(start, end) bằng pattern thứ {@code patternIndex}. */
+    public record Match(int start, int end, int patternIndex) {}
+
+    private static final class Node {
+        final Map<Character, Node> children = new HashMap<>();
+        Node fail;
+        /** Chỉ số các pattern kết thúc tại node này (kể cả qua fail link) */
+        final List<Integer> outputs = new ArrayList<>();
+    }
+
+    private final Node root = new Node();
+    private final int[] patternLengths;
+
+    public AhoCorasick(Collection<String> patterns) {
+        this.patternLengths = new int[patterns.size()];
+        int index = 0;
+        for (String pattern : patterns) {
+            patternLengths[index] = pattern.length();
+            if (!pattern.isEmpty()) {
+                Node node = root;
+                for (int i = 0; i < pattern.length(); i++) {
+                    node = node.children.computeIfAbsent(pattern.charAt(i), c -> new Node());
+                }
+                node.outputs.add(index);
+            }
+            index++;
+        }
+        buildFailLinks();
+    }
+
+    public boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    public List<Match> findAll(String text) {
+        List<Match> matches = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            while (node != root && !node.children.containsKey(c)) {
+                node = node.fail;
+            }
+            node = node.children.getOrDefault(c, root);
+            for (int patternIndex : node.outputs) {
+                matches.add(new Match(i + 1 - patternLengths[patternIndex], i + 1, patternIndex));
+            }
+        }
+        return matches;
+    }
+
+    private void buildFailLinks() {
+        Queue<Node> queue = new ArrayDeque<>();
+        for (Node child : root.children.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node current = queue.poll();
+            for (Map.Entry<Character, Node> entry : current.children.entrySet()) {
+                char c = entry.getKey();
+                Node child = entry.getValue();
+                Node fail = current.fail;
+                while (fail != root && !fail.children.containsKey(c)) {
+                    fail = fail.fail;
+                }
+                Node target = fail.children.get(c);
+                child.fail = (target != null && target != child) ? target : root;
+                child.outputs.addAll(child.fail.outputs);
+                queue.add(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.learniversebe.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache LRU có giới hạn kích thước và thời gian sống (TTL) cho mỗi entry.
+ * Thread-safe bằng synchronized; phù hợp cho cache nhỏ, thao tác O(1).
+ */
+public class LruTtlCache<K, V> {
+
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LruTtlCache(int maxSize, Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        // accessOrder = true: get() đưa entry lên cuối, entry đầu là entry ít dùng nhất
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return giá trị còn hạn, hoặc null nếu không có/đã hết hạn
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdAt() > ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long createdAt) {}
+}
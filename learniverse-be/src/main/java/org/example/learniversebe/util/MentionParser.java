@@ -0,0 +1,50 @@
+package org.example.learniversebe.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tách mention trong nội dung bình luận. Hỗ trợ hai dạng:
+ * - {@code @[username](userId)}: dạng client gửi khi chọn từ gợi ý, lấy thẳng userId.
+ * - {@code @username}: gõ tay; chỉ nhận khi '@' đứng đầu hoặc sau ký tự không thuộc username
+ *   (để email như a@b.com không bị coi là mention). Username được tra ở {@code UsernameIndex}.
+ */
+public final class MentionParser {
+
+    /** Kết quả parse theo thứ tự xuất hiện, không trùng lặp. */
+    public record Mentions(Set<UUID> userIds, Set<String> usernames) {
+        public boolean isEmpty() {
+            return userIds.isEmpty() && usernames.isEmpty();
+        }
+    }
+
+    private static final Pattern MENTION = Pattern.compile(
+            "(?<![\\p{L}\\p{N}_.@])@(?:\\[([^\\]\\n]{1,50})\\]\\(([0-9a-fA-F-]{36})\\)|([\\p{L}\\p{N}_.]{1,50}))");
+
+    private MentionParser() {
+    }
+
+    public static Mentions parse(String body) {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        Set<String> usernames = new LinkedHashSet<>();
+        if (body == null || body.indexOf('@') < 0) {
+            return new Mentions(userIds, usernames);
+        }
+        Matcher matcher = MENTION.matcher(body);
+        while (matcher.find()) {
+            if (matcher.group(2) != null) {
+                try {
+                    userIds.add(UUID.fromString(matcher.group(2)));
+                } catch (IllegalArgumentException e) {
+                    usernames.add(matcher.group(1));
+                }
+            } else {
+                usernames.add(matcher.group(3));
+            }
+        }
+        return new Mentions(userIds, usernames);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.learniversebe.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Mã hóa AES-GCM cho dữ liệu nhạy cảm phải lưu tạm trong DB (ví dụ nội dung email trong outbox).
+ * Khóa 256-bit được dẫn xuất từ secret cấu hình bằng SHA-256. Chuỗi mã hóa có dạng
+ * {@code v1:base64(iv || ciphertext)}; chuỗi không có tiền tố được coi là plaintext cũ và trả về nguyên vẹn.
+ */
+public class SecretCipher {
+
+    private static final String PREFIX = "v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    public SecretCipher(String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("Encryption secret must not be blank");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            this.key = new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public String encrypt(String plaintext) {
+        if (plaintext == null) return null;
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] encrypted = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+
+            byte[] out = new byte[IV_LENGTH + encrypted.length];
+            System.arraycopy(iv, 0, out, 0, IV_LENGTH);
+            System.arraycopy(encrypted, 0, out, IV_LENGTH, encrypted.length);
+            return PREFIX + Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot encrypt value", e);
+        }
+    }
+
+    public String decrypt(String value) {
+        if (value == null || !value.startsWith(PREFIX)) return value;
+        try {
+            byte[] in = Base64.getDecoder().decode(value.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, in, 0, IV_LENGTH));
+            byte[] plain = cipher.doFinal(in, IV_LENGTH, in.length - IV_LENGTH);
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot decrypt value", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.learniversebe.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa text trước khi kiểm duyệt: Unicode NFC, chữ thường, gộp khoảng trắng.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextNormalizer() {}
+
+    public static String normalize(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.learniversebe.util;
+
+/**
+ * Token bucket đơn giản, thread-safe: tối đa {@code capacity} token, nạp lại đều {@code refillPerMinute} token/phút.
+ * Dùng để giới hạn tốc độ gọi dịch vụ ngoài có quota (ví dụ SMTP).
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, long refillPerMinute) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = Math.max(1, refillPerMinute) / 60_000_000_000.0;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Lấy tối đa {@code max} token đang có, không chờ.
+     * @return số token thực sự lấy được (có thể là 0)
+     */
+    public synchronized int tryAcquire(int max) {
+        refill();
+        int granted = (int) Math.min(max, Math.floor(tokens));
+        tokens -= granted;
+        return granted;
+    }
+
+    /**
+     * Trả lại token đã lấy nhưng không dùng tới.
+     */
+    public synchronized void release(int unused) {
+        tokens = Math.min(capacity, tokens + unused);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
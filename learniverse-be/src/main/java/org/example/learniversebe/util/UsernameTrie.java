@@ -0,0 +1,132 @@
+package org.example.learniversebe.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Cây tiền tố (trie) username -> user id, khóa theo username viết thường.
+ * Con của mỗi node được giữ theo thứ tự ký tự nên gợi ý trả về theo thứ tự chữ cái,
+ * và vì mỗi nhánh đều dẫn tới ít nhất một username nên tìm {@code limit} kết quả chỉ duyệt
+ * O(độ dài prefix + limit * độ dài username) node, không phụ thuộc tổng số user.
+ * Không thread-safe — caller tự đồng bộ.
+ */
+public class UsernameTrie {
+
+    /** Một username trong trie, giữ nguyên hoa thường gốc. */
+    public record Entry(UUID userId, String username) {}
+
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        /** Các user có username (viết thường) kết thúc tại node này; thường chỉ một */
+        List<Entry> entries;
+    }
+
+    private final Node root = new Node();
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void put(UUID userId, String username) {
+        Node node = root;
+        String key = normalize(username);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        if (node.entries == null) {
+            node.entries = new ArrayList<>(1);
+        }
+        if (!node.entries.removeIf(entry -> entry.userId().equals(userId))) {
+            size++;
+        }
+        node.entries.add(new Entry(userId, username));
+    }
+
+    public void remove(UUID userId, String username) {
+        String key = normalize(username);
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+            path.add(node);
+        }
+        if (node == null || node.entries == null || !node.entries.removeIf(entry -> entry.userId().equals(userId))) {
+            return;
+        }
+        size--;
+        if (node.entries.isEmpty()) {
+            node.entries = null;
+        }
+        // Cắt các node không còn username nào phía dưới
+        for (int i = key.length(); i > 0; i--) {
+            Node current = path.get(i);
+            if (current.entries != null || !current.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(key.charAt(i - 1));
+        }
+    }
+
+    /**
+     * Tìm đúng username (không phân biệt hoa thường; ưu tiên bản trùng khớp hoa thường nếu có nhiều).
+     */
+    public Entry find(String username) {
+        Node node = descend(normalize(username));
+        if (node == null || node.entries == null) {
+            return null;
+        }
+        for (Entry entry : node.entries) {
+            if (entry.username().equals(username)) {
+                return entry;
+            }
+        }
+        return node.entries.get(0);
+    }
+
+    /**
+     * Tối đa {@code limit} username bắt đầu bằng {@code prefix}, theo thứ tự chữ cái (username ngắn hơn trước).
+     */
+    public List<Entry> startingWith(String prefix, int limit) {
+        List<Entry> result = new ArrayList<>(Math.min(limit, 16));
+        Node node = descend(normalize(prefix));
+        if (node != null && limit > 0) {
+            collect(node, limit, result);
+        }
+        return result;
+    }
+
+    private Node descend(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static boolean collect(Node node, int limit, List<Entry> out) {
+        if (node.entries != null) {
+            for (Entry entry : node.entries) {
+                out.add(entry);
+                if (out.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (collect(child.getValue(), limit, out)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
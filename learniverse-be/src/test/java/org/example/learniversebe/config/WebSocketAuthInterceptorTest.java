@@ -0,0 +1,95 @@
+package org.example.learniversebe.config;
+
+import org.example.learniversebe.jwt.JwtUtil;
+import org.example.learniversebe.model.Content;
+import org.example.learniversebe.repository.ContentRepository;
+import org.example.learniversebe.service.ContentVisibilityService;
+import org.example.learniversebe.service.implementation.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WebSocketAuthInterceptorTest {
+
+    private final ContentRepository contentRepository = mock(ContentRepository.class);
+    private final ContentVisibilityService visibilityService = mock(ContentVisibilityService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final WebSocketAuthInterceptor interceptor = new WebSocketAuthInterceptor(
+            mock(JwtUtil.class), mock(UserDetailsServiceImpl.class), contentRepository, visibilityService,
+            transactionTemplate);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/topic/**", "/topic/mod*", "/topic/moderatio?", "/topic/content/*/comments",
+            "/topic/content/{id}/comments"})
+    void rejectsWildcardSubscriptions(String destination) {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe(destination, "ROLE_USER"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(contentRepository);
+    }
+
+    @Test
+    void moderationTopicRequiresModeratorRole() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/moderation", "ROLE_USER"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatCode(() -> interceptor.preSend(subscribe("/topic/moderation", "ROLE_MODERATOR"), channel))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void contentTopicRequiresViewPermission() {
+        UUID contentId = UUID.randomUUID();
+        Content content = new Content();
+        when(contentRepository.findById(contentId)).thenReturn(Optional.of(content));
+        when(visibilityService.canUserViewContent(any(), eq(content))).thenReturn(false);
+
+        assertThatThrownBy(() -> interceptor.preSend(
+                subscribe("/topic/content/" + contentId + "/comments", "ROLE_USER"), channel))
+                .isInstanceOf(AccessDeniedException.class);
+
+        when(visibilityService.canUserViewContent(any(), eq(content))).thenReturn(true);
+        assertThatCode(() -> interceptor.preSend(
+                subscribe("/topic/content/" + contentId + "/comments", "ROLE_USER"), channel))
+                .doesNotThrowAnyException();
+    }
+
+    private Message<byte[]> subscribe(String destination, String role) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        UsernamePasswordAuthenticationToken user =
+                new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority(role)));
+        user.setDetails(UUID.randomUUID());
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
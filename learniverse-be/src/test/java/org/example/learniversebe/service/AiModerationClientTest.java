@@ -0,0 +1,124 @@
+package org.example.learniversebe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.example.learniversebe.dto.response.AiModerationResponse.PredictionResult;
+import org.example.learniversebe.util.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiModerationClientTest {
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void splitsLongTextAtWhitespaceWithinServiceLimit() {
+        String text = "lorem ipsum ".repeat(400).strip();
+
+        List<String> chunks = AiModerationClient.splitForService(text);
+
+        assertThat(chunks).hasSizeGreaterThan(1)
+                .allSatisfy(chunk -> assertThat(chunk.length()).isBetween(1, AiModerationClient.SERVICE_MAX_TEXT_LENGTH))
+                .allSatisfy(chunk -> assertThat(chunk).doesNotStartWith("orem").doesNotEndWith("lor"));
+        assertThat(String.join(" ", chunks)).isEqualTo(text);
+        assertThat(AiModerationClient.splitForService("ngắn")).containsExactly("ngắn");
+    }
+
+    @Test
+    void combinedVerdictIsFlaggedIfAnyChunkIsFlagged() {
+        PredictionResult combined = AiModerationClient.combine("text",
+                List.of(result(false, 0.99), result(true, 0.7), result(true, 0.9), result(false, 0.6)));
+
+        assertThat(combined.isFlagged()).isTrue();
+        assertThat(combined.getConfidence()).isEqualTo(0.9);
+        assertThat(combined.getText()).isEqualTo("text");
+    }
+
+    @Test
+    void longTextIsSentAsChunksAndCombined() throws Exception {
+        startServer(exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            List<?> texts = (List<?>) new ObjectMapper().readValue(body, Map.class).get("texts");
+            assertThat(texts).allSatisfy(text ->
+                    assertThat(text.toString().length()).isLessThanOrEqualTo(AiModerationClient.SERVICE_MAX_TEXT_LENGTH));
+            StringBuilder results = new StringBuilder();
+            for (Object text : texts) {
+                boolean flagged = text.toString().contains("toxic");
+                results.append(results.isEmpty() ? "" : ",")
+                        .append("{\"is_flagged\":").append(flagged).append(",\"confidence\":0.9}");
+            }
+            respond(exchange, 200, "{\"success\":true,\"results\":[" + results + "]}");
+        });
+        AiModerationClient client = client();
+
+        String longText = "bình thường ".repeat(150) + "toxic";
+        List<PredictionResult> results = client.predictBatch(List.of("ok", longText)).get();
+
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).isFlagged()).isFalse();
+        assertThat(results.get(1).isFlagged()).isTrue();
+    }
+
+    @Test
+    void rejectedRequestsDoNotOpenCircuit() {
+        startServer(exchange -> respond(exchange, 422, "{\"detail\":\"text too long\"}"));
+        AiModerationClient client = client();
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> client.predictBatch(List.of("a", "b")).get())
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(AiModerationClient.RequestRejectedException.class);
+        }
+        assertThat(client.getCircuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private AiModerationClient client() {
+        return new AiModerationClient(new ObjectMapper(), "http://localhost:" + server.getAddress().getPort(),
+                1000, 2000, 3, 30, false, 32, 10, 256);
+    }
+
+    private void startServer(HttpHandler batchHandler) {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        server.createContext("/predict/batch", batchHandler);
+        server.start();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static PredictionResult result(boolean flagged, double confidence) {
+        PredictionResult result = new PredictionResult();
+        result.setFlagged(flagged);
+        result.setConfidence(confidence);
+        return result;
+    }
+}
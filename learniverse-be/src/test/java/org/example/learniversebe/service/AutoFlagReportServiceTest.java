@@ -0,0 +1,66 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.model.Answer;
+import org.example.learniversebe.model.Comment;
+import org.example.learniversebe.model.Report;
+import org.example.learniversebe.repository.ReportRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AutoFlagReportServiceTest {
+
+    private final ReportRepository reportRepository = mock(ReportRepository.class);
+    private final INotificationService notificationService = mock(INotificationService.class);
+    private final AutoFlagReportService service = new AutoFlagReportService(reportRepository, notificationService);
+
+    @Test
+    void commentReportAndModeratorAlertShareTheIndependentTransaction() throws NoSuchMethodException {
+        UUID reportId = UUID.randomUUID();
+        when(reportRepository.save(any(Report.class))).thenAnswer(inv -> {
+            Report report = inv.getArgument(0);
+            report.setId(reportId);
+            return report;
+        });
+        Comment comment = new Comment();
+        comment.setId(UUID.randomUUID());
+        comment.setBody("toxic comment");
+
+        service.createForComment(comment);
+
+        // Caller ném BadRequestException ngay sau đó; alert chỉ sống sót nếu được ghi trong transaction REQUIRES_NEW này
+        verify(notificationService).notifyModeratorsOfAutoFlag(reportId, "COMMENT", "toxic comment");
+        assertThat(propagationOf("createForComment", Comment.class)).isEqualTo(Propagation.REQUIRES_NEW);
+    }
+
+    @Test
+    void answerReportAndModeratorAlertShareTheIndependentTransaction() throws NoSuchMethodException {
+        UUID reportId = UUID.randomUUID();
+        when(reportRepository.save(any(Report.class))).thenAnswer(inv -> {
+            Report report = inv.getArgument(0);
+            report.setId(reportId);
+            return report;
+        });
+        Answer answer = new Answer();
+        answer.setId(UUID.randomUUID());
+        answer.setBody("toxic answer");
+
+        service.createForAnswer(answer);
+
+        verify(notificationService).notifyModeratorsOfAutoFlag(reportId, "ANSWER", "toxic answer");
+        assertThat(propagationOf("createForAnswer", Answer.class)).isEqualTo(Propagation.REQUIRES_NEW);
+    }
+
+    private Propagation propagationOf(String method, Class<?> parameterType) throws NoSuchMethodException {
+        return AutoFlagReportService.class.getMethod(method, parameterType)
+                .getAnnotation(Transactional.class).propagation();
+    }
+}
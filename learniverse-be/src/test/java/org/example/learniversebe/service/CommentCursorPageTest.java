@@ -0,0 +1,77 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.dto.response.CommentResponse;
+import org.example.learniversebe.dto.response.pagination.PageResponse;
+import org.example.learniversebe.enums.ReactableType;
+import org.example.learniversebe.mapper.CommentMapper;
+import org.example.learniversebe.model.Comment;
+import org.example.learniversebe.repository.AnswerRepository;
+import org.example.learniversebe.repository.CommentRepository;
+import org.example.learniversebe.repository.ContentRepository;
+import org.example.learniversebe.repository.MentionRepository;
+import org.example.learniversebe.repository.ReportRepository;
+import org.example.learniversebe.service.implementation.CommentServiceImpl;
+import org.example.learniversebe.util.ServiceHelper;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CommentCursorPageTest {
+
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final CommentMapper commentMapper = mock(CommentMapper.class, Mockito.CALLS_REAL_METHODS);
+    private final CommentServiceImpl service = new CommentServiceImpl(commentRepository,
+            mock(ContentRepository.class), mock(AnswerRepository.class), mock(MentionRepository.class),
+            commentMapper, mock(ServiceHelper.class), mock(CommentViewerStateLoader.class),
+            mock(CommentStreamPublisher.class), mock(UsernameIndex.class), mock(ContentModerationService.class),
+            mock(INotificationService.class), mock(ContentVisibilityService.class), mock(ReportRepository.class),
+            mock(AutoFlagReportService.class), mock(AutoFlagContentService.class));
+
+    @Test
+    void sinceWithoutCursorStartsPollingFromNewestComment() {
+        UUID contentId = UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        // findFirstPageFor trả về mới trước
+        List<Comment> rows = List.of(comment(now), comment(now.minusMinutes(1)), comment(now.minusMinutes(2)));
+        when(commentRepository.findFirstPageFor(eq(ReactableType.CONTENT), eq(contentId), any())).thenReturn(rows);
+
+        PageResponse<CommentResponse> page =
+                service.getCommentsByCursor(ReactableType.CONTENT, contentId, null, null, 20, true);
+
+        assertThat(page.getData()).hasSize(3);
+        assertThat(page.getPagination().getNextCursor()).isEqualTo(now);
+        assertThat(page.getPagination().getNextCursorId()).isEqualTo(rows.get(0).getId());
+        assertThat(page.getPagination().isHasNext()).isFalse();
+    }
+
+    @Test
+    void sinceWithCursorEchoesCursorWhenNothingNew() {
+        UUID contentId = UUID.randomUUID();
+        LocalDateTime cursor = LocalDateTime.now();
+        UUID cursorId = UUID.randomUUID();
+        when(commentRepository.findPageForAfter(eq(ReactableType.CONTENT), eq(contentId), eq(cursor), eq(cursorId), any()))
+                .thenReturn(List.of());
+
+        PageResponse<CommentResponse> page =
+                service.getCommentsByCursor(ReactableType.CONTENT, contentId, cursor, cursorId, 20, true);
+
+        assertThat(page.getPagination().getNextCursor()).isEqualTo(cursor);
+        assertThat(page.getPagination().getNextCursorId()).isEqualTo(cursorId);
+    }
+
+    private Comment comment(LocalDateTime createdAt) {
+        Comment comment = new Comment();
+        comment.setId(UUID.randomUUID());
+        comment.setCreatedAt(createdAt);
+        return comment;
+    }
+}
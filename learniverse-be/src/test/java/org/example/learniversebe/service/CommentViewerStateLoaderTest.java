@@ -0,0 +1,79 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.dto.response.CommentResponse;
+import org.example.learniversebe.enums.ReactableType;
+import org.example.learniversebe.enums.ReactionType;
+import org.example.learniversebe.model.Reaction;
+import org.example.learniversebe.repository.ReactionRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CommentViewerStateLoaderTest {
+
+    private final ReactionRepository reactionRepository = mock(ReactionRepository.class);
+    private final CommentViewerStateLoader loader = new CommentViewerStateLoader(reactionRepository);
+
+    @Test
+    void loadsWholePageWithSingleReactionQuery() {
+        UUID viewerId = UUID.randomUUID();
+        List<CommentResponse> page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CommentResponse root = comment();
+            root.setReplies(List.of(comment(), comment(), comment()));
+            page.add(root);
+        }
+        CommentResponse likedReply = page.get(5).getReplies().get(1);
+        when(reactionRepository.findByUserIdAndReactableTypeAndReactableIdIn(eq(viewerId), eq(ReactableType.COMMENT), anyList()))
+                .thenReturn(List.of(reaction(likedReply.getId(), ReactionType.LIKE)));
+
+        loader.load(page, viewerId);
+
+        verify(reactionRepository, times(1))
+                .findByUserIdAndReactableTypeAndReactableIdIn(eq(viewerId), eq(ReactableType.COMMENT), anyList());
+        assertThat(likedReply.getCurrentUserReaction()).isEqualTo(ReactionType.LIKE);
+        assertThat(page.get(0).getCurrentUserReaction()).isNull();
+    }
+
+    @Test
+    void guestViewerDoesNotQuery() {
+        CommentResponse comment = comment();
+        comment.setCurrentUserReaction(ReactionType.LIKE);
+
+        loader.load(List.of(comment), null);
+
+        verifyNoInteractions(reactionRepository);
+        assertThat(comment.getCurrentUserReaction()).isNull();
+    }
+
+    @Test
+    void emptyPageDoesNotQuery() {
+        loader.load(List.of(), UUID.randomUUID());
+
+        verify(reactionRepository, times(0)).findByUserIdAndReactableTypeAndReactableIdIn(any(), any(), anyList());
+    }
+
+    private static CommentResponse comment() {
+        return CommentResponse.builder().id(UUID.randomUUID()).build();
+    }
+
+    private static Reaction reaction(UUID commentId, ReactionType type) {
+        Reaction reaction = new Reaction();
+        reaction.setReactableType(ReactableType.COMMENT);
+        reaction.setReactableId(commentId);
+        reaction.setReactionType(type);
+        return reaction;
+    }
+}
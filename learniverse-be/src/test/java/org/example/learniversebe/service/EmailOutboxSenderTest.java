@@ -0,0 +1,153 @@
+package org.example.learniversebe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.example.learniversebe.model.EmailOutbox;
+import org.example.learniversebe.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxSenderTest {
+
+    private final EmailOutboxRepository outboxRepository = mock(EmailOutboxRepository.class);
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailOutboxSender sender;
+
+    @BeforeEach
+    void setUp() {
+        when(mailSender.createMimeMessage()).thenAnswer(inv -> new MimeMessage((Session) null));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        sender = new EmailOutboxSender(outboxRepository, mailSender, mock(EmailTemplateEngine.class),
+                new ObjectMapper(), transactionTemplate, Runnable::run, 1, 60, "test-secret", meterRegistry);
+        ReflectionTestUtils.setField(sender, "batchSize", 20);
+        ReflectionTestUtils.setField(sender, "maxAttempts", 3);
+        ReflectionTestUtils.setField(sender, "leaseSeconds", 120L);
+        ReflectionTestUtils.setField(sender, "initialBackoffSeconds", 30L);
+        ReflectionTestUtils.setField(sender, "maxBackoffSeconds", 3600L);
+    }
+
+    @Test
+    void refusesToStartWithoutEncryptionKey() {
+        assertThatThrownBy(() -> new EmailOutboxSender(outboxRepository, mailSender, mock(EmailTemplateEngine.class),
+                new ObjectMapper(), transactionTemplate, Runnable::run, 1, 60, " ", meterRegistry))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("MAIL_OUTBOX_ENCRYPTION_KEY");
+    }
+
+    @Test
+    void sendsWholeBatchInOneCallAndDeletesRows() {
+        List<EmailOutbox> batch = List.of(entry(1L, 0), entry(2L, 0), entry(3L, 0));
+        when(outboxRepository.findDueForUpdate(anyInt())).thenReturn(batch, List.of());
+
+        sender.pollOutbox();
+
+        ArgumentCaptor<MimeMessage[]> messages = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(1)).send(messages.capture());
+        assertThat(messages.getValue()).hasSize(3);
+        verify(outboxRepository).deleteByIdIn(List.of(1L, 2L, 3L));
+        verify(outboxRepository, never()).scheduleRetry(anyLong(), any(), any());
+        assertThat(meterRegistry.counter("mail.outbox.sent").count()).isEqualTo(3);
+    }
+
+    @Test
+    void partialFailureRetriesOnlyFailedMessagesWithBackoff() {
+        List<EmailOutbox> batch = List.of(entry(1L, 0), entry(2L, 1));
+        when(outboxRepository.findDueForUpdate(anyInt())).thenReturn(batch, List.of());
+        doAnswer(inv -> {
+            MimeMessage[] sent = inv.getArgument(0);
+            throw new MailSendException(Map.of(sent[1], new RuntimeException("mailbox full")));
+        }).when(mailSender).send(any(MimeMessage[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        sender.pollOutbox();
+
+        verify(outboxRepository).deleteByIdIn(List.of(1L));
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxRepository).scheduleRetry(eq(2L), nextAttempt.capture(), eq("mailbox full"));
+        // Lần thử thứ 2 thất bại: backoff = 30s * 2^(2-1)
+        assertThat(nextAttempt.getValue()).isCloseTo(before.plusSeconds(60), within(5, ChronoUnit.SECONDS));
+        assertThat(meterRegistry.counter("mail.outbox.sent").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("mail.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionFailureRetriesWholeBatch() {
+        List<EmailOutbox> batch = List.of(entry(1L, 0), entry(2L, 0));
+        when(outboxRepository.findDueForUpdate(anyInt())).thenReturn(batch, List.of());
+        doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        sender.pollOutbox();
+
+        verify(outboxRepository, never()).deleteByIdIn(anyList());
+        verify(outboxRepository).scheduleRetry(eq(1L), any(), eq("connection refused"));
+        verify(outboxRepository).scheduleRetry(eq(2L), any(), eq("connection refused"));
+    }
+
+    @Test
+    void dropsEmailAfterMaxAttempts() {
+        List<EmailOutbox> batch = List.of(entry(7L, 2));
+        when(outboxRepository.findDueForUpdate(anyInt())).thenReturn(batch, List.of());
+        doThrow(new MailSendException("rejected")).when(mailSender).send(any(MimeMessage[].class));
+
+        sender.pollOutbox();
+
+        verify(outboxRepository).deleteByIdIn(List.of(7L));
+        verify(outboxRepository, never()).scheduleRetry(anyLong(), any(), any());
+        assertThat(meterRegistry.counter("mail.outbox.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void storesBodyEncrypted() {
+        ArgumentCaptor<EmailOutbox> saved = ArgumentCaptor.forClass(EmailOutbox.class);
+        when(outboxRepository.save(saved.capture())).thenAnswer(inv -> inv.getArgument(0));
+        when(outboxRepository.findDueForUpdate(anyInt())).thenReturn(List.of());
+
+        sender.enqueue("admin@example.com", "Account", "<p>password: S3cret!</p>");
+
+        assertThat(saved.getValue().getBody()).doesNotContain("S3cret!");
+    }
+
+    private EmailOutbox entry(Long id, int previousAttempts) {
+        EmailOutbox entry = new EmailOutbox();
+        entry.setId(id);
+        entry.setRecipient("user" + id + "@example.com");
+        entry.setSubject("Subject " + id);
+        entry.setBody("<p>Body " + id + "</p>");
+        entry.setAttempts(previousAttempts);
+        entry.setCreatedAt(LocalDateTime.now().minusSeconds(5));
+        return entry;
+    }
+}
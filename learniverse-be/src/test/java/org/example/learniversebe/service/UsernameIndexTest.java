@@ -0,0 +1,50 @@
+package org.example.learniversebe.service;
+
+import org.example.learniversebe.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UsernameIndex index = new UsernameIndex(userRepository);
+
+    @Test
+    void resolveDropsTrailingDotOnlyWhenExactNameIsMissing() {
+        UUID alice = UUID.randomUUID();
+        UUID dotted = UUID.randomUUID();
+        when(userRepository.findActiveUsernames()).thenReturn(List.of(
+                new Object[]{alice, "alice"},
+                new Object[]{dotted, "bob."}));
+        index.rebuild();
+
+        assertThat(index.resolve(List.of("alice."))).containsExactly(alice);
+        assertThat(index.resolve(List.of("alice..."))).containsExactly(alice);
+        assertThat(index.resolve(List.of("bob."))).containsExactly(dotted);
+        assertThat(index.resolve(List.of("...", "carol."))).isEmpty();
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileLoading() {
+        UUID stale = UUID.randomUUID();
+        UUID activated = UUID.randomUUID();
+        // Snapshot đọc trước khi hai thay đổi commit: vẫn thấy "stale", chưa thấy "newbie"
+        when(userRepository.findActiveUsernames()).thenAnswer(inv -> {
+            index.add(activated, "newbie");
+            index.remove(stale, "stale");
+            return List.<Object[]>of(new Object[]{stale, "stale"});
+        });
+
+        index.rebuild();
+
+        assertThat(index.resolve(List.of("newbie"))).containsExactly(activated);
+        assertThat(index.resolve(List.of("stale"))).isEmpty();
+        assertThat(index.autocomplete("", 10)).containsExactly(activated);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.learniversebe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MentionParserTest {
+
+    @Test
+    void parsesTypedAndSelectedMentionsInOrderWithoutDuplicates() {
+        UUID id = UUID.randomUUID();
+        MentionParser.Mentions mentions = MentionParser.parse(
+                "@bob hỏi @[Alice Nguyễn](" + id + ") và @bob, cc @trần_văn.an");
+
+        assertThat(mentions.userIds()).containsExactly(id);
+        assertThat(mentions.usernames()).containsExactly("bob", "trần_văn.an");
+    }
+
+    @Test
+    void ignoresEmailAddresses() {
+        MentionParser.Mentions mentions = MentionParser.parse("liên hệ admin@example.com hoặc a.b@c.d");
+
+        assertThat(mentions.isEmpty()).isTrue();
+    }
+
+    @Test
+    void keepsTrailingDotForIndexToResolve() {
+        // Dấu chấm hợp lệ trong username nên parser giữ nguyên; UsernameIndex bỏ dấu chấm cuối nếu cần
+        MentionParser.Mentions mentions = MentionParser.parse("cảm ơn @alice.");
+
+        assertThat(mentions.usernames()).containsExactly("alice.");
+    }
+
+    @Test
+    void selectedMentionWithInvalidIdFallsBackToName() {
+        MentionParser.Mentions mentions = MentionParser.parse("@[alice](0123456789abcdef0123456789abcdef----)");
+
+        assertThat(mentions.userIds()).isEmpty();
+        assertThat(mentions.usernames()).containsExactly("alice");
+    }
+
+    @Test
+    void emptyOrNullBody() {
+        assertThat(MentionParser.parse(null).isEmpty()).isTrue();
+        assertThat(MentionParser.parse("không có mention").isEmpty()).isTrue();
+    }
+}
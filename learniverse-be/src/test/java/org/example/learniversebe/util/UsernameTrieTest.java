@@ -0,0 +1,65 @@
+package org.example.learniversebe.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UsernameTrieTest {
+
+    private final UsernameTrie trie = new UsernameTrie();
+
+    @Test
+    void startingWithReturnsAlphabeticalMatchesUpToLimit() {
+        trie.put(UUID.randomUUID(), "bob");
+        trie.put(UUID.randomUUID(), "Alice");
+        trie.put(UUID.randomUUID(), "al");
+        trie.put(UUID.randomUUID(), "albert");
+
+        assertThat(trie.startingWith("AL", 10)).extracting(UsernameTrie.Entry::username)
+                .containsExactly("al", "albert", "Alice");
+        assertThat(trie.startingWith("al", 2)).extracting(UsernameTrie.Entry::username)
+                .containsExactly("al", "albert");
+        assertThat(trie.startingWith("z", 10)).isEmpty();
+    }
+
+    @Test
+    void findIsCaseInsensitiveAndPrefersExactCase() {
+        UUID lower = UUID.randomUUID();
+        UUID upper = UUID.randomUUID();
+        trie.put(lower, "alice");
+        trie.put(upper, "ALICE");
+
+        assertThat(trie.find("ALICE").userId()).isEqualTo(upper);
+        assertThat(trie.find("alice").userId()).isEqualTo(lower);
+        assertThat(trie.find("Alice")).isNotNull();
+        assertThat(trie.find("alic")).isNull();
+    }
+
+    @Test
+    void putSameUserTwiceKeepsOneEntry() {
+        UUID id = UUID.randomUUID();
+        trie.put(id, "alice");
+        trie.put(id, "Alice");
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.find("alice").username()).isEqualTo("Alice");
+    }
+
+    @Test
+    void removePrunesEmptyBranches() {
+        UUID alice = UUID.randomUUID();
+        UUID al = UUID.randomUUID();
+        trie.put(alice, "alice");
+        trie.put(al, "al");
+
+        trie.remove(alice, "alice");
+        trie.remove(UUID.randomUUID(), "al");
+
+        assertThat(trie.size()).isEqualTo(1);
+        assertThat(trie.find("alice")).isNull();
+        assertThat(trie.startingWith("ali", 10)).isEmpty();
+        assertThat(trie.find("al").userId()).isEqualTo(al);
+    }
+}
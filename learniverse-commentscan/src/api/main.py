@@ -4,6 +4,7 @@ FastAPI service for Vietnamese comment moderation.
 
 import os
 import json
+import hashlib
 from pathlib import Path
 from typing import List, Optional
 from contextlib import asynccontextmanager
@@ -144,6 +145,7 @@ class ModelManager:
         self.device: torch.device = torch.device("cpu")
         self.is_loaded: bool = False
         self.model_type: str = settings.MODEL_TYPE
+        self.model_version: Optional[str] = None
         
         # For PhoBERT
         self.tokenizer = None
@@ -166,6 +168,8 @@ class ModelManager:
         else:
             self._load_bilstm()
         
+        self.model_version = self._compute_model_version()
+        print(f"Model version: {self.model_version}")
         self.is_loaded = True
         print("Model loading complete!")
     
@@ -221,6 +225,18 @@ class ModelManager:
         )
         print("Initialized preprocessor")
     
+    def _compute_model_version(self) -> str:
+        """Fingerprint of the loaded model; changes whenever weights/config are replaced."""
+        if self.model_type == "phobert":
+            return f"phobert:{settings.PHOBERT_MODEL_NAME}"
+        
+        digest = hashlib.sha256()
+        for path in (settings.WEIGHTS_FILE, settings.CONFIG_FILE, settings.VOCAB_FILE):
+            with open(path, "rb") as f:
+                for chunk in iter(lambda: f.read(1 << 20), b""):
+                    digest.update(chunk)
+        return f"bilstm:{digest.hexdigest()[:16]}"
+    
     def _load_phobert(self):
         """Load PhoBERT model from HuggingFace."""
         if not TRANSFORMERS_AVAILABLE:
@@ -427,6 +443,7 @@ async def get_model_info():
         "num_classes": model_manager.config.get("num_labels", 3),
         "label_names": model_manager.config.get("label_names", ["CLEAN", "OFFENSIVE", "HATE"]),
         "model_name": settings.PHOBERT_MODEL_NAME if model_manager.model_type == "phobert" else "BiLSTM",
+        "model_version": model_manager.model_version,
     }
 
 
@@ -5,6 +5,7 @@ import { Textarea } from "@/components/ui/textarea";
 import { Button } from "@/components/ui/button";
 import { Loader2, Smile } from "lucide-react";
 import { friendService } from "@/lib/api/friendService";
+import { userProfileService } from "@/lib/api/userProfileService";
 import { SuggestedFriend } from "@/types/friend";
 import { Avatar, AvatarFallback, AvatarImage } from "@/components/ui/avatar";
 import {
@@ -113,11 +114,13 @@ export function CommentInput({
                     // @ts-ignore
                     data = response.data?.data || response.data || [];
                 } else {
-                    const response = await friendService.searchFriends(mentionQuery);
-                    // @ts-ignore
-                    const rawData = response.data || response;
-                    // @ts-ignore
-                    data = rawData.content || rawData.data?.content || rawData.data || [];
+                    const matches = await userProfileService.autocompleteMentions(mentionQuery.trim());
+                    data = matches.map(u => ({
+                        id: u.id,
+                        userId: u.id,
+                        username: u.username,
+                        avatarUrl: u.avatarUrl,
+                    }) as SuggestedFriend);
                 }
 
                 if (Array.isArray(data)) {
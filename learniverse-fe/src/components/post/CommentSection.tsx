@@ -9,6 +9,7 @@ import { Send, Loader2 } from "lucide-react";
 import { commentService } from "@/lib/api/commentService";
 import type { Comment } from "@/types/comment";
 import { toast } from "sonner";
+import { websocketService, type CommentStreamBatch } from "@/lib/websocketService";
 
 import { useAuth } from "@/context/AuthContext";
 import { CommentItem } from "./CommentItem";
@@ -31,6 +32,35 @@ export function CommentSection({ postId, commentableType, onCommentAdded }: Comm
     loadComments();
   }, [postId, commentableType]);
 
+  // Nhận bình luận mới/sửa/xóa theo thời gian thực (chỉ với bình luận trực tiếp trên bài viết)
+  useEffect(() => {
+    if (commentableType === "ANSWER" || !websocketService.isConnected()) return;
+
+    const unsubscribe = websocketService.subscribeToContentComments(postId, (batch: CommentStreamBatch) => {
+      if (batch.truncated) {
+        loadComments();
+        return;
+      }
+      setComments((prev) => {
+        let next = prev;
+        for (const event of batch.events) {
+          if (event.type === "COMMENT_CREATED" && event.comment && !event.parentId
+              && event.comment.commentableId === postId
+              && !next.some((c) => c.id === event.id)) {
+            next = [event.comment as Comment, ...next];
+          } else if (event.type === "COMMENT_UPDATED" && event.comment) {
+            next = next.map((c) => (c.id === event.id ? { ...c, ...event.comment, currentUserReaction: c.currentUserReaction } : c));
+          } else if (event.type === "COMMENT_DELETED") {
+            next = next.filter((c) => c.id !== event.id);
+          }
+        }
+        return next;
+      });
+    });
+
+    return () => unsubscribe?.();
+  }, [postId, commentableType]);
+
   const loadComments = async () => {
     try {
       setIsLoading(true);
@@ -56,7 +86,7 @@ export function CommentSection({ postId, commentableType, onCommentAdded }: Comm
         mentionedUserIds: mentionedUserIds
       });
 
-      setComments([createdComment, ...comments]);
+      setComments((prev) => (prev.some((c) => c.id === createdComment.id) ? prev : [createdComment, ...prev]));
       setNewComment("");
       onCommentAdded?.();
 
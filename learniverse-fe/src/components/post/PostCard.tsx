@@ -355,6 +355,11 @@ export function PostCard({ post, onDelete, initialCollectionName, showGroupName
   }
 
   const activeReactionConfig = REACTIONS_CONFIG.find(r => r.type === currentReaction)
+  // Top reaction types from the server-side histogram (most frequent first)
+  const topReactionConfigs = Object.keys(post.reactionBreakdown ?? {})
+    .map(type => REACTIONS_CONFIG.find(r => r.type === type))
+    .filter((r): r is (typeof REACTIONS_CONFIG)[number] => !!r)
+    .slice(0, 3)
 
   const parseDate = (dateString: string) => {
     if (!dateString) return new Date();
@@ -719,7 +724,11 @@ export function PostCard({ post, onDelete, initialCollectionName, showGroupName
       <CardFooter className="flex-col items-start gap-4 z-10">
         <div className="flex w-full justify-between text-xs text-muted-foreground">
           <div className="flex items-center gap-1">
-            {activeReactionConfig && (
+            {topReactionConfigs.length > 0 ? (
+              topReactionConfigs.map(r => (
+                <r.icon key={r.type} className={cn("h-4 w-4", r.color)} />
+              ))
+            ) : activeReactionConfig && (
               <activeReactionConfig.icon className={cn("h-4 w-4", activeReactionConfig.color)} />
             )}
             <span>{reactionCount} Reactions</span>
@@ -134,11 +134,29 @@ export function NotificationProvider({ children }: { children: React.ReactNode }
             notificationSubscriptionRef.current = null;
           }
 
-          notificationSubscriptionRef.current = websocketService.subscribeToNotifications(user.id, (notification) => {
-            setUnreadNotificationsCount(prev => prev + 1);
+          const onNotification = (notification: { content?: string; unreadCount?: number | null }) => {
+            // Server gửi kèm số chưa đọc trong message riêng của user; broadcast thì không có
+            const unreadCount = notification.unreadCount;
+            setUnreadNotificationsCount(prev => typeof unreadCount === "number" ? unreadCount : prev + 1);
             playNotificationSound();
             toast.info(notification.content || "Bạn có thông báo mới");
-          });
+          };
+          const unsubscribeUser = websocketService.subscribeToNotifications(user.id, onNotification);
+          const unsubscribeBroadcast = websocketService.subscribeToBroadcasts(onNotification);
+          const isModerator = (user.roles ?? [user.role]).some(
+            role => role === "ROLE_ADMIN" || role === "ROLE_MODERATOR"
+          );
+          const unsubscribeModeration = isModerator
+            ? websocketService.subscribeToModeration((event) => {
+                playNotificationSound();
+                toast.warning(event.content || "Có nội dung mới cần kiểm duyệt");
+              })
+            : null;
+          notificationSubscriptionRef.current = () => {
+            unsubscribeUser?.();
+            unsubscribeBroadcast?.();
+            unsubscribeModeration?.();
+          };
 
 
           await refreshMessages();
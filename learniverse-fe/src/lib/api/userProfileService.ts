@@ -5,12 +5,26 @@ import { ApiResponse, PageResponse } from "@/types/api";
 
 const BASE_URL = "/user_profile";
 
+export interface MentionSuggestion {
+    id: string;
+    username: string;
+    avatarUrl: string | null;
+}
+
 export const userProfileService = {
     getMyProfile: async () => {
         const res = await apiService.get<UserProfileResponse>(`${BASE_URL}/me`);
         return res.data;
     },
 
+    // Username prefix lookup backed by the server-side mention index
+    autocompleteMentions: async (q: string, limit = 8) => {
+        const res = await apiService.get<ApiResponse<MentionSuggestion[]>>(`${BASE_URL}/mentions/autocomplete`, {
+            params: { q, limit }
+        });
+        return res.data.data || [];
+    },
+
     getUserProfile: async (userId: string) => {
         const res = await apiService.get<UserProfileResponse>(`${BASE_URL}/${userId}`);
         return res.data;
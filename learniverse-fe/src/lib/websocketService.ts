@@ -41,6 +41,28 @@ export interface NotificationEvent {
   createdAt: string;
 }
 
+export type CommentStreamEventType =
+  | "COMMENT_CREATED"
+  | "COMMENT_UPDATED"
+  | "COMMENT_DELETED"
+  | "ANSWER_CREATED"
+  | "ANSWER_DELETED";
+
+export interface CommentStreamEvent {
+  type: CommentStreamEventType;
+  id: string;
+  parentId: string | null;
+  comment: any | null;
+  answer: any | null;
+  occurredAt: string;
+}
+
+export interface CommentStreamBatch {
+  contentId: string;
+  events: CommentStreamEvent[];
+  truncated: boolean;
+}
+
 class WebSocketService {
   private client: Client | null = null;
   private reconnectDelay = 5000;
@@ -370,6 +392,66 @@ class WebSocketService {
     return () => subscription.unsubscribe();
   }
 
+  // Subscribe to system-wide broadcast notifications (one message for all users)
+  subscribeToBroadcasts(callback: (notification: NotificationEvent) => void) {
+    if (!this.client?.connected) {
+      console.error("[WebSocket] Not connected");
+      return null;
+    }
+
+    const subscription = this.client.subscribe("/topic/broadcast", (message) => {
+      try {
+        callback(JSON.parse(message.body));
+      } catch (error) {
+        console.error("[WS] ❌ Error parsing broadcast:", error);
+      }
+    });
+
+    return () => subscription.unsubscribe();
+  }
+
+  // Moderation queue events (admins/moderators only; the server rejects other subscribers)
+  subscribeToModeration(callback: (notification: NotificationEvent) => void) {
+    if (!this.client?.connected) {
+      console.error("[WebSocket] Not connected");
+      return null;
+    }
+
+    const subscription = this.client.subscribe("/topic/moderation", (message) => {
+      try {
+        callback(JSON.parse(message.body));
+      } catch (error) {
+        console.error("[WS] ❌ Error parsing moderation event:", error);
+      }
+    });
+
+    return () => subscription.unsubscribe();
+  }
+
+  // Live comment/answer events of one post or question, batched per frame
+  subscribeToContentComments(
+    contentId: string,
+    callback: (batch: CommentStreamBatch) => void
+  ) {
+    if (!this.client?.connected) {
+      console.error("[WebSocket] Not connected");
+      return null;
+    }
+
+    const subscription = this.client.subscribe(
+      `/topic/content/${contentId}/comments`,
+      (message) => {
+        try {
+          callback(JSON.parse(message.body));
+        } catch (error) {
+          console.error("[WS] ❌ Error parsing comment stream event:", error);
+        }
+      }
+    );
+
+    return () => subscription.unsubscribe();
+  }
+
   // Send message via WebSocket
   sendMessage(message: WebSocketMessage) {
     if (!this.client?.connected) {
@@ -26,4 +26,5 @@ export interface Notification {
   senderId: string;
   senderName: string;
   senderAvatarUrl: string | null;
+  unreadCount?: number | null;
 }
\ No newline at end of file
@@ -71,6 +71,7 @@ export type Post = {
   viewCount: number;
   commentCount: number;
   reactionCount: number;
+  reactionBreakdown?: Partial<Record<string, number>>;
   bookmarkCount: number;
   shareCount: number;
   createdAt: string;